@@ -5,7 +5,15 @@ import com.example.backend_darkitchen.entity.Client;
 import com.example.backend_darkitchen.entity.User.UserRole;
 import com.example.backend_darkitchen.Repository.UserRepository;
 import com.example.backend_darkitchen.Repository.ClientRepository;
+import com.example.backend_darkitchen.Service.AccountChangedEvent;
+import com.example.backend_darkitchen.Service.AuthenticatedAccount;
+import com.example.backend_darkitchen.Service.EmailRegistry;
+import com.example.backend_darkitchen.Service.PasswordService;
+import com.example.backend_darkitchen.Service.TokenService;
+import com.example.backend_darkitchen.config.AuthTokenInterceptor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -24,6 +32,18 @@ public class AuthController {
     @Autowired
     private ClientRepository clientRepository;
     
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private PasswordService passwordService;
+    
+    @Autowired
+    private TokenService tokenService;
+    
+    @Autowired
+    private EmailRegistry emailRegistry;
+    
     // Endpoint unifié de login (auto-détection)
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody Map<String, String> credentials) {
@@ -38,17 +58,9 @@ public class AuthController {
         if (user.isPresent()) {
             System.out.println("Found in User table - Role: " + user.get().getRole());
             
-            if (password != null && password.equals(user.get().getPassword())) {
+            if (checkPassword(user.get(), password)) {
                 System.out.println("SUCCESS: Staff login");
-                
-                Map<String, Object> response = new HashMap<>();
-                response.put("id", user.get().getId());
-                response.put("email", user.get().getEmail());
-                response.put("fullName", user.get().getFullName());
-                response.put("role", user.get().getRole().toString());
-                response.put("type", "STAFF");
-                
-                return ResponseEntity.ok(response);
+                return ResponseEntity.ok(staffResponse(user.get()));
             }
         }
         
@@ -57,23 +69,9 @@ public class AuthController {
         if (client.isPresent()) {
             System.out.println("Found in Client table");
             
-            if (password != null && password.equals(client.get().getPassword())) {
+            if (checkPassword(client.get(), password)) {
                 System.out.println("SUCCESS: Client login");
-                
-                Map<String, Object> response = new HashMap<>();
-                response.put("id", client.get().getId());
-                response.put("email", client.get().getEmail());
-                response.put("firstName", client.get().getFirstName());
-                response.put("lastName", client.get().getLastName());
-                response.put("fullName", client.get().getFullName());
-                response.put("phoneNumber", client.get().getPhoneNumber());
-                response.put("address", client.get().getAddress());
-                response.put("city", client.get().getCity());
-                response.put("postalCode", client.get().getPostalCode());
-                response.put("role", "CLIENT");
-                response.put("type", "CLIENT");
-                
-                return ResponseEntity.ok(response);
+                return ResponseEntity.ok(clientResponse(client.get()));
             }
         }
         
@@ -93,17 +91,9 @@ public class AuthController {
         
         Optional<User> user = userRepository.findByEmail(email);
         
-        if (user.isPresent() && password.equals(user.get().getPassword())) {
+        if (user.isPresent() && checkPassword(user.get(), password)) {
             System.out.println("SUCCESS: Staff login");
-            
-            Map<String, Object> response = new HashMap<>();
-            response.put("id", user.get().getId());
-            response.put("email", user.get().getEmail());
-            response.put("fullName", user.get().getFullName());
-            response.put("role", user.get().getRole().toString());
-            response.put("type", "STAFF");
-            
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(staffResponse(user.get()));
         }
         
         return ResponseEntity.badRequest().body(Map.of(
@@ -121,23 +111,9 @@ public class AuthController {
         
         Optional<Client> client = clientRepository.findByEmail(email);
         
-        if (client.isPresent() && password.equals(client.get().getPassword())) {
+        if (client.isPresent() && checkPassword(client.get(), password)) {
             System.out.println("SUCCESS: Client login");
-            
-            Map<String, Object> response = new HashMap<>();
-            response.put("id", client.get().getId());
-            response.put("email", client.get().getEmail());
-            response.put("firstName", client.get().getFirstName());
-            response.put("lastName", client.get().getLastName());
-            response.put("fullName", client.get().getFullName());
-            response.put("phoneNumber", client.get().getPhoneNumber());
-            response.put("address", client.get().getAddress());
-            response.put("city", client.get().getCity());
-            response.put("postalCode", client.get().getPostalCode());
-            response.put("role", "CLIENT");
-            response.put("type", "CLIENT");
-            
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(clientResponse(client.get()));
         }
         
         return ResponseEntity.badRequest().body(Map.of(
@@ -145,6 +121,39 @@ public class AuthController {
         ));
     }
     
+    // Appelant courant, lu dans le jeton (aucune requête en base)
+    @GetMapping("/me")
+    public ResponseEntity<?> me(
+            @RequestAttribute(value = AuthTokenInterceptor.ACCOUNT_ATTRIBUTE, required = false) AuthenticatedAccount account) {
+        if (account == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of(
+                "error", "Jeton absent, invalide ou expiré"
+            ));
+        }
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("id", account.getId());
+        response.put("email", account.getEmail());
+        response.put("fullName", account.getFullName());
+        response.put("role", account.getRole());
+        response.put("type", account.getType());
+        response.put("expiresAt", account.getExpiresAtMillis());
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    // Déconnexion : le jeton présenté est révoqué
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(
+            @RequestAttribute(value = AuthTokenInterceptor.ACCOUNT_ATTRIBUTE, required = false) AuthenticatedAccount account) {
+        if (account != null) {
+            tokenService.revoke(account);
+        }
+        return ResponseEntity.ok(Map.of(
+            "message", "Déconnexion réussie"
+        ));
+    }
+    
     // Inscription client
     @PostMapping("/register")
     public ResponseEntity<?> register(@RequestBody Map<String, String> userData) {
@@ -161,7 +170,7 @@ public class AuthController {
         System.out.println("Email: " + email);
         
         // Vérifier si l'email existe déjà
-        if (userRepository.existsByEmail(email) || clientRepository.existsByEmail(email)) {
+        if (emailRegistry.confirmTaken(email)) {
             return ResponseEntity.badRequest().body(Map.of(
                 "error", "Email déjà utilisé"
             ));
@@ -172,36 +181,24 @@ public class AuthController {
         client.setFirstName(firstName);
         client.setLastName(lastName);
         client.setEmail(email);
-        client.setPassword(password);
+        client.setPassword(passwordService.hash(password));
         client.setPhoneNumber(phoneNumber);
         client.setAddress(address);
         client.setCity(city);
         client.setPostalCode(postalCode);
         
         Client savedClient = clientRepository.save(client);
+        eventPublisher.publishEvent(AccountChangedEvent.of(savedClient));
         
-        // Créer la réponse avec HashMap pour plus de 10 champs
-        Map<String, Object> response = new HashMap<>();
-        response.put("id", savedClient.getId());
-        response.put("email", savedClient.getEmail());
-        response.put("firstName", savedClient.getFirstName());
-        response.put("lastName", savedClient.getLastName());
-        response.put("fullName", savedClient.getFullName());
-        response.put("phoneNumber", savedClient.getPhoneNumber());
-        response.put("address", savedClient.getAddress());
-        response.put("city", savedClient.getCity());
-        response.put("postalCode", savedClient.getPostalCode());
-        response.put("role", "CLIENT");
-        response.put("type", "CLIENT");
-        
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(clientResponse(savedClient));
     }
     
     // Vérifier si un email existe
     @GetMapping("/check-email/{email}")
     public ResponseEntity<?> checkEmailExists(@PathVariable String email) {
+        // Filtre de Bloom d'abord : un email libre ne coûte aucune requête
         // Vérifier dans User (staff)
-        Optional<User> user = userRepository.findByEmail(email);
+        Optional<User> user = emailRegistry.findStaff(email);
         if (user.isPresent()) {
             Map<String, Object> response = new HashMap<>();
             response.put("exists", true);
@@ -211,8 +208,7 @@ public class AuthController {
         }
         
         // Vérifier dans Client
-        Optional<Client> client = clientRepository.findByEmail(email);
-        if (client.isPresent()) {
+        if (emailRegistry.clientEmailExists(email)) {
             Map<String, Object> response = new HashMap<>();
             response.put("exists", true);
             response.put("type", "CLIENT");
@@ -236,4 +232,56 @@ public class AuthController {
         
         return ResponseEntity.ok(response);
     }
+    
+    // Vérification BCrypt (coût payé seulement ici) ; un ancien mot de passe en clair est re-haché
+    private boolean checkPassword(User user, String password) {
+        if (!passwordService.matches(password, user.getPassword())) {
+            return false;
+        }
+        if (passwordService.needsUpgrade(user.getPassword())) {
+            user.setPassword(passwordService.hash(password));
+            userRepository.save(user);
+        }
+        return true;
+    }
+    
+    private boolean checkPassword(Client client, String password) {
+        if (!passwordService.matches(password, client.getPassword())) {
+            return false;
+        }
+        if (passwordService.needsUpgrade(client.getPassword())) {
+            client.setPassword(passwordService.hash(password));
+            clientRepository.save(client);
+        }
+        return true;
+    }
+    
+    private Map<String, Object> staffResponse(User user) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("id", user.getId());
+        response.put("email", user.getEmail());
+        response.put("fullName", user.getFullName());
+        response.put("role", user.getRole().toString());
+        response.put("type", "STAFF");
+        response.put("token", tokenService.issue(user));
+        return response;
+    }
+    
+    // HashMap pour plus de 10 champs
+    private Map<String, Object> clientResponse(Client client) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("id", client.getId());
+        response.put("email", client.getEmail());
+        response.put("firstName", client.getFirstName());
+        response.put("lastName", client.getLastName());
+        response.put("fullName", client.getFullName());
+        response.put("phoneNumber", client.getPhoneNumber());
+        response.put("address", client.getAddress());
+        response.put("city", client.getCity());
+        response.put("postalCode", client.getPostalCode());
+        response.put("role", "CLIENT");
+        response.put("type", "CLIENT");
+        response.put("token", tokenService.issue(client));
+        return response;
+    }
 }
\ No newline at end of file
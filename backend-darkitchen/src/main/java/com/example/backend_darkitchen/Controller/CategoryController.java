@@ -1,14 +1,17 @@
 package com.example.backend_darkitchen.Controller;
 
+import com.example.backend_darkitchen.dto.CategoryDTO;
 import com.example.backend_darkitchen.entity.Category;
 import com.example.backend_darkitchen.Service.CategoryService;
+import com.example.backend_darkitchen.Service.MenuCacheService;
+import com.example.backend_darkitchen.Service.MenuPayload;
+import com.example.backend_darkitchen.Service.MenuSnapshot;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/categories")
 @CrossOrigin(origins = "http://localhost:3000")
@@ -17,25 +20,30 @@ public class CategoryController {
     @Autowired
     private CategoryService categoryService;
 
-    // Toutes les catégories
+    @Autowired
+    private MenuCacheService menuCacheService;
+
+    // Toutes les catégories (JSON pré-sérialisé + ETag)
     @GetMapping
-    public ResponseEntity<List<Category>> getAllCategories() {
-        List<Category> categories = categoryService.getAllCategories();
-        return ResponseEntity.ok(categories);
+    public ResponseEntity<byte[]> getAllCategories(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        MenuPayload payload = menuCacheService.current().getPayload(MenuSnapshot.VIEW_CATEGORIES);
+        return MenuResponses.of(payload, ifNoneMatch, acceptEncoding);
     }
 
     // Créer une catégorie
     @PostMapping
-    public ResponseEntity<Category> createCategory(@RequestBody Category category) {
+    public ResponseEntity<CategoryDTO> createCategory(@RequestBody Category category) {
         Category savedCategory = categoryService.createCategory(category);
-        return ResponseEntity.status(HttpStatus.CREATED).body(savedCategory);
+        return ResponseEntity.status(HttpStatus.CREATED).body(CategoryDTO.from(savedCategory));
     }
 
     // Mettre à jour une catégorie
     @PutMapping("/{id}")
-    public ResponseEntity<Category> updateCategory(@PathVariable Long id, @RequestBody Category category) {
+    public ResponseEntity<CategoryDTO> updateCategory(@PathVariable Long id, @RequestBody Category category) {
         Category updatedCategory = categoryService.updateCategory(id, category);
-        return ResponseEntity.ok(updatedCategory);
+        return ResponseEntity.ok(CategoryDTO.from(updatedCategory));
     }
 
     // Supprimer une catégorie
@@ -47,20 +55,21 @@ public class CategoryController {
 
     // Une catégorie par ID
     @GetMapping("/{id}")
-    public ResponseEntity<Category> getCategoryById(@PathVariable Long id) {
-        Category category = categoryService.getCategoryById(id);
-        return ResponseEntity.ok(category);
+    public ResponseEntity<byte[]> getCategoryById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        MenuPayload payload = menuCacheService.current().getPayload(MenuSnapshot.categoryView(id));
+        if (payload == null) {
+            throw new RuntimeException("Catégorie non trouvée avec l'id: " + id);
+        }
+        return MenuResponses.of(payload, ifNoneMatch, acceptEncoding);
     }
+    // Les plats ne sont pas sérialisés (@JsonIgnore) : même contenu que la liste, servi depuis le cache
     @GetMapping("/with-dishes")
-public ResponseEntity<List<Category>> getAllCategoriesWithDishes() {
-    List<Category> categories = categoryService.getAllCategories();
-    
-    // Charger explicitement les plats pour chaque catégorie
-    for (Category category : categories) {
-        // Cette ligne force le chargement des plats
-        category.getDishes().size(); 
-    }
-    
-    return ResponseEntity.ok(categories);
+public ResponseEntity<byte[]> getAllCategoriesWithDishes(
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+    return getAllCategories(ifNoneMatch, acceptEncoding);
 }
 }
\ No newline at end of file
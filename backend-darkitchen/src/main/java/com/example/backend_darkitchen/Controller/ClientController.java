@@ -1,14 +1,22 @@
 package com.example.backend_darkitchen.Controller;
 
+import com.example.backend_darkitchen.dto.ClientDTO;
 import com.example.backend_darkitchen.entity.Client;
-import com.example.backend_darkitchen.entity.Order;
 import com.example.backend_darkitchen.Repository.ClientRepository;
+import com.example.backend_darkitchen.Repository.OrderRepository;
+import com.example.backend_darkitchen.Service.AccountChangedEvent;
+import com.example.backend_darkitchen.Service.AccountSearchService;
+import com.example.backend_darkitchen.Service.AuthenticatedAccount;
+import com.example.backend_darkitchen.Service.PasswordService;
+import com.example.backend_darkitchen.Service.TokenService;
+import com.example.backend_darkitchen.config.AuthTokenInterceptor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -21,24 +29,62 @@ public class ClientController {
     @Autowired
     private ClientRepository clientRepository;
     
-    // Récupérer tous les clients
+    @Autowired
+    private OrderRepository orderRepository;
+    
+    @Autowired
+    private AccountSearchService accountSearchService;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private PasswordService passwordService;
+    
+    @Autowired
+    private TokenService tokenService;
+    
+    // Rechercher des clients (nom, email, téléphone ; préfixe, sous-chaîne, fautes de frappe)
+    @GetMapping("/search")
+    public ResponseEntity<List<ClientDTO>> searchClients(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(accountSearchService.searchClients(query, page, size));
+    }
+    
+    // Récupérer tous les clients (projection : ni mot de passe ni commandes, une seule requête)
     @GetMapping
-    public ResponseEntity<List<Client>> getAllClients() {
-        List<Client> clients = clientRepository.findAll();
-        return ResponseEntity.ok(clients);
+    public ResponseEntity<List<ClientDTO>> getAllClients() {
+        return ResponseEntity.ok(clientRepository.findAllViews());
     }
     
-    // Récupérer un client par ID
+    // Récupérer un client par ID (le client lui-même ou le personnel)
     @GetMapping("/{id}")
-    public ResponseEntity<Client> getClientById(@PathVariable Long id) {
+    public ResponseEntity<?> getClientById(
+            @PathVariable Long id,
+            @RequestAttribute(AuthTokenInterceptor.ACCOUNT_ATTRIBUTE) AuthenticatedAccount account) {
+        if (!account.canAccessClient(id)) {
+            return forbidden();
+        }
         Optional<Client> client = clientRepository.findById(id);
-        return client.map(ResponseEntity::ok)
+        return client.map(ClientDTO::from).map(ResponseEntity::ok)
                     .orElse(ResponseEntity.notFound().build());
     }
     
-    // Mettre à jour un client
+    // Mettre à jour un client (le client lui-même ou le personnel)
     @PutMapping("/{id}")
-    public ResponseEntity<?> updateClient(@PathVariable Long id, @RequestBody Map<String, String> clientData) {
+    public ResponseEntity<?> updateClient(
+            @PathVariable Long id,
+            @RequestBody Map<String, String> clientData,
+            @RequestAttribute(AuthTokenInterceptor.ACCOUNT_ATTRIBUTE) AuthenticatedAccount account) {
+        if (!account.canAccessClient(id)) {
+            return forbidden();
+        }
+        // Mot de passe sans l'ancien et activation : réservés au personnel (le client passe par change-password)
+        if (!account.isStaff() && (clientData.containsKey("password") || clientData.containsKey("active"))) {
+            return forbidden();
+        }
         Optional<Client> optionalClient = clientRepository.findById(id);
         
         if (!optionalClient.isPresent()) {
@@ -67,14 +113,19 @@ public class ClientController {
             client.setPostalCode(clientData.get("postalCode"));
         }
         if (clientData.containsKey("password") && !clientData.get("password").isEmpty()) {
-            client.setPassword(clientData.get("password"));
+            client.setPassword(passwordService.hash(clientData.get("password")));
+            tokenService.revokeAll(AuthenticatedAccount.CLIENT, id);
         }
         if (clientData.containsKey("active")) {
             client.setActive(Boolean.parseBoolean(clientData.get("active")));
+            if (!client.isActive()) {
+                tokenService.revokeAll(AuthenticatedAccount.CLIENT, id);
+            }
         }
         
         Client updatedClient = clientRepository.save(client);
-        return ResponseEntity.ok(updatedClient);
+        eventPublisher.publishEvent(AccountChangedEvent.of(updatedClient));
+        return ResponseEntity.ok(ClientDTO.from(updatedClient));
     }
     
     // Désactiver un client (soft delete)
@@ -89,6 +140,7 @@ public class ClientController {
         Client client = optionalClient.get();
         client.setActive(false);
         clientRepository.save(client);
+        tokenService.revokeAll(AuthenticatedAccount.CLIENT, id);
         
         return ResponseEntity.ok(Map.of(
             "message", "Client désactivé avec succès"
@@ -116,10 +168,16 @@ public class ClientController {
     // Statistiques des clients
     @GetMapping("/stats")
     public ResponseEntity<Map<String, Object>> getClientStats() {
-        long totalClients = clientRepository.count();
-        long activeClients = clientRepository.findAll().stream()
-            .filter(Client::isActive)
-            .count();
+        // Une seule requête GROUP BY active au lieu de charger tous les clients
+        long activeClients = 0;
+        long totalClients = 0;
+        for (Object[] row : clientRepository.countByActive()) {
+            long count = ((Number) row[1]).longValue();
+            totalClients += count;
+            if (Boolean.TRUE.equals(row[0])) {
+                activeClients = count;
+            }
+        }
         
         return ResponseEntity.ok(Map.of(
             "total", totalClients,
@@ -133,7 +191,11 @@ public class ClientController {
 @PutMapping("/{id}/change-password")
 public ResponseEntity<?> changePassword(
         @PathVariable Long id,
-        @RequestBody Map<String, String> passwordData) {
+        @RequestBody Map<String, String> passwordData,
+        @RequestAttribute(AuthTokenInterceptor.ACCOUNT_ATTRIBUTE) AuthenticatedAccount account) {
+    if (!account.canAccessClient(id)) {
+        return forbidden();
+    }
     
     Optional<Client> optionalClient = clientRepository.findById(id);
     
@@ -154,7 +216,7 @@ public ResponseEntity<?> changePassword(
     String newPassword = passwordData.get("newPassword");
     
     // Vérifier le mot de passe actuel
-    if (!client.getPassword().equals(currentPassword)) {
+    if (!passwordService.matches(currentPassword, client.getPassword())) {
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
             .body(Map.of("error", "Mot de passe actuel incorrect"));
     }
@@ -172,20 +234,27 @@ public ResponseEntity<?> changePassword(
     }
     
     // Changer le mot de passe
-    client.setPassword(newPassword);
+    client.setPassword(passwordService.hash(newPassword));
     Client updatedClient = clientRepository.save(client);
+    tokenService.revokeAll(AuthenticatedAccount.CLIENT, id);
     
     return ResponseEntity.ok(Map.of(
         "success", true,
         "message", "Mot de passe modifié avec succès",
-        "client", updatedClient
+        "client", ClientDTO.from(updatedClient)
     ));
 }
 
 
-// Dans ClientController.java, ajoutez cette méthode :
+// Statistiques d'un client : une lecture du client et une requête agrégée sur ses commandes
 @GetMapping("/{id}/stats")
-public ResponseEntity<?> getClientStats(@PathVariable Long id) {
+public ResponseEntity<?> getClientStats(
+        @PathVariable Long id,
+        @RequestAttribute(AuthTokenInterceptor.ACCOUNT_ATTRIBUTE) AuthenticatedAccount account) {
+    if (!account.canAccessClient(id)) {
+        return forbidden();
+    }
+    
     Optional<Client> optionalClient = clientRepository.findById(id);
     
     if (!optionalClient.isPresent()) {
@@ -194,37 +263,28 @@ public ResponseEntity<?> getClientStats(@PathVariable Long id) {
     
     Client client = optionalClient.get();
     
-    // Récupérer le nombre de commandes pour ce client
-    long orderCount = client.getOrders() != null ? client.getOrders().size() : 0;
+    // [nombre de commandes, total en centimes, date de la dernière commande]
+    Object[] totals = orderRepository.aggregateByClientId(id).get(0);
+    long orderCount = totals[0] != null ? ((Number) totals[0]).longValue() : 0;
+    long totalSpentCents = totals[1] != null ? ((Number) totals[1]).longValue() : 0;
     
-    // Calculer le montant total dépensé
-    double totalSpent = 0.0;
-    if (client.getOrders() != null) {
-        totalSpent = client.getOrders().stream()
-            .filter(order -> order.getTotalAmount() != null)
-            .mapToDouble(Order::getTotalAmount)
-            .sum();
-    }
+    // HashMap : lastOrderDate vaut null pour un client sans commande
+    Map<String, Object> response = new HashMap<>();
+    response.put("clientId", id);
+    response.put("fullName", client.getFullName());
+    response.put("orderCount", orderCount);
+    response.put("totalSpent", totalSpentCents / 100.0);
+    response.put("registrationDate", client.getRegistrationDate());
+    response.put("lastOrderDate", totals[2]);
+    response.put("active", client.isActive());
     
-    return ResponseEntity.ok(Map.of(
-        "clientId", id,
-        "fullName", client.getFullName(),
-        "orderCount", orderCount,
-        "totalSpent", totalSpent,
-        "registrationDate", client.getRegistrationDate(),
-        "lastOrderDate", getLastOrderDate(client),
-        "active", client.isActive()
-    ));
+    return ResponseEntity.ok(response);
 }
 
-private LocalDateTime getLastOrderDate(Client client) {
-    if (client.getOrders() == null || client.getOrders().isEmpty()) {
-        return null;
-    }
-    return client.getOrders().stream()
-        .map(Order::getOrderDate)
-        .max(LocalDateTime::compareTo)
-        .orElse(null);
+// 403 : le jeton appartient à un autre client
+private ResponseEntity<?> forbidden() {
+    return ResponseEntity.status(HttpStatus.FORBIDDEN)
+        .body(Map.of("error", "Accès refusé à ce client"));
 }
 
 }
\ No newline at end of file
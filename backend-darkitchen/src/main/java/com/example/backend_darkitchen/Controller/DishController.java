@@ -1,152 +1,138 @@
 package com.example.backend_darkitchen.Controller;
 
+import com.example.backend_darkitchen.dto.DishDTO;
+import com.example.backend_darkitchen.dto.ImageSearchResultDTO;
 import com.example.backend_darkitchen.entity.Dish;
-import com.example.backend_darkitchen.Repository.DishRepository;
 import com.example.backend_darkitchen.Service.DishService;
+import com.example.backend_darkitchen.Service.ImageSearchService;
+import com.example.backend_darkitchen.Service.MenuCacheService;
+import com.example.backend_darkitchen.Service.MenuPayload;
+import com.example.backend_darkitchen.Service.MenuSnapshot;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.http.ResponseEntity;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
-import org.springframework.util.LinkedMultiValueMap;
-import org.springframework.util.MultiValueMap;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/dishes")
 @CrossOrigin(origins = "http://localhost:3000")
 public class DishController {
 
-    private final DishRepository dishRepository;
     @Autowired
     private DishService dishService;
-
-    public DishController(DishRepository dishRepository) {
-        this.dishRepository = dishRepository;
-    }
+    @Autowired
+    private MenuCacheService menuCacheService;
+    @Autowired
+    private ImageSearchService imageSearchService;
 
     // 🔥 Plats populaires
     @GetMapping("/featured")
-    public List<Dish> getFeaturedDishes() {
-        return dishRepository.findByPopularTrue();
+    public ResponseEntity<byte[]> getFeaturedDishes(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        MenuPayload payload = menuCacheService.current().getPayload(MenuSnapshot.VIEW_FEATURED);
+        return MenuResponses.of(payload, ifNoneMatch, acceptEncoding);
+    }
+
+    // Nouveautés
+    @GetMapping("/new")
+    public ResponseEntity<byte[]> getNewDishes(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        MenuPayload payload = menuCacheService.current().getPayload(MenuSnapshot.VIEW_NEW);
+        return MenuResponses.of(payload, ifNoneMatch, acceptEncoding);
     }
 
     // Tous les plats
     @GetMapping
-    public List<Dish> getAllDishes() {
-        return dishRepository.findAll();
+    public ResponseEntity<byte[]> getAllDishes(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        MenuPayload payload = menuCacheService.current().getPayload(MenuSnapshot.VIEW_DISHES);
+        return MenuResponses.of(payload, ifNoneMatch, acceptEncoding);
     }
 
-    // Plats par catégorie
+    // Plats par catégorie (liste vide si la catégorie n'existe pas)
     @GetMapping("/category/{categoryId}")
-    public List<Dish> getDishesByCategory(@PathVariable Long categoryId) {
-        return dishRepository.findByCategoryId(categoryId);
+    public ResponseEntity<byte[]> getDishesByCategory(
+            @PathVariable Long categoryId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        MenuSnapshot menu = menuCacheService.current();
+        MenuPayload payload = menu.getPayload(MenuSnapshot.categoryDishesView(categoryId));
+        return MenuResponses.of(payload != null ? payload : menu.getEmptyListPayload(), ifNoneMatch, acceptEncoding);
     }
 
    @PostMapping("/search-by-image")
-public ResponseEntity<?> searchByImage(@RequestParam("image") MultipartFile image) {
+public CompletableFuture<ResponseEntity<?>> searchByImage(
+        @RequestParam("image") MultipartFile image,
+        @RequestParam(defaultValue = "6") int limit) {
 
+    byte[] bytes;
     try {
-        RestTemplate restTemplate = new RestTemplate();
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
-
-        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
-        body.add("image", new ByteArrayResource(image.getBytes()) {
-            @Override
-            public String getFilename() {
-                return image.getOriginalFilename();
-            }
-        });
-
-        HttpEntity<MultiValueMap<String, Object>> request =
-                new HttpEntity<>(body, headers);
-
-        ResponseEntity<Map> response = restTemplate.postForEntity(
-                "http://localhost:8000/detect-category",
-                request,
-                Map.class
-        );
-
-        String category = response.getBody().get("detected_category").toString();
-
-        List<Dish> dishes =
-                dishRepository.findByCategory_NameIgnoreCase(category);
-
-        return ResponseEntity.ok(Map.of(
-            "detected_category", category,
-            "results", dishes
-        ));
-
+        bytes = image.getBytes();
     } catch (IOException e) {
-        return ResponseEntity
+        return CompletableFuture.completedFuture(ResponseEntity
                 .status(HttpStatus.BAD_REQUEST)
-                .body("Erreur lors de la lecture de l’image");
+                .body("Erreur lors de la lecture de l’image"));
     }
+
+    int k = Math.max(1, Math.min(limit, 20));
+    // Le thread Tomcat est libéré ; la réponse part quand le service CLIP a répondu
+    return imageSearchService.search(bytes, image.getOriginalFilename(), k)
+            .<ResponseEntity<?>>thenApply(result -> {
+                Map<String, Object> response = new HashMap<>();
+                response.put("detected_category", result.getDetectedCategory());
+                response.put("results", result.getResults());
+                response.put("scores", result.getScores());
+                response.put("mode", result.getMode());
+                return ResponseEntity.ok(response);
+            })
+            .exceptionally(error -> {
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                if (cause instanceof IllegalArgumentException) {
+                    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(cause.getMessage());
+                }
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .body("Recherche par image momentanément indisponible");
+            });
 }
 
     // 🔧 Get dish by ID
     @GetMapping("/{id}")
-    public ResponseEntity<Dish> getDishById(@PathVariable Long id) {
-        return dishRepository.findById(id)
-            .map(ResponseEntity::ok)
-            .orElse(ResponseEntity.notFound().build());
-    }
-    private List<Dish> mapClipResponseToDishes(Map<String, Object> clipResponse) {
-    List<Dish> resultDishes = new ArrayList<>();
-
-    // Extraire la catégorie détectée
-    Map<String, Object> detection = (Map<String, Object>) clipResponse.get("detection");
-    String detectedCategory = detection != null ? (String) detection.get("category") : null;
-
-    // Extraire les IDs des plats
-    List<Long> dishIds = new ArrayList<>();
-    List<?> results = (List<?>) clipResponse.get("results");
-    if (results != null) {
-        for (Object item : results) {
-            if (item instanceof Number) dishIds.add(((Number) item).longValue());
+    public ResponseEntity<byte[]> getDishById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        MenuPayload payload = menuCacheService.current().getPayload(MenuSnapshot.dishView(id));
+        if (payload == null) {
+            return ResponseEntity.notFound().build();
         }
+        return MenuResponses.of(payload, ifNoneMatch, acceptEncoding);
     }
 
-    // Chercher les plats correspondants
-    if (!dishIds.isEmpty()) {
-        for (Long id : dishIds) {
-            dishRepository.findById(id).ifPresent(resultDishes::add);
-        }
-    }
-
-    // Si pas de plat spécifique mais catégorie détectée
-    if (resultDishes.isEmpty() && detectedCategory != null) {
-        resultDishes = dishRepository.findByCategoryNameIgnoreCaseContaining(detectedCategory);
-    }
-
-    return resultDishes;
-}
-@PostMapping
-    public ResponseEntity<Dish> createDish(@RequestBody Dish dish) {
+    @PostMapping
+    public ResponseEntity<DishDTO> createDish(@RequestBody Dish dish) {
         System.out.println("=== CREATION PLAT ===");
         System.out.println("Nom: " + dish.getName());
         System.out.println("Prix: " + dish.getPrice());
         System.out.println("Catégorie ID: " + (dish.getCategory() != null ? dish.getCategory().getId() : "null"));
         
         Dish savedDish = dishService.createDish(dish);
-        return ResponseEntity.status(HttpStatus.CREATED).body(savedDish);
+        return ResponseEntity.status(HttpStatus.CREATED).body(DishDTO.from(savedDish));
     }
 
     // PUT mettre à jour un plat
     @PutMapping("/{id}")
-    public ResponseEntity<Dish> updateDish(@PathVariable Long id, @RequestBody Dish dishDetails) {
+    public ResponseEntity<DishDTO> updateDish(@PathVariable Long id, @RequestBody Dish dishDetails) {
         Dish updatedDish = dishService.updateDish(id, dishDetails);
-        return ResponseEntity.ok(updatedDish);
+        return ResponseEntity.ok(DishDTO.from(updatedDish));
     }
 
     // DELETE supprimer un plat
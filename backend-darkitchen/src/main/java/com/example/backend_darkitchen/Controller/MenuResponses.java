@@ -0,0 +1,99 @@
+package com.example.backend_darkitchen.Controller;
+
+import com.example.backend_darkitchen.Service.MenuPayload;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Locale;
+
+/**
+ * Réponses HTTP des vues du menu pré-sérialisées : 304 sans corps si l'ETag
+ * du client est à jour, sinon les octets déjà prêts (gzip si accepté).
+ * JSON brut et gzip ont chacun leur ETag ("...-gz"), et toutes les réponses
+ * portent Vary: Accept-Encoding, pour qu'un cache partagé ne serve pas l'un
+ * à la place de l'autre.
+ */
+final class MenuResponses {
+
+    private MenuResponses() {}
+
+    static ResponseEntity<byte[]> of(MenuPayload payload, String ifNoneMatch, String acceptEncoding) {
+        // Le client doit revalider à chaque fois, ce qui coûte un 304 tant que le menu ne change pas
+        CacheControl cacheControl = CacheControl.noCache();
+
+        boolean gzip = acceptsGzip(acceptEncoding);
+        String etag = gzip ? payload.getGzipEtag() : payload.getEtag();
+
+        if (matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(cacheControl)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(payload.getGzip());
+        }
+        return builder.body(payload.getJson());
+    }
+
+    // "gzip", "x-gzip" ou "*" avec un q non nul ; "gzip;q=0" refuse explicitement gzip, même avec "*"
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipQ = null;
+        double wildcardQ = 0;
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.split(";");
+            String coding = params[0].trim().toLowerCase(Locale.ROOT);
+            double q = quality(params);
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzipQ = gzipQ == null ? q : Math.max(gzipQ, q);
+            } else if (coding.equals("*")) {
+                wildcardQ = q;
+            }
+        }
+        return gzipQ != null ? gzipQ > 0 : wildcardQ > 0;
+    }
+
+    private static double quality(String[] params) {
+        for (int i = 1; i < params.length; i++) {
+            String param = params[i].trim();
+            if (param.length() > 2 && Character.toLowerCase(param.charAt(0)) == 'q' && param.charAt(1) == '=') {
+                try {
+                    return Double.parseDouble(param.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    // Comparaison faible (RFC 9110 pour If-None-Match) : un W/ ajouté par un intermédiaire est ignoré
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -3,17 +3,39 @@ package com.example.backend_darkitchen.Controller;
 import com.example.backend_darkitchen.dto.OrderRequestDTO;
 import com.example.backend_darkitchen.dto.ClientLoginDTO;
 import com.example.backend_darkitchen.dto.OrderResponseDTO;
+import com.example.backend_darkitchen.dto.OrderEventDTO;
+import com.example.backend_darkitchen.dto.OrderPageDTO;
+import com.example.backend_darkitchen.dto.OrderIntakeStatusDTO;
 import com.example.backend_darkitchen.entity.Order;
 import com.example.backend_darkitchen.entity.Client;
+import com.example.backend_darkitchen.entity.OrderStatus;
 import com.example.backend_darkitchen.Service.OrderService;
+import com.example.backend_darkitchen.Service.OrderConflictException;
+import com.example.backend_darkitchen.Service.OrderEventLog;
+import com.example.backend_darkitchen.Service.OrderEventService;
+import com.example.backend_darkitchen.Service.KitchenQueueService;
+import com.example.backend_darkitchen.Service.IdempotencyService;
+import com.example.backend_darkitchen.Service.OrderIntakeService;
+import com.example.backend_darkitchen.Service.OrderIntakeRejectedException;
+import com.example.backend_darkitchen.Service.AuthenticatedAccount;
+import com.example.backend_darkitchen.Service.TokenService;
+import com.example.backend_darkitchen.config.AuthTokenInterceptor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.TransactionException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.net.URI;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -23,10 +45,45 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
     
+    @Autowired
+    private OrderEventService orderEventService;
+    
+    @Autowired
+    private KitchenQueueService kitchenQueueService;
+    
+    @Autowired
+    private IdempotencyService idempotencyService;
+    
+    @Autowired
+    private OrderIntakeService orderIntakeService;
+    
+    @Autowired
+    private OrderEventLog orderEventLog;
+    
+    @Autowired
+    private TokenService tokenService;
+    
+    // Avec Idempotency-Key, une nouvelle tentative rejoue la réponse d'origine au lieu de recréer la commande
+    // Réponse asynchrone : un doublon qui attend la première exécution ne bloque pas de thread Tomcat
+    // La commande est passée pour le client du jeton ; les clés Idempotency-Key sont propres à ce compte
     @PostMapping
-    public ResponseEntity<?> createOrder(@RequestBody OrderRequestDTO orderRequest) {
+    public CompletableFuture<ResponseEntity<?>> createOrder(
+            @RequestBody OrderRequestDTO orderRequest,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @RequestAttribute(AuthTokenInterceptor.ACCOUNT_ATTRIBUTE) AuthenticatedAccount account) {
+        if (!account.isClient()) {
+            return CompletableFuture.completedFuture(forbiddenResponse("Seul un compte client peut passer commande"));
+        }
+        if (idempotencyKey == null) {
+            return CompletableFuture.completedFuture(doCreateOrder(orderRequest, account.getId()));
+        }
+        return idempotencyService.execute(account.getAccountKey(), idempotencyKey, orderRequest,
+                () -> doCreateOrder(orderRequest, account.getId()));
+    }
+    
+    private ResponseEntity<?> doCreateOrder(OrderRequestDTO orderRequest, Long clientId) {
         try {
-            Order order = orderService.createOrder(orderRequest);
+            Order order = orderService.createOrder(orderRequest, clientId);
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -38,6 +95,18 @@ public class OrderController {
             
             return ResponseEntity.ok(response);
             
+        } catch (DataAccessException | TransactionException e) {
+            // Base indisponible, délai dépassé, pool épuisé : passager, 503 pour que le client réessaie
+            // (et que la clé d'idempotence soit libérée au lieu de mémoriser l'échec)
+            System.err.println("Création de commande impossible (base): " + e.getMessage());
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", "Service momentanément indisponible, veuillez réessayer");
+            
+            return ResponseEntity
+                    .status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(errorResponse);
         } catch (RuntimeException e) {
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("success", false);
@@ -49,6 +118,60 @@ public class OrderController {
         }
     }
     
+    // Prise de commande asynchrone : 202 + référence, la commande est écrite en arrière-plan
+    @PostMapping("/async")
+    public ResponseEntity<?> createOrderAsync(
+            @RequestBody OrderRequestDTO orderRequest,
+            @RequestAttribute(AuthTokenInterceptor.ACCOUNT_ATTRIBUTE) AuthenticatedAccount account) {
+        if (!account.isClient()) {
+            return forbiddenResponse("Seul un compte client peut passer commande");
+        }
+        try {
+            OrderIntakeStatusDTO status = orderIntakeService.submit(orderRequest, account.getId());
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("reference", status.getReference());
+            response.put("state", status.getState());
+            response.put("message", "Commande reçue, en cours d'enregistrement");
+            
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .location(URI.create("/api/orders/intake/" + status.getReference()))
+                    .body(response);
+            
+        } catch (OrderIntakeRejectedException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", e.getMessage());
+            
+            return ResponseEntity
+                    .status(e.isOverloaded() ? HttpStatus.TOO_MANY_REQUESTS : HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(errorResponse);
+        } catch (RuntimeException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", e.getMessage());
+            
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(errorResponse);
+        }
+    }
+    
+    // Suivi d'une commande asynchrone : PENDING, CREATED (avec orderId) ou FAILED.
+    // 404 aussi pour la référence d'un autre client : son existence n'est pas révélée
+    @GetMapping("/intake/{reference}")
+    public ResponseEntity<?> getIntakeStatus(
+            @PathVariable String reference,
+            @RequestAttribute(AuthTokenInterceptor.ACCOUNT_ATTRIBUTE) AuthenticatedAccount account) {
+        OrderIntakeStatusDTO status = orderIntakeService.getStatus(reference, account);
+        if (status == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(status);
+    }
+    
     @PostMapping("/check-client")
     public ResponseEntity<?> checkClientExists(@RequestBody Map<String, String> request) {
         String email = request.get("email");
@@ -74,6 +197,7 @@ public class OrderController {
                 "fullName", client.getFullName(),
                 "phoneNumber", client.getPhoneNumber()
             ));
+            response.put("token", tokenService.issue(client));
             return ResponseEntity.ok(response);
         } else {
             response.put("success", false);
@@ -88,15 +212,18 @@ public class OrderController {
             @RequestParam(required = false) String status,
             @RequestParam(required = false) String startDate,
             @RequestParam(required = false) String endDate,
-            @RequestParam(required = false) String sortBy) {
+            @RequestParam(required = false) String sortBy,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestAttribute(AuthTokenInterceptor.ACCOUNT_ATTRIBUTE) AuthenticatedAccount account) {
+        if (!account.canAccessClient(clientId)) {
+            return forbiddenResponse("Accès refusé aux commandes de ce client");
+        }
         
         try {
-            List<OrderResponseDTO> orders = orderService.getClientOrders(clientId, status, startDate, endDate, sortBy);
+            OrderPageDTO page = orderService.getClientOrders(clientId, status, startDate, endDate, sortBy, cursor, size);
             
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("count", orders.size());
-            response.put("orders", orders);
+            Map<String, Object> response = pageResponse(page);
             
             return ResponseEntity.ok(response);
             
@@ -112,9 +239,14 @@ public class OrderController {
     }
     
     @GetMapping("/{orderId}")
-    public ResponseEntity<?> getOrderById(@PathVariable Long orderId) {
+    public ResponseEntity<?> getOrderById(
+            @PathVariable Long orderId,
+            @RequestAttribute(AuthTokenInterceptor.ACCOUNT_ATTRIBUTE) AuthenticatedAccount account) {
         try {
             OrderResponseDTO order = orderService.getOrderById(orderId);
+            if (!account.canAccessClient(order.getClientId())) {
+                return forbiddenResponse("Accès refusé à cette commande");
+            }
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -136,7 +268,11 @@ public class OrderController {
     @PutMapping("/{orderId}/cancel")
     public ResponseEntity<?> cancelOrder(
             @PathVariable Long orderId,
-            @RequestBody Map<String, String> request) {
+            @RequestBody Map<String, String> request,
+            @RequestAttribute(AuthTokenInterceptor.ACCOUNT_ATTRIBUTE) AuthenticatedAccount account) {
+        if (!canAccessOrder(account, orderId)) {
+            return forbiddenResponse("Accès refusé à cette commande");
+        }
         
         try {
             String reason = request.get("reason");
@@ -149,6 +285,8 @@ public class OrderController {
             
             return ResponseEntity.ok(response);
             
+        } catch (OrderConflictException e) {
+            return conflictResponse(e);
         } catch (RuntimeException e) {
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("success", false);
@@ -161,7 +299,13 @@ public class OrderController {
     }
     
     @PostMapping("/{orderId}/reorder")
-    public ResponseEntity<?> reorder(@PathVariable Long orderId) {
+    public ResponseEntity<?> reorder(
+            @PathVariable Long orderId,
+            @RequestAttribute(AuthTokenInterceptor.ACCOUNT_ATTRIBUTE) AuthenticatedAccount account) {
+        if (!canAccessOrder(account, orderId)) {
+            return forbiddenResponse("Accès refusé à cette commande");
+        }
+        
         try {
             OrderResponseDTO newOrder = orderService.reorder(orderId);
             
@@ -183,6 +327,41 @@ public class OrderController {
         }
     }
     
+    // Réponse commune des listes paginées
+    private Map<String, Object> pageResponse(OrderPageDTO page) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("count", page.getOrders().size());
+        response.put("orders", page.getOrders());
+        response.put("nextCursor", page.getNextCursor());
+        response.put("hasMore", page.isHasMore());
+        return response;
+    }
+    
+    // Le personnel accède à toutes les commandes, un client aux siennes (une requête EXISTS)
+    private boolean canAccessOrder(AuthenticatedAccount account, Long orderId) {
+        return account.isStaff() || (account.isClient() && orderService.isClientOrder(orderId, account.getId()));
+    }
+    
+    // 403 : compte authentifié, mais la ressource ne lui appartient pas
+    private ResponseEntity<?> forbiddenResponse(String message) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("success", false);
+        errorResponse.put("message", message);
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(errorResponse);
+    }
+    
+    // 409 : la commande a changé entre-temps, le client relit son statut et peut réessayer
+    private ResponseEntity<?> conflictResponse(OrderConflictException e) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("success", false);
+        errorResponse.put("message", e.getMessage());
+        errorResponse.put("retryable", true);
+        errorResponse.put("orderId", e.getOrderId());
+        errorResponse.put("currentStatus", e.getCurrentStatus());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+    }
+    
     // DTO pour la connexion
     public static class ClientLoginDTO {
         private String email;
@@ -197,15 +376,15 @@ public class OrderController {
 
 
     // 1. GET TOUTES LES COMMANDES (Pour l'admin/staff)
+    // Paginé par curseur : repasser nextCursor tant que hasMore est vrai
     @GetMapping("/admin/all")
-    public ResponseEntity<?> getAllOrders() {
+    public ResponseEntity<?> getAllOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         try {
-            List<OrderResponseDTO> orders = orderService.getAllOrders();
+            OrderPageDTO page = orderService.getOrdersPage(null, null, cursor, size, null);
             
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("count", orders.size());
-            response.put("orders", orders);
+            Map<String, Object> response = pageResponse(page);
             
             return ResponseEntity.ok(response);
             
@@ -224,13 +403,17 @@ public class OrderController {
     @PutMapping("/{orderId}/update-status")
     public ResponseEntity<?> updateOrderStatus(
             @PathVariable Long orderId,
-            @RequestBody Map<String, String> request) {
+            @RequestBody Map<String, String> request,
+            @RequestAttribute(AuthTokenInterceptor.ACCOUNT_ATTRIBUTE) AuthenticatedAccount account) {
         
         try {
-            String newStatus = request.get("status");
-            String updatedBy = request.get("updatedBy"); // "admin", "cuisinier", "livreur"
-            
-            OrderResponseDTO updatedOrder = orderService.updateOrderStatus(orderId, newStatus, updatedBy);
+            OrderStatus newStatus = OrderStatus.parse(request.get("status"));
+            // Statut affiché chez l'appelant (facultatif) : refus 409 s'il a changé entre-temps
+            OrderStatus expectedStatus = request.get("expectedStatus") != null
+                    ? OrderStatus.parse(request.get("expectedStatus")) : null;
+            // L'auteur est le membre du personnel du jeton, jamais une valeur envoyée par l'appelant
+            OrderResponseDTO updatedOrder = orderService.updateOrderStatus(orderId, newStatus, expectedStatus,
+                    account.getEmail());
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -239,6 +422,8 @@ public class OrderController {
             
             return ResponseEntity.ok(response);
             
+        } catch (OrderConflictException e) {
+            return conflictResponse(e);
         } catch (RuntimeException e) {
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("success", false);
@@ -252,15 +437,16 @@ public class OrderController {
     
     // 3. GET COMMANDES PAR STATUT (Pour filtres)
     @GetMapping("/by-status/{status}")
-    public ResponseEntity<?> getOrdersByStatus(@PathVariable String status) {
+    public ResponseEntity<?> getOrdersByStatus(
+            @PathVariable String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         try {
-            List<OrderResponseDTO> orders = orderService.getOrdersByStatus(status);
+            OrderStatus orderStatus = OrderStatus.parse(status);
+            OrderPageDTO page = orderService.getOrdersPage(orderStatus, null, cursor, size, null);
             
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("status", status);
-            response.put("count", orders.size());
-            response.put("orders", orders);
+            Map<String, Object> response = pageResponse(page);
+            response.put("status", orderStatus);
             
             return ResponseEntity.ok(response);
             
@@ -299,16 +485,86 @@ public class OrderController {
     }
 
 
+    // FLUX TEMPS RÉEL - événements de commande (SSE), remplace le polling des écrans
+    // Le navigateur renvoie Last-Event-ID à la reconnexion pour reprendre le flux
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOrderEvents(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventIdHeader,
+            @RequestParam(required = false) Long lastEventId) {
+        return orderEventService.subscribe(lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
+    }
+
+
+    // Jeton de courte durée pour ouvrir le flux (?access_token=...) : EventSource n'envoie pas d'en-tête
+    @PostMapping("/stream/token")
+    public ResponseEntity<?> issueStreamToken(
+            @RequestAttribute(AuthTokenInterceptor.ACCOUNT_ATTRIBUTE) AuthenticatedAccount account) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("token", tokenService.issueStreamToken(account));
+        response.put("expiresIn", tokenService.getStreamTtlSeconds());
+        return ResponseEntity.ok(response);
+    }
+
+
+    // JOURNAL DES ÉVÉNEMENTS - lecture incrémentale (curseur = position du dernier événement lu)
+    @GetMapping("/events")
+    public ResponseEntity<?> getEventLog(
+            @RequestParam(defaultValue = "0") Long after,
+            @RequestParam(defaultValue = "200") Integer limit) {
+        List<OrderEventDTO> events = orderEventLog.readAfter(after, Math.max(1, Math.min(limit, 1000)));
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("events", events);
+        response.put("count", events.size());
+        response.put("nextAfter", events.isEmpty() ? after : events.get(events.size() - 1).getPosition());
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    // Historique des transitions d'une commande
+    @GetMapping("/{orderId}/history")
+    public ResponseEntity<?> getOrderHistory(
+            @PathVariable Long orderId,
+            @RequestAttribute(AuthTokenInterceptor.ACCOUNT_ATTRIBUTE) AuthenticatedAccount account) {
+        List<OrderEventDTO> events = orderEventLog.getOrderHistory(orderId);
+        // Chaque événement porte le client de la commande : aucune requête de plus pour le vérifier
+        if (!events.isEmpty() && !account.canAccessClient(events.get(0).getClientId())) {
+            return forbiddenResponse("Accès refusé à cette commande");
+        }
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("orderId", orderId);
+        response.put("events", events);
+        
+        return ResponseEntity.ok(response);
+    }
+
+
         // 5. POUR LE CUISINIER - commandes en préparation
     @GetMapping("/chef/pending")
     public ResponseEntity<?> getPendingOrdersForChef() {
         try {
-            List<OrderResponseDTO> orders = orderService.getOrdersByStatus("EN_PREPARATION");
+            // File en mémoire, triée par heure de fin estimée
+            List<OrderResponseDTO> orders = new ArrayList<>();
+            List<Map<String, Object>> schedule = new ArrayList<>();
+            for (KitchenQueueService.KitchenTicket ticket : kitchenQueueService.getQueue()) {
+                orders.add(ticket.getOrder());
+                Map<String, Object> entry = new HashMap<>();
+                entry.put("orderId", ticket.getOrderId());
+                entry.put("startedAt", ticket.getStartedAt());
+                entry.put("prepMinutes", ticket.getPrepMinutes());
+                entry.put("estimatedReadyAt", ticket.getEstimatedReadyAt());
+                schedule.add(entry);
+            }
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("count", orders.size());
             response.put("orders", orders);
+            response.put("schedule", schedule);
             
             return ResponseEntity.ok(response);
         } catch (RuntimeException e) {
@@ -324,7 +580,7 @@ public class OrderController {
     @GetMapping("/delivery/ready")
     public ResponseEntity<?> getReadyOrdersForDelivery() {
         try {
-            List<OrderResponseDTO> orders = orderService.getOrdersByStatus("PRET");
+            List<OrderResponseDTO> orders = orderService.getOrdersByStatus(OrderStatus.PRET);
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -345,12 +601,12 @@ public class OrderController {
     @GetMapping("/notifications/count")
     public ResponseEntity<?> getNotificationCount() {
         try {
-            List<OrderResponseDTO> pendingOrders = orderService.getOrdersByStatus("EN_ATTENTE");
+            long pendingCount = orderService.countOrdersByStatus(OrderStatus.EN_ATTENTE);
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
-            response.put("pendingCount", pendingOrders.size());
-            response.put("message", pendingOrders.size() + " commande(s) en attente");
+            response.put("pendingCount", pendingCount);
+            response.put("message", pendingCount + " commande(s) en attente");
             
             return ResponseEntity.ok(response);
         } catch (RuntimeException e) {
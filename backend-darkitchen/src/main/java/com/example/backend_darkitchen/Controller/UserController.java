@@ -1,12 +1,24 @@
 package com.example.backend_darkitchen.Controller;
 
+import com.example.backend_darkitchen.dto.UserDTO;
 import com.example.backend_darkitchen.entity.User;
 import com.example.backend_darkitchen.entity.User.UserRole;
 import com.example.backend_darkitchen.Repository.UserRepository;
+import com.example.backend_darkitchen.Service.AccountChangedEvent;
+import com.example.backend_darkitchen.Service.AccountSearchService;
+import com.example.backend_darkitchen.Service.AuthenticatedAccount;
+import com.example.backend_darkitchen.Service.EmailRegistry;
+import com.example.backend_darkitchen.Service.PasswordService;
+import com.example.backend_darkitchen.Service.StaffActivityService;
+import com.example.backend_darkitchen.Service.TokenService;
+import com.example.backend_darkitchen.config.AuthTokenInterceptor;
+import org.springframework.http.HttpStatus;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -19,37 +31,61 @@ public class UserController {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private StaffActivityService staffActivityService;
+    
+    @Autowired
+    private AccountSearchService accountSearchService;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private PasswordService passwordService;
+    
+    @Autowired
+    private TokenService tokenService;
+    
+    @Autowired
+    private EmailRegistry emailRegistry;
+    
     // Récupérer tous les utilisateurs (staff)
     @GetMapping
-    public ResponseEntity<List<User>> getAllUsers() {
-        List<User> users = userRepository.findAll();
-        return ResponseEntity.ok(users);
+    public ResponseEntity<List<UserDTO>> getAllUsers() {
+        return ResponseEntity.ok(userRepository.findAllViews());
     }
     
     // Récupérer les utilisateurs par rôle
     @GetMapping("/role/{role}")
-    public ResponseEntity<List<User>> getUsersByRole(@PathVariable String role) {
+    public ResponseEntity<List<UserDTO>> getUsersByRole(@PathVariable String role) {
         try {
             UserRole userRole = UserRole.valueOf(role.toUpperCase());
-            List<User> users = userRepository.findByRole(userRole);
-            return ResponseEntity.ok(users);
+            return ResponseEntity.ok(userRepository.findViewsByRole(userRole));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(null);
         }
     }
     
-    // Rechercher des utilisateurs
+    // Rechercher des utilisateurs (index trigrammes en mémoire, classés par pertinence)
     @GetMapping("/search")
-    public ResponseEntity<List<User>> searchUsers(@RequestParam String query) {
-        List<User> users = userRepository.searchUsers(query);
+    public ResponseEntity<List<UserDTO>> searchUsers(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        List<UserDTO> users = accountSearchService.searchUsers(query, page, size);
         return ResponseEntity.ok(users);
     }
     
-    // Récupérer un utilisateur par ID
+    // Récupérer un utilisateur par ID (lui-même ou un administrateur)
     @GetMapping("/{id}")
-    public ResponseEntity<User> getUserById(@PathVariable Long id) {
+    public ResponseEntity<?> getUserById(
+            @PathVariable Long id,
+            @RequestAttribute(AuthTokenInterceptor.ACCOUNT_ATTRIBUTE) AuthenticatedAccount account) {
+        if (!account.canAccessStaff(id)) {
+            return forbidden();
+        }
         Optional<User> user = userRepository.findById(id);
-        return user.map(ResponseEntity::ok)
+        return user.map(UserDTO::from).map(ResponseEntity::ok)
                   .orElse(ResponseEntity.notFound().build());
     }
     
@@ -63,7 +99,7 @@ public class UserController {
         String roleStr = userData.get("role");
         
         // Vérifier si l'email existe déjà
-        if (userRepository.existsByEmail(email)) {
+        if (emailRegistry.confirmStaffEmail(email)) {
             return ResponseEntity.badRequest().body(Map.of(
                 "error", "Email déjà utilisé"
             ));
@@ -80,15 +116,26 @@ public class UserController {
         }
         
         // Créer l'utilisateur
-        User user = new User(email, password, fullName, phoneNumber, role);
+        User user = new User(email, passwordService.hash(password), fullName, phoneNumber, role);
         User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(AccountChangedEvent.of(savedUser));
         
-        return ResponseEntity.ok(savedUser);
+        return ResponseEntity.ok(UserDTO.from(savedUser));
     }
     
-    // Mettre à jour un utilisateur
+    // Mettre à jour un utilisateur (son propre profil, ou n'importe lequel pour un administrateur)
     @PutMapping("/{id}")
-    public ResponseEntity<?> updateUser(@PathVariable Long id, @RequestBody Map<String, String> userData) {
+    public ResponseEntity<?> updateUser(
+            @PathVariable Long id,
+            @RequestBody Map<String, String> userData,
+            @RequestAttribute(AuthTokenInterceptor.ACCOUNT_ATTRIBUTE) AuthenticatedAccount account) {
+        if (!account.canAccessStaff(id)) {
+            return forbidden();
+        }
+        // Changer de rôle reste réservé à un administrateur
+        if (userData.containsKey("role") && !account.isAdmin()) {
+            return forbidden();
+        }
         Optional<User> optionalUser = userRepository.findById(id);
         
         if (!optionalUser.isPresent()) {
@@ -105,7 +152,9 @@ public class UserController {
             user.setPhoneNumber(userData.get("phoneNumber"));
         }
         if (userData.containsKey("password") && !userData.get("password").isEmpty()) {
-            user.setPassword(userData.get("password"));
+            user.setPassword(passwordService.hash(userData.get("password")));
+            // Les jetons émis avec l'ancien mot de passe ne sont plus acceptés
+            tokenService.revokeAll(AuthenticatedAccount.STAFF, id);
         }
         if (userData.containsKey("role")) {
             try {
@@ -119,7 +168,8 @@ public class UserController {
         }
         
         User updatedUser = userRepository.save(user);
-        return ResponseEntity.ok(updatedUser);
+        eventPublisher.publishEvent(AccountChangedEvent.of(updatedUser));
+        return ResponseEntity.ok(UserDTO.from(updatedUser));
     }
     
     // Supprimer un utilisateur
@@ -130,23 +180,45 @@ public class UserController {
         }
         
         userRepository.deleteById(id);
+        tokenService.revokeAll(AuthenticatedAccount.STAFF, id);
+        eventPublisher.publishEvent(AccountChangedEvent.userDeleted(id));
         return ResponseEntity.ok(Map.of(
             "message", "Utilisateur supprimé avec succès"
         ));
     }
     
     // Compter les utilisateurs par rôle
+    // Une seule requête GROUP BY role, sans charger les utilisateurs
     @GetMapping("/stats")
     public ResponseEntity<Map<String, Long>> getUserStats() {
-        long adminCount = userRepository.findByRole(UserRole.ADMIN).size();
-        long chefCount = userRepository.findByRole(UserRole.CHEF).size();
-        long driverCount = userRepository.findByRole(UserRole.DRIVER).size();
+        Map<UserRole, Long> counts = new EnumMap<>(UserRole.class);
+        long total = 0;
+        for (Object[] row : userRepository.countByRole()) {
+            long count = ((Number) row[1]).longValue();
+            if (row[0] != null) {
+                counts.put((UserRole) row[0], count);
+            }
+            total += count;
+        }
         
         return ResponseEntity.ok(Map.of(
-            "admin", adminCount,
-            "chef", chefCount,
-            "driver", driverCount,
-            "total", userRepository.count()
+            "admin", counts.getOrDefault(UserRole.ADMIN, 0L),
+            "chef", counts.getOrDefault(UserRole.CHEF, 0L),
+            "driver", counts.getOrDefault(UserRole.DRIVER, 0L),
+            "total", total
+        ));
+    }
+    
+    // Activité du personnel : nombre de commandes passées à chaque statut, par auteur (updatedBy)
+    @GetMapping("/stats/activity")
+    public ResponseEntity<Map<String, Map<String, Long>>> getStaffActivity() {
+        return ResponseEntity.ok(staffActivityService.getActivity());
+    }
+    
+    // 403 : profil d'un autre membre du personnel, ou changement de rôle sans être administrateur
+    private ResponseEntity<?> forbidden() {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of(
+            "error", "Accès refusé"
         ));
     }
 }
\ No newline at end of file
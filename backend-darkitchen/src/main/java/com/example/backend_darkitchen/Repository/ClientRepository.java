@@ -1,10 +1,34 @@
 package com.example.backend_darkitchen.Repository;
 
+import com.example.backend_darkitchen.dto.ClientDTO;
 import com.example.backend_darkitchen.entity.Client;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface ClientRepository extends JpaRepository<Client, Long> {
     Optional<Client> findByEmail(String email);
     boolean existsByEmail(String email);
+    
+    // Emails seuls, pour construire le filtre de Bloom au démarrage
+    @Query("SELECT c.email FROM Client c WHERE c.email IS NOT NULL")
+    List<String> findAllEmails();
+    
+    // Listes de l'API projetées en DTO (sans mot de passe ni commandes), sans charger les entités
+    String CLIENT_VIEW_SELECT = "SELECT new com.example.backend_darkitchen.dto.ClientDTO(" +
+            "c.id, c.firstName, c.lastName, c.email, c.phoneNumber, c.address, c.city, c.postalCode, " +
+            "c.registrationDate, c.active) FROM Client c ";
+    
+    @Query(CLIENT_VIEW_SELECT + "ORDER BY c.id")
+    List<ClientDTO> findAllViews();
+    
+    @Query(CLIENT_VIEW_SELECT + "WHERE c.id IN :ids")
+    List<ClientDTO> findViewsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // [active, nombre de clients] en une requête
+    @Query("SELECT c.active, COUNT(c) FROM Client c GROUP BY c.active")
+    List<Object[]> countByActive();
 }
\ No newline at end of file
@@ -1,16 +1,34 @@
 package com.example.backend_darkitchen.Repository;
 
 import com.example.backend_darkitchen.entity.Dish;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface DishRepository extends JpaRepository<Dish, Long> {
+    @EntityGraph("Dish.category")
     List<Dish> findByPopularTrue();
+
+    @EntityGraph("Dish.category")
     List<Dish> findByCategoryId(Long categoryId); // nouvelle méthode
+
+    @EntityGraph("Dish.category")
     List<Dish> findByCategoryNameIgnoreCaseContaining(String categoryName);
+
+    @EntityGraph("Dish.category")
     List<Dish> findByCategory_NameIgnoreCase(String name);
 
+    @EntityGraph("Dish.category")
+    Optional<Dish> findWithCategoryById(Long id);
+
+    // Menu complet (photographie MenuCacheService) : plats et catégories en une requête
+    @EntityGraph("Dish.category")
+    @Query("SELECT d FROM Dish d ORDER BY d.id")
+    List<Dish> findAllWithCategory();
+
 }
@@ -0,0 +1,43 @@
+package com.example.backend_darkitchen.Repository;
+
+import com.example.backend_darkitchen.entity.OrderEventRecord;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OrderEventRecordRepository extends JpaRepository<OrderEventRecord, Long> {
+    
+    // Lignes validées que le relais n'a pas encore positionnées, dans l'ordre d'écriture
+    List<OrderEventRecord> findByPositionIsNullOrderByIdAsc(Pageable pageable);
+    
+    // Événements positionnés pas encore remis aux abonnés, dans l'ordre du journal
+    List<OrderEventRecord> findByPublishedFalseAndPositionIsNotNullOrderByPositionAsc(Pageable pageable);
+    
+    // Lecture du journal à partir d'une position (rejeu)
+    List<OrderEventRecord> findByPositionGreaterThanOrderByPositionAsc(Long afterPosition, Pageable pageable);
+    
+    // Historique d'une commande
+    List<OrderEventRecord> findByOrderIdOrderByIdAsc(Long orderId);
+    
+    // Activité du personnel : [auteur, statut atteint, nombre]
+    @Query("SELECT e.actor, e.status, COUNT(e) FROM OrderEventRecord e " +
+           "WHERE e.actor IS NOT NULL GROUP BY e.actor, e.status")
+    List<Object[]> countByActorAndStatus();
+    
+    @Modifying
+    @Query("UPDATE OrderEventRecord e SET e.published = true WHERE e.id IN :ids")
+    int markPublished(@Param("ids") List<Long> ids);
+    
+    @Query("SELECT COALESCE(MAX(e.position), 0) FROM OrderEventRecord e")
+    long findMaxPosition();
+    
+    // Purge : seulement les événements déjà couverts par les instantanés des modèles de lecture
+    @Modifying
+    @Query("DELETE FROM OrderEventRecord e WHERE e.published = true AND e.createdAt < :before " +
+           "AND e.position <= :maxPosition")
+    int deletePublishedBefore(@Param("before") LocalDateTime before, @Param("maxPosition") long maxPosition);
+}
@@ -1,13 +1,23 @@
 package com.example.backend_darkitchen.Repository;
 
+import com.example.backend_darkitchen.dto.OrderItemResponseDTO;
 import com.example.backend_darkitchen.entity.OrderItem;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     List<OrderItem> findByOrderId(Long orderId);
+    
+    // Items d'une page de commandes, en une requête, sans charger Order ni Dish
+    @Query("SELECT new com.example.backend_darkitchen.dto.OrderItemResponseDTO(" +
+           "i.order.id, i.dish.id, i.dishName, i.quantity, i.price, i.subtotalCents) " +
+           "FROM OrderItem i WHERE i.order.id IN :orderIds ORDER BY i.id")
+    List<OrderItemResponseDTO> findItemViewsByOrderIds(@Param("orderIds") Collection<Long> orderIds);
 }
\ No newline at end of file
@@ -1,10 +1,18 @@
 package com.example.backend_darkitchen.Repository;
 
+import com.example.backend_darkitchen.dto.OrderResponseDTO;
 import com.example.backend_darkitchen.entity.Order;
+import com.example.backend_darkitchen.entity.OrderStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
     
@@ -18,16 +26,118 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByClientIdOrderByOrderDateAsc(Long clientId);
     
     // Recherche par client et statut
-    List<Order> findByClientIdAndStatus(Long clientId, String status);
+    List<Order> findByClientIdAndStatus(Long clientId, OrderStatus status);
     
     // Compter les commandes par client
     Long countByClientId(Long clientId);
+    
+    boolean existsByIdAndClientId(Long id, Long clientId);
 
       List<Order> findAllByOrderByOrderDateDesc();
     
     // Commandes par statut
-    List<Order> findByStatusOrderByOrderDateDesc(String status);
+    List<Order> findByStatusOrderByOrderDateDesc(OrderStatus status);
     
     // Méthode pour trouver par statuts multiples
-    List<Order> findByStatusInOrderByOrderDateDesc(List<String> statuses);
+    List<Order> findByStatusInOrderByOrderDateDesc(List<OrderStatus> statuses);
+    
+    // Pagination par curseur projetée directement en DTO, sans les items.
+    // Le curseur porte sur des colonnes qui ne changent plus après la création (id, totalCents) :
+    // orderDate est réécrite à chaque transition de statut et ferait sauter ou répéter des lignes.
+    // Filtres optionnels : statut et client (null = pas de filtre)
+    String ORDER_VIEW_SELECT = "SELECT new com.example.backend_darkitchen.dto.OrderResponseDTO(" +
+            "o.id, o.client.id, o.status, o.totalAmount, o.orderDate, o.deliveryAddress, " +
+            "o.phoneNumber, o.notes, o.clientEmail, o.clientFullName) FROM Order o " +
+            "WHERE (:status IS NULL OR o.status = :status) " +
+            "AND (:clientId IS NULL OR o.client.id = :clientId) ";
+    
+    // Plus récentes d'abord (id croissant = ordre de création)
+    @Query(ORDER_VIEW_SELECT +
+           "AND (:cursorId IS NULL OR o.id < :cursorId) " +
+           "ORDER BY o.id DESC")
+    List<OrderResponseDTO> findOrderViewsDesc(@Param("status") OrderStatus status,
+                                              @Param("clientId") Long clientId,
+                                              @Param("cursorId") Long cursorId,
+                                              Pageable pageable);
+    
+    @Query(ORDER_VIEW_SELECT +
+           "AND (:cursorId IS NULL OR o.id > :cursorId) " +
+           "ORDER BY o.id ASC")
+    List<OrderResponseDTO> findOrderViewsAsc(@Param("status") OrderStatus status,
+                                             @Param("clientId") Long clientId,
+                                             @Param("cursorId") Long cursorId,
+                                             Pageable pageable);
+    
+    // Tri par montant fait en base, curseur (totalCents, id)
+    @Query(ORDER_VIEW_SELECT +
+           "AND (:cursorTotal IS NULL OR o.totalCents < :cursorTotal " +
+           "OR (o.totalCents = :cursorTotal AND o.id < :cursorId)) " +
+           "ORDER BY o.totalCents DESC, o.id DESC")
+    List<OrderResponseDTO> findOrderViewsByTotalDesc(@Param("status") OrderStatus status,
+                                                     @Param("clientId") Long clientId,
+                                                     @Param("cursorTotal") Long cursorTotal,
+                                                     @Param("cursorId") Long cursorId,
+                                                     Pageable pageable);
+    
+    @Query(ORDER_VIEW_SELECT +
+           "AND (:cursorTotal IS NULL OR o.totalCents > :cursorTotal " +
+           "OR (o.totalCents = :cursorTotal AND o.id > :cursorId)) " +
+           "ORDER BY o.totalCents ASC, o.id ASC")
+    List<OrderResponseDTO> findOrderViewsByTotalAsc(@Param("status") OrderStatus status,
+                                                    @Param("clientId") Long clientId,
+                                                    @Param("cursorTotal") Long cursorTotal,
+                                                    @Param("cursorId") Long cursorId,
+                                                    Pageable pageable);
+    
+    // Vue d'une commande (sans les items), relue après une transition de statut
+    @Query("SELECT new com.example.backend_darkitchen.dto.OrderResponseDTO(" +
+           "o.id, o.client.id, o.status, o.totalAmount, o.orderDate, o.deliveryAddress, " +
+           "o.phoneNumber, o.notes, o.clientEmail, o.clientFullName) FROM Order o WHERE o.id = :id")
+    Optional<OrderResponseDTO> findOrderViewById(@Param("id") Long id);
+    
+    // Commande et ses lignes en une requête
+    @EntityGraph("Order.items")
+    Optional<Order> findWithItemsById(Long id);
+    
+    @Query("SELECT o.status FROM Order o WHERE o.id = :id")
+    Optional<OrderStatus> findStatusById(@Param("id") Long id);
+    
+    // Vue d'une commande après une transition : statut de départ compris, sans les items
+    @Query("SELECT new com.example.backend_darkitchen.dto.OrderResponseDTO(" +
+           "o.id, o.client.id, o.status, o.previousStatus, o.totalAmount, o.totalCents, o.orderDate, o.deliveryAddress, " +
+           "o.phoneNumber, o.notes, o.clientEmail, o.clientFullName) FROM Order o WHERE o.id = :id")
+    Optional<OrderResponseDTO> findTransitionViewById(@Param("id") Long id);
+    
+    // Transition de statut en une seule écriture, sans lecture préalable, depuis n'importe
+    // lequel des statuts de départ : 0 ligne modifiée si la commande n'est dans aucun.
+    // previousStatus est affecté avant status (MySQL évalue les affectations dans l'ordre)
+    @Modifying
+    @Query("UPDATE Order o SET o.previousStatus = o.status, o.status = :to, o.orderDate = :now " +
+           "WHERE o.id = :id AND o.status IN :from")
+    int transitionStatus(@Param("id") Long id,
+                         @Param("from") Collection<OrderStatus> from,
+                         @Param("to") OrderStatus to,
+                         @Param("now") LocalDateTime now);
+    
+    // Annulation conditionnelle, la raison éventuelle est ajoutée aux notes dans la même écriture
+    @Modifying
+    @Query("UPDATE Order o SET o.previousStatus = o.status, " +
+           "o.status = com.example.backend_darkitchen.entity.OrderStatus.ANNULEE, " +
+           "o.notes = CASE WHEN :reasonLine IS NULL THEN o.notes " +
+           "WHEN o.notes IS NULL OR o.notes = '' THEN :reasonLine " +
+           "ELSE CONCAT(o.notes, :separator, :reasonLine) END " +
+           "WHERE o.id = :id AND o.status IN :from")
+    int cancelIfStatus(@Param("id") Long id,
+                       @Param("from") Collection<OrderStatus> from,
+                       @Param("reasonLine") String reasonLine,
+                       @Param("separator") String separator);
+    
+    // Statistiques d'un client : [nombre de commandes, total en centimes, dernière commande],
+    // agrégées en base sur l'index client_id sans charger les commandes
+    @Query("SELECT COUNT(o), SUM(o.totalCents), MAX(o.orderDate) FROM Order o WHERE o.client.id = :clientId")
+    List<Object[]> aggregateByClientId(@Param("clientId") Long clientId);
+    
+    // Compteurs du dashboard : [status, nombre, somme des montants en centimes] en une requête
+    @Query("SELECT o.status, COUNT(o), SUM(o.totalCents) FROM Order o GROUP BY o.status")
+    List<Object[]> countAndSumByStatus();
 }
\ No newline at end of file
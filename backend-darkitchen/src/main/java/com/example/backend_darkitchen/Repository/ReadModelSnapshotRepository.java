@@ -0,0 +1,7 @@
+package com.example.backend_darkitchen.Repository;
+
+import com.example.backend_darkitchen.entity.ReadModelSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ReadModelSnapshotRepository extends JpaRepository<ReadModelSnapshot, String> {
+}
@@ -1,20 +1,51 @@
 package com.example.backend_darkitchen.Repository;
 
+import com.example.backend_darkitchen.dto.UserDTO;
 import com.example.backend_darkitchen.entity.User;
 import com.example.backend_darkitchen.entity.User.UserRole;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
+    // Connexion du personnel : identifiant en cache de requêtes, utilisateur en région "users"
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "user-queries")
+    })
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
     
+    // Emails seuls, pour construire le filtre de Bloom au démarrage
+    @Query("SELECT u.email FROM User u WHERE u.email IS NOT NULL")
+    List<String> findAllEmails();
+    
     // Recherche par rôle
     List<User> findByRole(UserRole role);
     
+    // Listes de l'API projetées en DTO (sans mot de passe), sans charger les entités
+    String USER_VIEW_SELECT = "SELECT new com.example.backend_darkitchen.dto.UserDTO(" +
+            "u.id, u.email, u.fullName, u.phoneNumber, u.role) FROM User u ";
+    
+    @Query(USER_VIEW_SELECT + "ORDER BY u.id")
+    List<UserDTO> findAllViews();
+    
+    @Query(USER_VIEW_SELECT + "WHERE u.role = :role ORDER BY u.id")
+    List<UserDTO> findViewsByRole(@Param("role") UserRole role);
+    
+    @Query(USER_VIEW_SELECT + "WHERE u.id IN :ids")
+    List<UserDTO> findViewsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // [rôle, nombre d'utilisateurs] en une requête
+    @Query("SELECT u.role, COUNT(u) FROM User u GROUP BY u.role")
+    List<Object[]> countByRole();
+    
     // Recherche combinée
     @Query("SELECT u FROM User u WHERE LOWER(u.fullName) LIKE LOWER(CONCAT('%', :search, '%')) OR LOWER(u.email) LIKE LOWER(CONCAT('%', :search, '%'))")
     List<User> searchUsers(@Param("search") String search);
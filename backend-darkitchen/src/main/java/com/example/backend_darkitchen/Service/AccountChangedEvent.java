@@ -0,0 +1,62 @@
+package com.example.backend_darkitchen.Service;
+
+import com.example.backend_darkitchen.entity.Client;
+import com.example.backend_darkitchen.entity.User;
+
+/**
+ * Publié après une écriture sur un compte (personnel ou client) : l'index de
+ * recherche est mis à jour une fois la transaction validée, le filtre des
+ * emails (EmailRegistry) dès la publication.
+ */
+public class AccountChangedEvent {
+
+    public static final String USER = "USER";
+    public static final String CLIENT = "CLIENT";
+
+    private final String kind;
+    private final Long id;
+    private final String email;
+    // Champs indexés (nom, email, téléphone) ; null pour une suppression
+    private final String[] fields;
+
+    private AccountChangedEvent(String kind, Long id, String email, String[] fields) {
+        this.kind = kind;
+        this.id = id;
+        this.email = email;
+        this.fields = fields;
+    }
+
+    public static AccountChangedEvent of(User user) {
+        return new AccountChangedEvent(USER, user.getId(), user.getEmail(),
+                new String[] { user.getFullName(), user.getEmail(), user.getPhoneNumber() });
+    }
+
+    public static AccountChangedEvent of(Client client) {
+        return new AccountChangedEvent(CLIENT, client.getId(), client.getEmail(),
+                new String[] { client.getFullName(), client.getEmail(), client.getPhoneNumber() });
+    }
+
+    public static AccountChangedEvent userDeleted(Long id) {
+        return new AccountChangedEvent(USER, id, null, null);
+    }
+
+    public String getKind() {
+        return kind;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String[] getFields() {
+        return fields;
+    }
+
+    public boolean isDeleted() {
+        return fields == null;
+    }
+}
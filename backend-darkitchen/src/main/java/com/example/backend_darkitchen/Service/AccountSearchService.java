@@ -0,0 +1,97 @@
+package com.example.backend_darkitchen.Service;
+
+import com.example.backend_darkitchen.Repository.ClientRepository;
+import com.example.backend_darkitchen.Repository.UserRepository;
+import com.example.backend_darkitchen.dto.ClientDTO;
+import com.example.backend_darkitchen.dto.UserDTO;
+import com.example.backend_darkitchen.entity.Client;
+import com.example.backend_darkitchen.entity.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Recherche du personnel et des clients (nom, email, téléphone) sur deux
+ * index trigrammes en mémoire, remplis au démarrage puis tenus à jour par
+ * les AccountChangedEvent. Seule la page de résultats est lue en base.
+ */
+@Service
+public class AccountSearchService {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Value("${accounts.search.max-page-size:100}")
+    private int maxPageSize;
+
+    private final TrigramIndex users = new TrigramIndex();
+    private final TrigramIndex clients = new TrigramIndex();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        for (User user : userRepository.findAll()) {
+            apply(AccountChangedEvent.of(user));
+        }
+        for (Client client : clientRepository.findAll()) {
+            apply(AccountChangedEvent.of(client));
+        }
+        System.out.println("Index de recherche des comptes: " + users.size() + " membre(s) du personnel, "
+                + clients.size() + " client(s)");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAccountChanged(AccountChangedEvent event) {
+        apply(event);
+    }
+
+    public List<UserDTO> searchUsers(String query, int page, int size) {
+        return load(users, query, page, size, userRepository::findViewsByIdIn, UserDTO::getId);
+    }
+
+    public List<ClientDTO> searchClients(String query, int page, int size) {
+        return load(clients, query, page, size, clientRepository::findViewsByIdIn, ClientDTO::getId);
+    }
+
+    private void apply(AccountChangedEvent event) {
+        TrigramIndex index = AccountChangedEvent.USER.equals(event.getKind()) ? users : clients;
+        if (event.isDeleted()) {
+            index.remove(event.getId());
+        } else {
+            index.put(event.getId(), event.getFields());
+        }
+    }
+
+    // Une requête projetée pour la page, remise dans l'ordre de pertinence
+    private <T> List<T> load(TrigramIndex index, String query, int page, int size,
+                             Function<List<Long>, List<T>> findAllById, Function<T, Long> idOf) {
+        int pageSize = Math.max(1, Math.min(size, maxPageSize));
+        List<Long> ids = index.search(query, Math.max(0, page) * pageSize, pageSize);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, T> byId = new HashMap<>();
+        for (T account : findAllById.apply(ids)) {
+            byId.put(idOf.apply(account), account);
+        }
+        List<T> results = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            T account = byId.get(id);
+            if (account != null) {
+                results.add(account);
+            }
+        }
+        return results;
+    }
+}
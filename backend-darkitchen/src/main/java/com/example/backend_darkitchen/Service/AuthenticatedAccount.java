@@ -0,0 +1,102 @@
+package com.example.backend_darkitchen.Service;
+
+/**
+ * Appelant identifié par son jeton : tout ce qu'il faut pour répondre sans
+ * relire la base (type de compte, identifiant, rôle, email, nom).
+ */
+public final class AuthenticatedAccount {
+
+    public static final String STAFF = "STAFF";
+    public static final String CLIENT = "CLIENT";
+
+    private final String tokenId;
+    private final String type;
+    private final Long id;
+    private final String role;
+    private final String email;
+    private final String fullName;
+    private final long issuedAtMillis;
+    private final long expiresAtMillis;
+    // Usage restreint du jeton (TokenService.STREAM_SCOPE), null pour un jeton de session
+    private final String scope;
+
+    public AuthenticatedAccount(String tokenId, String type, Long id, String role, String email, String fullName,
+                                long issuedAtMillis, long expiresAtMillis, String scope) {
+        this.tokenId = tokenId;
+        this.type = type;
+        this.id = id;
+        this.role = role;
+        this.email = email;
+        this.fullName = fullName;
+        this.issuedAtMillis = issuedAtMillis;
+        this.expiresAtMillis = expiresAtMillis;
+        this.scope = scope;
+    }
+
+    // Clé du compte pour la révocation globale ("STAFF:3", "CLIENT:42")
+    public static String accountKey(String type, Long id) {
+        return type + ":" + id;
+    }
+
+    public String getAccountKey() {
+        return accountKey(type, id);
+    }
+
+    public boolean isStaff() {
+        return STAFF.equals(type);
+    }
+
+    public boolean isClient() {
+        return CLIENT.equals(type);
+    }
+
+    public boolean isAdmin() {
+        return isStaff() && "ADMIN".equals(role);
+    }
+
+    // Données d'un client : le client lui-même ou le personnel
+    public boolean canAccessClient(Long clientId) {
+        return isStaff() || (isClient() && id.equals(clientId));
+    }
+
+    // Profil d'un membre du personnel : lui-même ou un administrateur
+    public boolean canAccessStaff(Long userId) {
+        return isAdmin() || (isStaff() && id.equals(userId));
+    }
+
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getFullName() {
+        return fullName;
+    }
+
+    public long getIssuedAtMillis() {
+        return issuedAtMillis;
+    }
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    public String getScope() {
+        return scope;
+    }
+}
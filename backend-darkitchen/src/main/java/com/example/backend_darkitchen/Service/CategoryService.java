@@ -1,8 +1,10 @@
 package com.example.backend_darkitchen.Service;
 
+import com.example.backend_darkitchen.dto.CategoryDTO;
 import com.example.backend_darkitchen.entity.Category;
 import com.example.backend_darkitchen.Repository.CategoryRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -14,14 +16,22 @@ public class CategoryService {
     @Autowired
     private CategoryRepository categoryRepository;
 
-    // Toutes les catégories
-    public List<Category> getAllCategories() {
-        return categoryRepository.findAll();
+    @Autowired
+    private MenuCacheService menuCacheService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Toutes les catégories (cache mémoire)
+    public List<CategoryDTO> getAllCategories() {
+        return menuCacheService.current().getCategories();
     }
 
     // Créer une catégorie (AJOUTEZ CETTE MÉTHODE)
     public Category createCategory(Category category) {
-        return categoryRepository.save(category);
+        Category savedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(new MenuChangedEvent("création catégorie " + savedCategory.getId()));
+        return savedCategory;
     }
 
     // Mettre à jour une catégorie (AJOUTEZ CETTE MÉTHODE)
@@ -42,7 +52,9 @@ public class CategoryService {
                 category.setIcon(categoryDetails.getIcon());
             }
             
-            return categoryRepository.save(category);
+            Category savedCategory = categoryRepository.save(category);
+            eventPublisher.publishEvent(new MenuChangedEvent("modification catégorie " + id));
+            return savedCategory;
         } else {
             throw new RuntimeException("Catégorie non trouvée avec l'id: " + id);
         }
@@ -54,23 +66,21 @@ public class CategoryService {
         
         if (optionalCategory.isPresent()) {
             categoryRepository.deleteById(id);
+            eventPublisher.publishEvent(new MenuChangedEvent("suppression catégorie " + id));
         } else {
             throw new RuntimeException("Catégorie non trouvée avec l'id: " + id);
         }
     }
 
-    // Trouver par ID (optionnel mais utile)
-    public Category getCategoryById(Long id) {
-        Optional<Category> optionalCategory = categoryRepository.findById(id);
+    // Trouver par ID (cache mémoire)
+    public CategoryDTO getCategoryById(Long id) {
+        CategoryDTO category = menuCacheService.current().getCategory(id);
         
-        if (optionalCategory.isPresent()) {
-            return optionalCategory.get();
+        if (category != null) {
+            return category;
         } else {
             throw new RuntimeException("Catégorie non trouvée avec l'id: " + id);
         }
     }
-      public List<Category> getAllCategoriesWithDishes() {
-        return categoryRepository.findAllWithDishes();
-    }
     
 }
\ No newline at end of file
@@ -0,0 +1,194 @@
+package com.example.backend_darkitchen.Service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Client HTTP non bloquant du service CLIP. Le HttpClient du JDK garde ses
+ * connexions keep-alive ; les appels d'inférence passent par un cloisonnement
+ * (nombre d'appels simultanés borné, sans file d'attente) et un disjoncteur,
+ * pour qu'un modèle lent ne puisse pas monopoliser les threads de l'API.
+ */
+@Component
+public class ClipClient {
+
+    private final ObjectMapper objectMapper;
+    private final String baseUrl;
+    private final Duration requestTimeout;
+    private final Duration syncTimeout;
+
+    private final HttpClient httpClient;
+    private final Semaphore bulkhead;
+    private final CircuitBreaker circuitBreaker;
+
+    private final Counter successes;
+    private final Counter failures;
+    private final Counter rejected;
+    private final Counter shortCircuited;
+
+    public ClipClient(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                      @Value("${clip.service.url:http://localhost:8000}") String baseUrl,
+                      @Value("${clip.client.connect-timeout-ms:1000}") long connectTimeoutMs,
+                      @Value("${clip.client.request-timeout-ms:5000}") long requestTimeoutMs,
+                      @Value("${clip.client.sync-timeout-ms:120000}") long syncTimeoutMs,
+                      @Value("${clip.client.max-concurrent:8}") int maxConcurrent,
+                      @Value("${clip.client.breaker.failure-threshold:5}") int failureThreshold,
+                      @Value("${clip.client.breaker.open-ms:30000}") long openMs) {
+        this.objectMapper = objectMapper;
+        this.baseUrl = baseUrl;
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMs);
+        this.syncTimeout = Duration.ofMillis(syncTimeoutMs);
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+        this.bulkhead = new Semaphore(maxConcurrent);
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, openMs);
+
+        this.successes = Counter.builder("clip.client.calls").tag("outcome", "success").register(meterRegistry);
+        this.failures = Counter.builder("clip.client.calls").tag("outcome", "failure").register(meterRegistry);
+        this.rejected = Counter.builder("clip.client.calls").tag("outcome", "rejected").register(meterRegistry);
+        this.shortCircuited = Counter.builder("clip.client.calls").tag("outcome", "short_circuited").register(meterRegistry);
+        Gauge.builder("clip.client.breaker.open", circuitBreaker, b -> b.getState() == CircuitBreaker.State.CLOSED ? 0 : 1)
+                .register(meterRegistry);
+        Gauge.builder("clip.client.in.flight", bulkhead, b -> maxConcurrent - b.availablePermits())
+                .register(meterRegistry);
+    }
+
+    // Embeddings normalisés d'un lot d'images en un seul appel (POST /embed-images) ;
+    // une image illisible a un embedding null et un message dans "errors"
+    public CompletableFuture<JsonNode> embedImages(List<byte[]> images, List<String> filenames) {
+        return guardedPost("/embed-images", "images", images, filenames);
+    }
+
+    // Catégorie la plus probable de l'image (POST /detect-category)
+    public CompletableFuture<String> detectCategory(byte[] imageBytes, String filename) {
+        return guardedPost("/detect-category", "image", List.of(imageBytes), Collections.singletonList(filename))
+                .thenApply(json -> json.get("detected_category").asText());
+    }
+
+    // Synchronisation des embeddings des plats : appel de fond, hors cloisonnement,
+    // avec un délai long car le service peut avoir de nombreuses images à encoder
+    public JsonNode syncDishFeatures(Object dishes) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/dish-features/sync"))
+                    .timeout(syncTimeout)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(dishes)))
+                    .build();
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            return parse(response);
+        } catch (IOException e) {
+            throw new ClipUnavailableException("Synchronisation des embeddings impossible", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ClipUnavailableException("Synchronisation des embeddings interrompue", e);
+        }
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    private CompletableFuture<JsonNode> guardedPost(String path, String field, List<byte[]> images, List<String> filenames) {
+        if (!circuitBreaker.tryAcquire()) {
+            shortCircuited.increment();
+            return CompletableFuture.failedFuture(new ClipUnavailableException("Disjoncteur CLIP ouvert"));
+        }
+        if (!bulkhead.tryAcquire()) {
+            // Appel non parti : on rend l'essai au disjoncteur sans le compter comme un échec du service
+            circuitBreaker.release();
+            rejected.increment();
+            return CompletableFuture.failedFuture(new ClipUnavailableException("Service CLIP saturé"));
+        }
+
+        CompletableFuture<HttpResponse<byte[]>> response;
+        try {
+            String boundary = "----darkitchen" + UUID.randomUUID();
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(requestTimeout)
+                    .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(multipart(boundary, field, images, filenames)))
+                    .build();
+            response = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (RuntimeException e) {
+            // Échec avant l'envoi (requête invalide, client arrêté) : aucun whenComplete ne rendra le permis
+            bulkhead.release();
+            circuitBreaker.release();
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return response
+                .thenApply(this::parse)
+                .whenComplete((json, error) -> {
+                    bulkhead.release();
+                    Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                    // Une image refusée (4xx) ne dit rien de la santé du service
+                    if (error == null || cause instanceof IllegalArgumentException) {
+                        circuitBreaker.onSuccess();
+                        successes.increment();
+                    } else {
+                        circuitBreaker.onFailure();
+                        failures.increment();
+                    }
+                });
+    }
+
+    private JsonNode parse(HttpResponse<byte[]> response) {
+        if (response.statusCode() >= 400 && response.statusCode() < 500) {
+            throw new IllegalArgumentException("Image refusée par le service CLIP (HTTP " + response.statusCode() + ")");
+        }
+        if (response.statusCode() != 200) {
+            throw new ClipUnavailableException("Service CLIP: HTTP " + response.statusCode());
+        }
+        try {
+            return objectMapper.readTree(response.body());
+        } catch (IOException e) {
+            throw new ClipUnavailableException("Réponse CLIP illisible", e);
+        }
+    }
+
+    private static byte[] multipart(String boundary, String field, List<byte[]> images, List<String> filenames) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int i = 0; i < images.size(); i++) {
+            String filename = filenames.get(i);
+            // Ni guillemet ni fin de ligne : l'en-tête Content-Disposition ne peut pas être rompu
+            String safeName = (filename != null ? filename : "image").replaceAll("[\"\\r\\n]", "");
+            out.writeBytes(("--" + boundary + "\r\n"
+                    + "Content-Disposition: form-data; name=\"" + field + "\"; filename=\"" + safeName + "\"\r\n"
+                    + "Content-Type: application/octet-stream\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+            out.writeBytes(images.get(i));
+            out.writeBytes("\r\n".getBytes(StandardCharsets.UTF_8));
+        }
+        out.writeBytes(("--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return out.toByteArray();
+    }
+
+    static float[] toFloatArray(JsonNode values) {
+        float[] out = new float[values.size()];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = values.get(i).floatValue();
+        }
+        return out;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.backend_darkitchen.Service;
+
+// Service CLIP injoignable, trop lent, saturé ou disjoncteur ouvert
+public class ClipUnavailableException extends RuntimeException {
+
+    public ClipUnavailableException(String message) {
+        super(message);
+    }
+
+    public ClipUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,10 +1,12 @@
 package com.example.backend_darkitchen.Service;
 
+import com.example.backend_darkitchen.dto.DishDTO;
 import com.example.backend_darkitchen.entity.Dish;
 import com.example.backend_darkitchen.entity.Category;
 import com.example.backend_darkitchen.Repository.DishRepository;
 import com.example.backend_darkitchen.Repository.CategoryRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,15 +21,49 @@ public class DishService {
     @Autowired
     private CategoryRepository categoryRepository;
 
-    // Tous les plats
-    public List<Dish> getAllDishes() {
-        return dishRepository.findAll();
+    @Autowired
+    private MenuCacheService menuCacheService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Tous les plats (cache mémoire)
+    public List<DishDTO> getAllDishes() {
+        return menuCacheService.current().getDishes();
+    }
+
+    // Plats populaires (cache mémoire)
+    public List<DishDTO> getPopularDishes() {
+        return menuCacheService.current().getPopularDishes();
+    }
+
+    // Nouveautés (cache mémoire)
+    public List<DishDTO> getNewDishes() {
+        return menuCacheService.current().getNewDishes();
+    }
+
+    // Plats d'une catégorie (cache mémoire)
+    public List<DishDTO> getDishesByCategory(Long categoryId) {
+        return menuCacheService.current().getDishesByCategory(categoryId);
+    }
+
+    // Plats d'une catégorie, par nom (cache mémoire)
+    public List<DishDTO> getDishesByCategoryName(String categoryName) {
+        return menuCacheService.current().getDishesByCategoryName(categoryName);
+    }
+
+    // Un plat par ID (cache mémoire), null si inconnu
+    public DishDTO findDishById(Long id) {
+        return menuCacheService.current().getDish(id);
     }
 
     // Un plat par ID
-    public Dish getDishById(Long id) {
-        return dishRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Plat non trouvé avec l'id: " + id));
+    public DishDTO getDishById(Long id) {
+        DishDTO dish = findDishById(id);
+        if (dish == null) {
+            throw new RuntimeException("Plat non trouvé avec l'id: " + id);
+        }
+        return dish;
     }
 
     // Créer un plat - VERSION CORRIGÉE
@@ -57,13 +93,14 @@ public class DishService {
         
         Dish savedDish = dishRepository.save(dish);
         System.out.println("Plat sauvegardé avec ID: " + savedDish.getId());
+        eventPublisher.publishEvent(new MenuChangedEvent("création plat " + savedDish.getId()));
         return savedDish;
     }
 
     // Mettre à jour un plat - VERSION CORRIGÉE
     @Transactional
     public Dish updateDish(Long id, Dish dishDetails) {
-        Dish dish = dishRepository.findById(id)
+        Dish dish = dishRepository.findWithCategoryById(id)
                 .orElseThrow(() -> new RuntimeException("Plat non trouvé avec l'id: " + id));
 
         // Mettre à jour les champs
@@ -97,7 +134,9 @@ public class DishService {
             dish.setCategory(category);
         }
 
-        return dishRepository.save(dish);
+        Dish savedDish = dishRepository.save(dish);
+        eventPublisher.publishEvent(new MenuChangedEvent("modification plat " + id));
+        return savedDish;
     }
 
     // Supprimer un plat
@@ -106,5 +145,6 @@ public class DishService {
         Dish dish = dishRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Plat non trouvé avec l'id: " + id));
         dishRepository.delete(dish);
+        eventPublisher.publishEvent(new MenuChangedEvent("suppression plat " + id));
     }
 }
\ No newline at end of file
@@ -0,0 +1,122 @@
+package com.example.backend_darkitchen.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Index vectoriel en mémoire des embeddings CLIP des plats.
+ * Les vecteurs (normalisés L2) sont rangés bout à bout dans un seul float[]
+ * pour un parcours séquentiel ; la similarité cosinus se réduit alors à un
+ * produit scalaire. Recherche exacte : à l'échelle d'un menu (quelques
+ * centaines de plats) un parcours complet reste bien sous la milliseconde.
+ */
+public final class DishVectorIndex {
+
+    private final int dimension;
+    private final long[] dishIds;
+    private final float[] vectors;
+
+    public DishVectorIndex(long[] dishIds, float[][] embeddings) {
+        this.dishIds = dishIds.clone();
+        this.dimension = embeddings.length > 0 ? embeddings[0].length : 0;
+        this.vectors = new float[dishIds.length * dimension];
+        for (int i = 0; i < embeddings.length; i++) {
+            if (embeddings[i].length != dimension) {
+                throw new IllegalArgumentException("Dimension d'embedding incohérente pour le plat " + dishIds[i]);
+            }
+            float[] normalized = normalize(embeddings[i]);
+            System.arraycopy(normalized, 0, vectors, i * dimension, dimension);
+        }
+    }
+
+    public static DishVectorIndex empty() {
+        return new DishVectorIndex(new long[0], new float[0][]);
+    }
+
+    public int size() {
+        return dishIds.length;
+    }
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    // Les k plats les plus proches, du plus similaire au moins similaire
+    public List<Match> search(float[] query, int k) {
+        if (size() == 0 || k <= 0) {
+            return List.of();
+        }
+        if (query.length != dimension) {
+            throw new IllegalArgumentException("Dimension de la requête " + query.length + " != " + dimension);
+        }
+        float[] q = normalize(query);
+
+        // Tas min de taille k : la racine est le moins bon des k meilleurs
+        PriorityQueue<Match> best = new PriorityQueue<>(k + 1, (a, b) -> Float.compare(a.score, b.score));
+        for (int i = 0; i < dishIds.length; i++) {
+            float score = dot(q, i * dimension);
+            if (best.size() < k) {
+                best.add(new Match(dishIds[i], score));
+            } else if (score > best.peek().score) {
+                best.poll();
+                best.add(new Match(dishIds[i], score));
+            }
+        }
+
+        List<Match> result = new ArrayList<>(best);
+        result.sort(Collections.reverseOrder((a, b) -> Float.compare(a.score, b.score)));
+        return result;
+    }
+
+    // Quatre accumulateurs indépendants : boucle déroulée que le JIT pipeline bien
+    private float dot(float[] q, int offset) {
+        float s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int j = 0;
+        for (; j + 3 < dimension; j += 4) {
+            s0 += q[j] * vectors[offset + j];
+            s1 += q[j + 1] * vectors[offset + j + 1];
+            s2 += q[j + 2] * vectors[offset + j + 2];
+            s3 += q[j + 3] * vectors[offset + j + 3];
+        }
+        for (; j < dimension; j++) {
+            s0 += q[j] * vectors[offset + j];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    private static float[] normalize(float[] v) {
+        double norm = 0;
+        for (float x : v) {
+            norm += x * x;
+        }
+        norm = Math.sqrt(norm);
+        float[] out = new float[v.length];
+        if (norm == 0) {
+            return out;
+        }
+        for (int i = 0; i < v.length; i++) {
+            out[i] = (float) (v[i] / norm);
+        }
+        return out;
+    }
+
+    public static final class Match {
+        private final long dishId;
+        private final float score;
+
+        public Match(long dishId, float score) {
+            this.dishId = dishId;
+            this.score = score;
+        }
+
+        public long getDishId() {
+            return dishId;
+        }
+
+        public float getScore() {
+            return score;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.backend_darkitchen.Service;
+
+import com.example.backend_darkitchen.Repository.ClientRepository;
+import com.example.backend_darkitchen.Repository.UserRepository;
+import com.example.backend_darkitchen.entity.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Existence des emails (personnel et clients) : un filtre de Bloom par table
+ * répond "libre" sans requête ; seuls les cas possiblement pris passent par
+ * la requête indexée. Les filtres sont construits au démarrage, complétés à
+ * chaque AccountChangedEvent et reconstruits quand ils dépassent leur
+ * capacité. Tant qu'un filtre n'est pas prêt, la base est toujours
+ * interrogée.
+ *
+ * Un "libre" du filtre n'est qu'un indice : un compte créé par une autre
+ * instance ou hors de l'application n'y figure qu'après la reconstruction.
+ * Les vérifications consultatives (check-email) s'en contentent ; les
+ * écritures (inscription d'un client, création d'un membre du personnel)
+ * passent par les méthodes confirm*, qui interrogent toujours la base.
+ */
+@Service
+public class EmailRegistry {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private final UserRepository userRepository;
+    private final ClientRepository clientRepository;
+    private final double fpp;
+    private final int minCapacity;
+
+    private final Table staff;
+    private final Table clients;
+
+    public EmailRegistry(UserRepository userRepository, ClientRepository clientRepository,
+                         MeterRegistry meterRegistry,
+                         @Value("${accounts.email-filter.fpp:0.01}") double fpp,
+                         @Value("${accounts.email-filter.min-capacity:10000}") int minCapacity) {
+        this.userRepository = userRepository;
+        this.clientRepository = clientRepository;
+        this.fpp = fpp;
+        this.minCapacity = minCapacity;
+        this.staff = new Table("users", meterRegistry);
+        this.clients = new Table("clients", meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        rebuild(staff, userRepository::findAllEmails);
+        rebuild(clients, clientRepository::findAllEmails);
+        System.out.println("Filtre des emails: " + staff.size.get() + " membre(s) du personnel, "
+                + clients.size.get() + " client(s)");
+    }
+
+    // À la publication et non après validation : un email ajouté trop tôt ne coûte qu'un faux positif,
+    // un email ajouté trop tard serait annoncé libre
+    @EventListener
+    public void onAccountChanged(AccountChangedEvent event) {
+        if (event.isDeleted() || event.getEmail() == null) {
+            // Un filtre de Bloom ne retire rien : l'email supprimé reste un faux positif jusqu'à la reconstruction
+            return;
+        }
+        (AccountChangedEvent.USER.equals(event.getKind()) ? staff : clients).add(normalize(event.getEmail()));
+    }
+
+    // Reconstruction quand un filtre a reçu plus d'emails que prévu (son taux de faux positifs dérive)
+    @Scheduled(fixedDelayString = "${accounts.email-filter.check-interval-ms:3600000}")
+    public void rebuildIfFull() {
+        if (staff.isFull()) {
+            rebuild(staff, userRepository::findAllEmails);
+        }
+        if (clients.isFull()) {
+            rebuild(clients, clientRepository::findAllEmails);
+        }
+    }
+
+    // Indice rapide (consultatif) : un "false" peut être un compte pas encore dans le filtre
+    public boolean staffEmailExists(String email) {
+        return lookup(staff, email, userRepository::existsByEmail);
+    }
+
+    public boolean clientEmailExists(String email) {
+        return lookup(clients, email, clientRepository::existsByEmail);
+    }
+
+    public Optional<User> findStaff(String email) {
+        return lookup(staff, email, userRepository::findByEmail, Optional::isPresent, Optional.empty());
+    }
+
+    // Avant une écriture : email déjà pris, selon la base
+    public boolean confirmTaken(String email) {
+        return confirmStaffEmail(email) || confirmClientEmail(email);
+    }
+
+    public boolean confirmStaffEmail(String email) {
+        return confirm(staff, email, userRepository::existsByEmail, Boolean::booleanValue, false);
+    }
+
+    public boolean confirmClientEmail(String email) {
+        return confirm(clients, email, clientRepository::existsByEmail, Boolean::booleanValue, false);
+    }
+
+    private boolean lookup(Table table, String email, Function<String, Boolean> query) {
+        return lookup(table, email, query, Boolean::booleanValue, false);
+    }
+
+    private <T> T lookup(Table table, String email, Function<String, T> query,
+                         Function<T, Boolean> found, T absent) {
+        if (email == null) {
+            return absent;
+        }
+        BloomFilter filter = table.filter;
+        if (filter != null && !filter.mightContain(normalize(email))) {
+            table.absent.increment();
+            return absent;
+        }
+        T result = query.apply(email);
+        if (filter != null) {
+            (found.apply(result) ? table.present : table.falsePositives).increment();
+        }
+        return result;
+    }
+
+    // Toujours la requête ; un email présent que le filtre annonçait libre y est ajouté et compté
+    private <T> T confirm(Table table, String email, Function<String, T> query,
+                          Function<T, Boolean> found, T absent) {
+        if (email == null) {
+            return absent;
+        }
+        T result = query.apply(email);
+        BloomFilter filter = table.filter;
+        if (filter != null && found.apply(result) && !filter.mightContain(normalize(email))) {
+            table.falseNegatives.increment();
+            table.add(normalize(email));
+        }
+        return result;
+    }
+
+    private void rebuild(Table table, Supplier<List<String>> emails) {
+        table.startRebuild();
+        List<String> loaded = emails.get();
+        table.finishRebuild(loaded, minCapacity, fpp);
+    }
+
+    // Pliage au moins aussi large que la collation MySQL (insensible à la casse et aux accents) :
+    // deux emails égaux pour la base donnent la même clé
+    private static String normalize(String email) {
+        String folded = MARKS.matcher(Normalizer.normalize(email.trim(), Normalizer.Form.NFD)).replaceAll("");
+        return folded.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Table {
+        private volatile BloomFilter filter;
+        // Emails ajoutés pendant une reconstruction, reportés dans le nouveau filtre
+        private List<String> pending;
+        private final AtomicInteger size = new AtomicInteger();
+
+        private final Counter absent;
+        private final Counter present;
+        private final Counter falsePositives;
+        private final Counter falseNegatives;
+
+        private Table(String name, MeterRegistry meterRegistry) {
+            // absent = requêtes évitées ; false_positive / (false_positive + absent) = taux de faux positifs observé
+            this.absent = Counter.builder("accounts.email_filter").tag("table", name).tag("result", "absent")
+                    .register(meterRegistry);
+            this.present = Counter.builder("accounts.email_filter").tag("table", name).tag("result", "present")
+                    .register(meterRegistry);
+            this.falsePositives = Counter.builder("accounts.email_filter").tag("table", name)
+                    .tag("result", "false_positive").register(meterRegistry);
+            // Emails présents en base mais absents du filtre (écrits ailleurs), rattrapés par confirm*
+            this.falseNegatives = Counter.builder("accounts.email_filter").tag("table", name)
+                    .tag("result", "false_negative").register(meterRegistry);
+            Gauge.builder("accounts.email_filter.false_positive_rate", this, Table::observedFpp)
+                    .tag("table", name).register(meterRegistry);
+            Gauge.builder("accounts.email_filter.expected_fpp", this,
+                    t -> t.filter != null ? t.filter.expectedFpp() : Double.NaN)
+                    .tag("table", name).register(meterRegistry);
+            Gauge.builder("accounts.email_filter.size", size, AtomicInteger::get)
+                    .tag("table", name).register(meterRegistry);
+        }
+
+        private synchronized void add(String email) {
+            if (pending != null) {
+                pending.add(email);
+            }
+            BloomFilter current = filter;
+            // Une mise à jour de compte republie un email déjà connu : il n'est compté qu'une fois
+            if (current != null && !current.mightContain(email)) {
+                current.add(email);
+                size.incrementAndGet();
+            }
+        }
+
+        private synchronized void startRebuild() {
+            pending = new ArrayList<>();
+        }
+
+        private synchronized void finishRebuild(List<String> loaded, int minCapacity, double fpp) {
+            int count = loaded.size() + pending.size();
+            BloomFilter next = new BloomFilter(Math.max(minCapacity, count * 2), fpp);
+            for (String email : loaded) {
+                next.add(normalize(email));
+            }
+            for (String email : pending) {
+                next.add(email);
+            }
+            pending = null;
+            filter = next;
+            size.set(count);
+        }
+
+        private boolean isFull() {
+            BloomFilter current = filter;
+            return current != null && size.get() > current.getCapacity();
+        }
+
+        private double observedFpp() {
+            double negatives = absent.count() + falsePositives.count();
+            return negatives == 0 ? 0 : falsePositives.count() / negatives;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.backend_darkitchen.Service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Regroupe les recherches par image simultanées en un seul appel
+ * /embed-images : le modèle CLIP encode un lot en une passe, bien plus
+ * efficace sur CPU qu'une passe par image. Un lot part dès qu'il atteint
+ * max-size images, ou au bout de window-ms après sa première image.
+ */
+@Component
+public class EmbeddingBatcher {
+
+    private final ClipClient clipClient;
+    private final boolean enabled;
+    private final long windowMs;
+    private final int maxSize;
+
+    private final DistributionSummary batchSizes;
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "clip-batcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Object lock = new Object();
+    private List<Pending> pending = new ArrayList<>();
+    private ScheduledFuture<?> scheduledFlush;
+
+    public EmbeddingBatcher(ClipClient clipClient, MeterRegistry meterRegistry,
+                            @Value("${clip.batch.enabled:true}") boolean enabled,
+                            @Value("${clip.batch.window-ms:10}") long windowMs,
+                            @Value("${clip.batch.max-size:16}") int maxSize) {
+        this.clipClient = clipClient;
+        this.enabled = enabled;
+        this.windowMs = windowMs;
+        this.maxSize = maxSize;
+        this.batchSizes = DistributionSummary.builder("clip.batch.size")
+                .description("Nombre d'images par appel /embed-images")
+                .register(meterRegistry);
+    }
+
+    // Embedding normalisé d'une image, calculé avec les autres images arrivées dans la même fenêtre
+    public CompletableFuture<float[]> embed(byte[] imageBytes, String filename) {
+        Pending request = new Pending(imageBytes, filename);
+        if (!enabled) {
+            send(List.of(request));
+            return request.future;
+        }
+
+        List<Pending> full = null;
+        synchronized (lock) {
+            pending.add(request);
+            if (pending.size() >= maxSize) {
+                full = takePending();
+            } else if (pending.size() == 1) {
+                scheduledFlush = timer.schedule(this::flush, windowMs, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (full != null) {
+            send(full);
+        }
+        return request.future;
+    }
+
+    private void flush() {
+        List<Pending> batch;
+        synchronized (lock) {
+            batch = takePending();
+        }
+        if (!batch.isEmpty()) {
+            send(batch);
+        }
+    }
+
+    // Appelé sous le verrou : vide le lot courant et annule son minuteur
+    private List<Pending> takePending() {
+        List<Pending> batch = pending;
+        pending = new ArrayList<>();
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        return batch;
+    }
+
+    // Un seul appel pour le lot, puis chaque appelant reçoit l'embedding de son image
+    private void send(List<Pending> batch) {
+        batchSizes.record(batch.size());
+        List<byte[]> images = new ArrayList<>(batch.size());
+        List<String> filenames = new ArrayList<>(batch.size());
+        for (Pending request : batch) {
+            images.add(request.imageBytes);
+            filenames.add(request.filename);
+        }
+
+        clipClient.embedImages(images, filenames).whenComplete((json, error) -> {
+            if (error != null) {
+                batch.forEach(request -> request.future.completeExceptionally(error));
+                return;
+            }
+            JsonNode embeddings = json.get("embeddings");
+            JsonNode errors = json.get("errors");
+            for (int i = 0; i < batch.size(); i++) {
+                JsonNode embedding = embeddings.get(i);
+                if (embedding == null || embedding.isNull()) {
+                    String message = errors != null && errors.hasNonNull(i) ? errors.get(i).asText() : "Image illisible";
+                    batch.get(i).future.completeExceptionally(new IllegalArgumentException(message));
+                } else {
+                    batch.get(i).future.complete(ClipClient.toFloatArray(embedding));
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    private static final class Pending {
+        private final byte[] imageBytes;
+        private final String filename;
+        private final CompletableFuture<float[]> future = new CompletableFuture<>();
+
+        private Pending(byte[] imageBytes, String filename) {
+            this.imageBytes = imageBytes;
+            this.filename = filename;
+        }
+    }
+}
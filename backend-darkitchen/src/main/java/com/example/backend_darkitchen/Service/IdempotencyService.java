@@ -0,0 +1,151 @@
+package com.example.backend_darkitchen.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Déduplication des requêtes portant un en-tête Idempotency-Key : la première
+ * exécution est mémorisée (bornée, avec durée de vie) et rejouée telle quelle
+ * aux nouvelles tentatives, sans toucher la base. Les doublons arrivés pendant
+ * l'exécution attendent son résultat au lieu de la relancer, sans occuper de
+ * thread : la réponse est asynchrone (CompletableFuture).
+ *
+ * Les clés sont propres à chaque appelant (scope) : deux clients qui tirent la
+ * même clé ne voient jamais la réponse l'un de l'autre.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final ObjectMapper objectMapper;
+    private final long inFlightWaitMs;
+    private final Cache<String, Entry> entries;
+
+    private final Counter executed;
+    private final Counter replayed;
+    private final Counter coalesced;
+    private final Counter mismatched;
+
+    public IdempotencyService(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                              @Value("${idempotency.max-size:10000}") long maxSize,
+                              @Value("${idempotency.ttl-minutes:1440}") long ttlMinutes,
+                              @Value("${idempotency.in-flight-wait-ms:20000}") long inFlightWaitMs) {
+        this.objectMapper = objectMapper;
+        this.inFlightWaitMs = inFlightWaitMs;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .build();
+
+        this.executed = Counter.builder("idempotency.requests").tag("result", "executed").register(meterRegistry);
+        this.replayed = Counter.builder("idempotency.requests").tag("result", "replayed").register(meterRegistry);
+        this.coalesced = Counter.builder("idempotency.requests").tag("result", "coalesced").register(meterRegistry);
+        this.mismatched = Counter.builder("idempotency.requests").tag("result", "mismatch").register(meterRegistry);
+        Gauge.builder("idempotency.keys", entries, Cache::estimatedSize).register(meterRegistry);
+    }
+
+    // Exécute action une seule fois par (scope, clé) ; un corps différent pour une clé déjà vue est refusé (422)
+    public CompletableFuture<ResponseEntity<?>> execute(String scope, String key, Object requestBody,
+                                                       Supplier<ResponseEntity<?>> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return CompletableFuture.completedFuture(error(HttpStatus.BAD_REQUEST, "En-tête " + HEADER + " invalide"));
+        }
+
+        String scopedKey = scope + "|" + key;
+        Entry entry = new Entry(fingerprint(requestBody));
+        Entry existing = entries.asMap().putIfAbsent(scopedKey, entry);
+        if (existing != null) {
+            return replay(existing, entry.fingerprint);
+        }
+
+        executed.increment();
+        try {
+            ResponseEntity<?> response = action.get();
+            // Erreur serveur (probablement passagère) : la clé est libérée pour permettre une nouvelle tentative
+            if (response.getStatusCode().is5xxServerError()) {
+                entries.asMap().remove(scopedKey, entry);
+            }
+            entry.response.complete(response);
+            return CompletableFuture.completedFuture(response);
+        } catch (RuntimeException e) {
+            entries.asMap().remove(scopedKey, entry);
+            entry.response.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    // Doublon : réponse d'origine rejouée, ou attendue (au plus inFlightWaitMs) sans bloquer de thread
+    private CompletableFuture<ResponseEntity<?>> replay(Entry existing, byte[] fingerprint) {
+        if (!Arrays.equals(existing.fingerprint, fingerprint)) {
+            mismatched.increment();
+            return CompletableFuture.completedFuture(error(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Cette clé " + HEADER + " a déjà été utilisée pour une autre requête"));
+        }
+
+        if (existing.response.isDone()) {
+            replayed.increment();
+        } else {
+            coalesced.increment();
+        }
+        return existing.response.copy()
+                .orTimeout(inFlightWaitMs, TimeUnit.MILLISECONDS)
+                .handle((original, failure) -> {
+                    if (failure == null) {
+                        HttpHeaders headers = new HttpHeaders();
+                        headers.addAll(original.getHeaders());
+                        headers.set(REPLAYED_HEADER, "true");
+                        return new ResponseEntity<>(original.getBody(), headers, original.getStatusCode());
+                    }
+                    if (failure instanceof TimeoutException || failure.getCause() instanceof TimeoutException) {
+                        return error(HttpStatus.CONFLICT, "Requête identique toujours en cours, réessayez plus tard");
+                    }
+                    // La première exécution a échoué : le client peut renvoyer la même requête
+                    return error(HttpStatus.CONFLICT, "La requête d'origine a échoué, vous pouvez réessayer");
+                });
+    }
+
+    private byte[] fingerprint(Object requestBody) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(requestBody));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Empreinte de requête impossible", e);
+        }
+    }
+
+    private static ResponseEntity<?> error(HttpStatus status, String message) {
+        return ResponseEntity.status(status).body(Map.of("success", false, "message", message));
+    }
+
+    private static final class Entry {
+        private final byte[] fingerprint;
+        private final CompletableFuture<ResponseEntity<?>> response = new CompletableFuture<>();
+
+        private Entry(byte[] fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+}
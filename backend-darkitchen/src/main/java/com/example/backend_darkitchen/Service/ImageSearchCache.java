@@ -0,0 +1,102 @@
+package com.example.backend_darkitchen.Service;
+
+import com.example.backend_darkitchen.dto.ImageSearchResultDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Résultats de recherche par image indexés par le SHA-256 des octets envoyés :
+ * une photo déjà vue (visuel promo, capture d'écran) ne repasse pas par CLIP.
+ * Le cache est vidé à chaque changement du menu ou de l'index vectoriel.
+ */
+@Component
+public class ImageSearchCache {
+
+    private final Cache<String, Entry> cache;
+    // Incrémentée à chaque invalidation : un résultat calculé avant ne doit pas être stocké
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Counter savedSeconds;
+
+    public ImageSearchCache(MeterRegistry meterRegistry,
+                            @Value("${image.search.cache.max-size:1000}") long maxSize,
+                            @Value("${image.search.cache.ttl-minutes:60}") long ttlMinutes) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "image.search");
+        this.savedSeconds = Counter.builder("image.search.cache.saved")
+                .baseUnit("seconds")
+                .description("Temps d'inférence évité grâce au cache")
+                .register(meterRegistry);
+    }
+
+    public String key(byte[] imageBytes, int limit) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(imageBytes);
+            return HexFormat.of().formatHex(hash) + ":" + limit;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public ImageSearchResultDTO get(String key) {
+        Entry entry = cache.getIfPresent(key);
+        if (entry == null) {
+            return null;
+        }
+        savedSeconds.increment(entry.computeNanos / 1e9);
+        return entry.result;
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    public void put(String key, ImageSearchResultDTO result, long computedAtGeneration, long computeNanos) {
+        if (generation.get() != computedAtGeneration) {
+            return;
+        }
+        cache.put(key, new Entry(result, computeNanos));
+        // Invalidation survenue pendant l'écriture : on retire l'entrée périmée
+        if (generation.get() != computedAtGeneration) {
+            cache.invalidate(key);
+        }
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    @Order(5)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMenuChanged(MenuChangedEvent event) {
+        invalidateAll();
+    }
+
+    private static final class Entry {
+        private final ImageSearchResultDTO result;
+        private final long computeNanos;
+
+        private Entry(ImageSearchResultDTO result, long computeNanos) {
+            this.result = result;
+            this.computeNanos = computeNanos;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.backend_darkitchen.Service;
+
+import com.example.backend_darkitchen.dto.CategoryDTO;
+import com.example.backend_darkitchen.dto.DishDTO;
+import com.example.backend_darkitchen.dto.ImageSearchResultDTO;
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Recherche de plats par image : le service CLIP ne calcule que l'embedding
+ * de l'image envoyée, la recherche des plats les plus proches se fait en
+ * mémoire dans DishVectorIndex. Les embeddings des plats sont précalculés
+ * côté Python (dish_features.db) et rechargés à chaque changement du menu.
+ */
+@Service
+public class ImageSearchService {
+
+    @Autowired
+    private MenuCacheService menuCacheService;
+    @Autowired
+    private ImageSearchCache imageSearchCache;
+    @Autowired
+    private ClipClient clipClient;
+    @Autowired
+    private EmbeddingBatcher embeddingBatcher;
+
+    private final AtomicReference<DishVectorIndex> index = new AtomicReference<>(DishVectorIndex.empty());
+    private final ExecutorService indexer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "dish-vector-indexer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Après MenuCacheService (ordre 0), pour indexer le menu à jour
+    @Order(10)
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        refreshIndexAsync();
+    }
+
+    @Order(10)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMenuChanged(MenuChangedEvent event) {
+        refreshIndexAsync();
+    }
+
+    // Service CLIP absent au démarrage : on réessaie tant que l'index est vide
+    @Scheduled(fixedDelay = 60000, initialDelay = 60000)
+    public void retryIfEmpty() {
+        if (index.get().size() == 0 && !menuCacheService.current().getDishes().isEmpty()) {
+            refreshIndexAsync();
+        }
+    }
+
+    public void refreshIndexAsync() {
+        indexer.execute(this::refreshIndex);
+    }
+
+    // Envoie le menu au service CLIP (seuls les plats modifiés y sont recalculés)
+    // puis reconstruit l'index à partir des embeddings renvoyés
+    private void refreshIndex() {
+        try {
+            List<Map<String, Object>> descriptors = new ArrayList<>();
+            for (DishDTO dish : menuCacheService.current().getDishes()) {
+                Map<String, Object> descriptor = new HashMap<>();
+                descriptor.put("dishId", dish.getId());
+                descriptor.put("name", dish.getName());
+                descriptor.put("image", dish.getImage());
+                if (dish.getCategory() != null) {
+                    descriptor.put("categoryId", dish.getCategory().getId());
+                    descriptor.put("categoryName", dish.getCategory().getName());
+                }
+                descriptors.add(descriptor);
+            }
+
+            JsonNode dishes = clipClient.syncDishFeatures(descriptors).get("dishes");
+            long[] ids = new long[dishes.size()];
+            float[][] embeddings = new float[dishes.size()][];
+            for (int i = 0; i < dishes.size(); i++) {
+                ids[i] = dishes.get(i).get("dishId").asLong();
+                embeddings[i] = ClipClient.toFloatArray(dishes.get(i).get("embedding"));
+            }
+            index.set(new DishVectorIndex(ids, embeddings));
+            imageSearchCache.invalidateAll();
+            System.out.println("Index vectoriel des plats reconstruit: " + ids.length + " plat(s)");
+        } catch (RuntimeException e) {
+            System.out.println("Index vectoriel non mis à jour (service CLIP indisponible ?): " + e.getMessage());
+        }
+    }
+
+    // Une image déjà vue est servie depuis le cache, sans appel au service CLIP.
+    // Le futur se termine sur un thread du HttpClient : aucun thread Tomcat n'attend l'inférence.
+    // Service CLIP indisponible : repli sur une recherche dégradée (mode "fallback", non mise en cache)
+    public CompletableFuture<ImageSearchResultDTO> search(byte[] imageBytes, String filename, int limit) {
+        String key = imageSearchCache.key(imageBytes, limit);
+        ImageSearchResultDTO cached = imageSearchCache.get(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        long generation = imageSearchCache.generation();
+        long start = System.nanoTime();
+        return searchUncached(imageBytes, filename, limit)
+                .thenApply(result -> {
+                    imageSearchCache.put(key, result, generation, System.nanoTime() - start);
+                    return result;
+                })
+                .exceptionally(error -> {
+                    Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                    if (cause instanceof IllegalArgumentException) {
+                        throw (IllegalArgumentException) cause;
+                    }
+                    System.out.println("Recherche par image dégradée: " + cause.getMessage());
+                    return fallback(filename, limit);
+                });
+    }
+
+    // Les k plats les plus proches de l'image ; repli sur la détection de catégorie si l'index est vide
+    private CompletableFuture<ImageSearchResultDTO> searchUncached(byte[] imageBytes, String filename, int limit) {
+        DishVectorIndex currentIndex = index.get();
+        if (currentIndex.size() == 0) {
+            return clipClient.detectCategory(imageBytes, filename)
+                    .thenApply(category -> new ImageSearchResultDTO(category,
+                            menuCacheService.current().getDishesByCategoryName(category), List.of(), "category"));
+        }
+
+        return embeddingBatcher.embed(imageBytes, filename).thenApply(embedding -> {
+            MenuSnapshot menu = menuCacheService.current();
+            List<DishDTO> dishes = new ArrayList<>();
+            List<Float> scores = new ArrayList<>();
+            for (DishVectorIndex.Match match : currentIndex.search(embedding, limit)) {
+                DishDTO dish = menu.getDish(match.getDishId());
+                if (dish != null) {
+                    dishes.add(dish);
+                    scores.add(match.getScore());
+                }
+            }
+
+            String detectedCategory = !dishes.isEmpty() && dishes.get(0).getCategory() != null
+                    ? dishes.get(0).getCategory().getName() : null;
+            return new ImageSearchResultDTO(detectedCategory, dishes, scores, "embedding");
+        });
+    }
+
+    // Sans le modèle : une catégorie du menu citée dans le nom du fichier, sinon les plats populaires
+    private ImageSearchResultDTO fallback(String filename, int limit) {
+        MenuSnapshot menu = menuCacheService.current();
+        if (filename != null) {
+            String name = filename.toLowerCase();
+            for (CategoryDTO category : menu.getCategories()) {
+                if (category.getName() != null && name.contains(category.getName().toLowerCase())) {
+                    List<DishDTO> dishes = menu.getDishesByCategoryName(category.getName());
+                    return new ImageSearchResultDTO(category.getName(),
+                            dishes.subList(0, Math.min(limit, dishes.size())), List.of(), "fallback");
+                }
+            }
+        }
+        List<DishDTO> popular = menu.getPopularDishes();
+        return new ImageSearchResultDTO(null, popular.subList(0, Math.min(limit, popular.size())),
+                List.of(), "fallback");
+    }
+
+    public int getIndexSize() {
+        return index.get().size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        indexer.shutdownNow();
+    }
+}
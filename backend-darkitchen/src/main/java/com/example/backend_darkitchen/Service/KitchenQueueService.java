@@ -0,0 +1,185 @@
+package com.example.backend_darkitchen.Service;
+
+import com.example.backend_darkitchen.dto.DishDTO;
+import com.example.backend_darkitchen.dto.OrderEventDTO;
+import com.example.backend_darkitchen.dto.OrderItemResponseDTO;
+import com.example.backend_darkitchen.dto.OrderResponseDTO;
+import com.example.backend_darkitchen.entity.OrderStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * File de la cuisine tenue en mémoire : les commandes EN_PREPARATION triées
+ * par heure de fin estimée (temps de préparation des plats et quantités).
+ * Alimentée par le journal des événements de commande (modèle de lecture),
+ * O(log n) par mise à jour. Pas d'instantané : au démarrage, la file est
+ * relue sur l'index (status, id), ce qui reste la source la plus directe.
+ */
+@Service
+public class KitchenQueueService implements OrderReadModel {
+
+    private static final Pattern MINUTES = Pattern.compile("\\d+");
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private MenuCacheService menuCacheService;
+
+    // Temps retenu pour un plat sans prepTime exploitable
+    @Value("${kitchen.default-prep-minutes:15}")
+    private int defaultPrepMinutes;
+
+    // Temps ajouté par portion supplémentaire d'un même plat
+    @Value("${kitchen.extra-portion-minutes:2}")
+    private int extraPortionMinutes;
+
+    private final TreeSet<KitchenTicket> queue = new TreeSet<>(
+            Comparator.comparing(KitchenTicket::getEstimatedReadyAt).thenComparing(KitchenTicket::getOrderId));
+    private final Map<Long, KitchenTicket> ticketsByOrderId = new HashMap<>();
+
+    @Override
+    public String getReadModelName() {
+        return "kitchenQueue";
+    }
+
+    @Override
+    public String snapshot() {
+        return null;
+    }
+
+    @Override
+    public boolean restore(String state) {
+        return false;
+    }
+
+    @Override
+    public synchronized void rebuild() {
+        queue.clear();
+        ticketsByOrderId.clear();
+        for (OrderResponseDTO order : orderService.getOrdersByStatus(OrderStatus.EN_PREPARATION)) {
+            put(order);
+        }
+        System.out.println("File cuisine reconstruite: " + queue.size() + " commande(s) en préparation");
+    }
+
+    // Les événements ne portent que l'identifiant : la commande entrée en cuisine (items compris)
+    // est relue ici, sur le thread du relais, hors du verrou de la file
+    @Override
+    public void apply(OrderEventDTO event) {
+        if (event.getStatus() == OrderStatus.EN_PREPARATION) {
+            OrderResponseDTO order = orderService.getOrderById(event.getOrderId());
+            synchronized (this) {
+                put(order);
+            }
+        } else {
+            synchronized (this) {
+                remove(event.getOrderId());
+            }
+        }
+    }
+
+    // Commandes en préparation, de la plus proche de sa fin à la plus lointaine
+    public synchronized List<KitchenTicket> getQueue() {
+        return new ArrayList<>(queue);
+    }
+
+    public synchronized int size() {
+        return queue.size();
+    }
+
+    private void put(OrderResponseDTO order) {
+        remove(order.getOrderId());
+        int prepMinutes = estimatePrepMinutes(order);
+        // orderDate est remise à l'heure du dernier changement de statut : c'est l'entrée en cuisine
+        LocalDateTime startedAt = order.getOrderDate() != null ? order.getOrderDate() : LocalDateTime.now();
+        KitchenTicket ticket = new KitchenTicket(order, startedAt, prepMinutes, startedAt.plusMinutes(prepMinutes));
+        queue.add(ticket);
+        ticketsByOrderId.put(order.getOrderId(), ticket);
+    }
+
+    private void remove(Long orderId) {
+        KitchenTicket ticket = ticketsByOrderId.remove(orderId);
+        if (ticket != null) {
+            queue.remove(ticket);
+        }
+    }
+
+    // Les plats sont préparés en parallèle : le plus long fixe la durée,
+    // chaque portion supplémentaire ajoute extraPortionMinutes
+    private int estimatePrepMinutes(OrderResponseDTO order) {
+        if (order.getItems() == null || order.getItems().isEmpty()) {
+            return defaultPrepMinutes;
+        }
+        MenuSnapshot menu = menuCacheService.current();
+        int longest = 0;
+        int extraPortions = 0;
+        for (OrderItemResponseDTO item : order.getItems()) {
+            DishDTO dish = item.getDishId() != null ? menu.getDish(item.getDishId()) : null;
+            longest = Math.max(longest, parsePrepMinutes(dish != null ? dish.getPrepTime() : null));
+            if (item.getQuantity() != null && item.getQuantity() > 1) {
+                extraPortions += item.getQuantity() - 1;
+            }
+        }
+        return longest + extraPortions * extraPortionMinutes;
+    }
+
+    // "15-20", "15-20 min" ou "20" : on retient la borne haute
+    int parsePrepMinutes(String prepTime) {
+        if (prepTime == null) {
+            return defaultPrepMinutes;
+        }
+        int minutes = -1;
+        Matcher matcher = MINUTES.matcher(prepTime);
+        while (matcher.find()) {
+            minutes = Math.max(minutes, Integer.parseInt(matcher.group()));
+        }
+        return minutes > 0 ? minutes : defaultPrepMinutes;
+    }
+
+    public static final class KitchenTicket {
+        private final OrderResponseDTO order;
+        private final LocalDateTime startedAt;
+        private final int prepMinutes;
+        private final LocalDateTime estimatedReadyAt;
+
+        private KitchenTicket(OrderResponseDTO order, LocalDateTime startedAt, int prepMinutes,
+                              LocalDateTime estimatedReadyAt) {
+            this.order = order;
+            this.startedAt = startedAt;
+            this.prepMinutes = prepMinutes;
+            this.estimatedReadyAt = estimatedReadyAt;
+        }
+
+        public Long getOrderId() {
+            return order.getOrderId();
+        }
+
+        public OrderResponseDTO getOrder() {
+            return order;
+        }
+
+        public LocalDateTime getStartedAt() {
+            return startedAt;
+        }
+
+        public int getPrepMinutes() {
+            return prepMinutes;
+        }
+
+        public LocalDateTime getEstimatedReadyAt() {
+            return estimatedReadyAt;
+        }
+    }
+}
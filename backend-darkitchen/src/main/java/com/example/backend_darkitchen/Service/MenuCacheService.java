@@ -0,0 +1,98 @@
+package com.example.backend_darkitchen.Service;
+
+import com.example.backend_darkitchen.entity.Category;
+import com.example.backend_darkitchen.entity.Dish;
+import com.example.backend_darkitchen.Repository.CategoryRepository;
+import com.example.backend_darkitchen.Repository.DishRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Menu servi depuis la mémoire : les lectures /api/dishes et /api/categories
+ * ne touchent plus MySQL. La photographie est remplacée atomiquement après
+ * chaque écriture sur les plats ou les catégories.
+ */
+@Service
+public class MenuCacheService {
+
+    @Autowired
+    private DishRepository dishRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final AtomicReference<MenuSnapshot> snapshot = new AtomicReference<>();
+    private final AtomicLong version = new AtomicLong();
+
+    private Counter hits;
+    private Counter misses;
+    private Timer rebuildTimer;
+
+    // Compteurs menu.cache.requests{result=hit|miss} : une photographie absente compte
+    // comme un échec et déclenche la reconstruction
+    @PostConstruct
+    public void registerMetrics() {
+        this.hits = Counter.builder("menu.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("menu.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.rebuildTimer = Timer.builder("menu.cache.rebuild").register(meterRegistry);
+        Gauge.builder("menu.cache.version", version, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("menu.cache.dishes", snapshot, s -> s.get() != null ? s.get().getDishes().size() : 0)
+                .register(meterRegistry);
+    }
+
+    @Order(0)
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        rebuild();
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMenuChanged(MenuChangedEvent event) {
+        System.out.println("Menu modifié (" + event.getReason() + "), reconstruction du cache");
+        rebuild();
+    }
+
+    // Photographie courante ; reconstruite à la demande si elle n'existe pas encore
+    public MenuSnapshot current() {
+        MenuSnapshot current = snapshot.get();
+        if (current != null) {
+            hits.increment();
+            return current;
+        }
+        misses.increment();
+        return rebuild();
+    }
+
+    public synchronized MenuSnapshot rebuild() {
+        return rebuildTimer.record(() -> {
+            // Catégories chargées avec les plats (graphe "Dish.category") : la photographie est
+            // utilisée hors de toute session, sans chargement paresseux possible
+            List<Dish> dishes = dishRepository.findAllWithCategory();
+            List<Category> categories = categoryRepository.findAll();
+            MenuSnapshot next = new MenuSnapshot(version.incrementAndGet(), dishes, categories, objectMapper);
+            snapshot.set(next);
+            return next;
+        });
+    }
+}
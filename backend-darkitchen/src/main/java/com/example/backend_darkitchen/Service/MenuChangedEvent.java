@@ -0,0 +1,18 @@
+package com.example.backend_darkitchen.Service;
+
+/**
+ * Publié par DishService / CategoryService après une écriture sur le menu :
+ * la photographie du menu est reconstruite une fois la transaction validée.
+ */
+public class MenuChangedEvent {
+
+    private final String reason;
+
+    public MenuChangedEvent(String reason) {
+        this.reason = reason;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+}
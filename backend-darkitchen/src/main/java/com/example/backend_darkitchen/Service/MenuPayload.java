@@ -0,0 +1,64 @@
+package com.example.backend_darkitchen.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Vue du menu déjà sérialisée en JSON (brut + gzip), avec son ETag fort
+ * calculé sur le contenu : il ne change que si la vue change réellement.
+ * Les deux encodages sont deux représentations distinctes, chacune son ETag.
+ */
+public final class MenuPayload {
+
+    private final byte[] json;
+    private final byte[] gzip;
+    private final String etag;
+    private final String gzipEtag;
+
+    public MenuPayload(byte[] json) {
+        this.json = json;
+        this.gzip = compress(json);
+        String hash = sha256(json).substring(0, 32);
+        this.etag = "\"" + hash + "\"";
+        this.gzipEtag = "\"" + hash + "-gz\"";
+    }
+
+    public byte[] getJson() {
+        return json;
+    }
+
+    public byte[] getGzip() {
+        return gzip;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public String getGzipEtag() {
+        return gzipEtag;
+    }
+
+    private static byte[] compress(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 32);
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+            gzipOut.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.backend_darkitchen.Service;
+
+import com.example.backend_darkitchen.dto.CategoryDTO;
+import com.example.backend_darkitchen.dto.DishDTO;
+import com.example.backend_darkitchen.entity.Category;
+import com.example.backend_darkitchen.entity.Dish;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Photographie immuable du menu (plats + catégories) et de ses index.
+ * Une nouvelle instance est construite à chaque modification du menu ;
+ * les lecteurs ne voient jamais un état partiellement mis à jour.
+ * Elle ne garde que des vues immuables (DishDTO, CategoryDTO), jamais les
+ * entités : un appelant ne peut ni la modifier ni la rattacher à une session.
+ * Chaque vue exposée par l'API est aussi pré-sérialisée (voir MenuPayload).
+ */
+public final class MenuSnapshot {
+
+    public static final String VIEW_DISHES = "dishes";
+    public static final String VIEW_FEATURED = "dishes/featured";
+    public static final String VIEW_NEW = "dishes/new";
+    public static final String VIEW_CATEGORIES = "categories";
+
+    private final long version;
+    private final LocalDateTime builtAt;
+    private final List<DishDTO> dishes;
+    private final List<CategoryDTO> categories;
+    private final Map<Long, DishDTO> dishesById;
+    // Prix en centimes, seule référence pour la prise de commande
+    private final Map<Long, Long> priceCentsById;
+    private final Map<Long, CategoryDTO> categoriesById;
+    private final Map<Long, List<DishDTO>> dishesByCategoryId;
+    private final Map<String, List<DishDTO>> dishesByCategoryName;
+    private final List<DishDTO> popularDishes;
+    private final List<DishDTO> newDishes;
+    private final Map<String, MenuPayload> payloads;
+    private final MenuPayload emptyList;
+
+    public MenuSnapshot(long version, List<Dish> dishEntities, List<Category> categoryEntities,
+                        ObjectMapper objectMapper) {
+        this.version = version;
+        this.builtAt = LocalDateTime.now();
+
+        Map<Long, CategoryDTO> categoryIndex = new HashMap<>();
+        List<CategoryDTO> categoryViews = new ArrayList<>(categoryEntities.size());
+        for (Category category : categoryEntities) {
+            CategoryDTO view = CategoryDTO.from(category);
+            categoryIndex.put(view.getId(), view);
+            categoryViews.add(view);
+        }
+
+        List<DishDTO> dishViews = new ArrayList<>(dishEntities.size());
+        Map<Long, DishDTO> byId = new HashMap<>();
+        Map<Long, Long> centsById = new HashMap<>();
+        Map<Long, List<DishDTO>> byCategoryId = new HashMap<>();
+        Map<String, List<DishDTO>> byCategoryName = new HashMap<>();
+        List<DishDTO> popular = new ArrayList<>();
+        List<DishDTO> fresh = new ArrayList<>();
+        for (Dish dish : dishEntities) {
+            CategoryDTO category = null;
+            if (dish.getCategory() != null) {
+                category = categoryIndex.get(dish.getCategory().getId());
+                if (category == null) {
+                    category = CategoryDTO.from(dish.getCategory());
+                }
+            }
+            DishDTO view = DishDTO.from(dish, category);
+            dishViews.add(view);
+            byId.put(view.getId(), view);
+            centsById.put(view.getId(), Math.round(view.getPrice() * 100));
+            if (category != null) {
+                byCategoryId.computeIfAbsent(category.getId(), id -> new ArrayList<>()).add(view);
+                byCategoryName.computeIfAbsent(category.getName().toLowerCase(), n -> new ArrayList<>()).add(view);
+            }
+            if (view.getIsPopular()) popular.add(view);
+            if (view.getIsNew()) fresh.add(view);
+        }
+
+        this.dishes = Collections.unmodifiableList(dishViews);
+        this.categories = Collections.unmodifiableList(categoryViews);
+        this.dishesById = Collections.unmodifiableMap(byId);
+        this.priceCentsById = Collections.unmodifiableMap(centsById);
+        this.categoriesById = Collections.unmodifiableMap(categoryIndex);
+        this.dishesByCategoryId = freeze(byCategoryId);
+        this.dishesByCategoryName = freeze(byCategoryName);
+        this.popularDishes = Collections.unmodifiableList(popular);
+        this.newDishes = Collections.unmodifiableList(fresh);
+
+        // Pré-sérialisation de toutes les vues avec le même ObjectMapper que Spring MVC
+        Map<String, MenuPayload> views = new HashMap<>();
+        views.put(VIEW_DISHES, render(objectMapper, this.dishes));
+        views.put(VIEW_FEATURED, render(objectMapper, this.popularDishes));
+        views.put(VIEW_NEW, render(objectMapper, this.newDishes));
+        views.put(VIEW_CATEGORIES, render(objectMapper, this.categories));
+        for (DishDTO dish : this.dishes) {
+            views.put(dishView(dish.getId()), render(objectMapper, dish));
+        }
+        for (CategoryDTO category : this.categories) {
+            views.put(categoryView(category.getId()), render(objectMapper, category));
+            views.put(categoryDishesView(category.getId()),
+                    render(objectMapper, getDishesByCategory(category.getId())));
+        }
+        this.payloads = Collections.unmodifiableMap(views);
+        this.emptyList = render(objectMapper, List.of());
+    }
+
+    public static String dishView(Long dishId) {
+        return "dishes/" + dishId;
+    }
+
+    public static String categoryView(Long categoryId) {
+        return "categories/" + categoryId;
+    }
+
+    public static String categoryDishesView(Long categoryId) {
+        return "dishes/category/" + categoryId;
+    }
+
+    // Vue pré-sérialisée, null si elle n'existe pas (plat ou catégorie inconnus)
+    public MenuPayload getPayload(String view) {
+        return payloads.get(view);
+    }
+
+    public MenuPayload getEmptyListPayload() {
+        return emptyList;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public LocalDateTime getBuiltAt() {
+        return builtAt;
+    }
+
+    public List<DishDTO> getDishes() {
+        return dishes;
+    }
+
+    public List<CategoryDTO> getCategories() {
+        return categories;
+    }
+
+    public DishDTO getDish(Long id) {
+        return dishesById.get(id);
+    }
+
+    // Prix du plat en centimes, null si le plat n'est pas au menu
+    public Long getPriceCents(Long dishId) {
+        return priceCentsById.get(dishId);
+    }
+
+    public CategoryDTO getCategory(Long id) {
+        return categoriesById.get(id);
+    }
+
+    public List<DishDTO> getDishesByCategory(Long categoryId) {
+        return dishesByCategoryId.getOrDefault(categoryId, List.of());
+    }
+
+    public List<DishDTO> getDishesByCategoryName(String categoryName) {
+        return categoryName == null ? List.of()
+                : dishesByCategoryName.getOrDefault(categoryName.toLowerCase(), List.of());
+    }
+
+    public List<DishDTO> getPopularDishes() {
+        return popularDishes;
+    }
+
+    public List<DishDTO> getNewDishes() {
+        return newDishes;
+    }
+
+    private static MenuPayload render(ObjectMapper objectMapper, Object value) {
+        try {
+            return new MenuPayload(objectMapper.writeValueAsBytes(value));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Sérialisation du menu impossible", e);
+        }
+    }
+
+    private static <K> Map<K, List<DishDTO>> freeze(Map<K, List<DishDTO>> index) {
+        Map<K, List<DishDTO>> frozen = new HashMap<>();
+        index.forEach((key, list) -> frozen.put(key, Collections.unmodifiableList(list)));
+        return Collections.unmodifiableMap(frozen);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.backend_darkitchen.Service;
+
+import com.example.backend_darkitchen.entity.OrderStatus;
+
+// La commande a changé de statut entre la lecture du client et sa mise à jour : à relire puis réessayer
+public class OrderConflictException extends RuntimeException {
+
+    private final Long orderId;
+    private final OrderStatus currentStatus;
+
+    public OrderConflictException(Long orderId, OrderStatus currentStatus, String message) {
+        super(message);
+        this.orderId = orderId;
+        this.currentStatus = currentStatus;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public OrderStatus getCurrentStatus() {
+        return currentStatus;
+    }
+}
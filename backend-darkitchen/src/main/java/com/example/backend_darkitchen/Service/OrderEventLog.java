@@ -0,0 +1,327 @@
+package com.example.backend_darkitchen.Service;
+
+import com.example.backend_darkitchen.Repository.OrderEventRecordRepository;
+import com.example.backend_darkitchen.Repository.ReadModelSnapshotRepository;
+import com.example.backend_darkitchen.dto.OrderEventDTO;
+import com.example.backend_darkitchen.entity.OrderEventRecord;
+import com.example.backend_darkitchen.entity.ReadModelSnapshot;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Journal des événements de commande (table order_events, outbox) : chaque
+ * événement est écrit dans la transaction de la commande, puis un relais
+ * unique lui attribue une position (ordre de validation) et le remet aux
+ * abonnés internes dans cet ordre avant de le marquer publié. Un événement
+ * validé n'est donc jamais perdu, et un événement annulé n'est jamais diffusé.
+ *
+ * Les modèles de lecture (OrderReadModel : compteurs, activité du personnel,
+ * file cuisine) sont reconstruits au démarrage, avant l'ouverture du serveur
+ * web, à partir de leur dernier instantané et du rejeu du journal au-delà ;
+ * le relais ne leur remet ensuite que les événements postérieurs. Les autres
+ * abonnés (SSE) reçoivent les événements publiés par ApplicationEventPublisher.
+ */
+@Service
+public class OrderEventLog implements SmartLifecycle {
+
+    private final OrderEventRecordRepository repository;
+    private final ReadModelSnapshotRepository snapshotRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectProvider<OrderReadModel> readModelProvider;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int retentionDays;
+
+    private final ExecutorService relay = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "order-events-relay");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private volatile boolean started = false;
+
+    // État du relais, lu et modifié sur son seul thread (ou au démarrage, avant lui)
+    private List<OrderReadModel> readModels = List.of();
+    // Position du dernier événement remis à chaque modèle de lecture
+    private final Map<String, Long> checkpoints = new HashMap<>();
+    private long nextPosition;
+    // Événements couverts par tous les instantanés : les seuls que la purge peut supprimer
+    private volatile long snapshotCoveredPosition = 0;
+
+    public OrderEventLog(OrderEventRecordRepository repository, ReadModelSnapshotRepository snapshotRepository,
+                         ApplicationEventPublisher eventPublisher, ObjectProvider<OrderReadModel> readModelProvider,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${orders.events.relay-batch-size:200}") int batchSize,
+                         @Value("${orders.events.retention-days:90}") int retentionDays) {
+        this.repository = repository;
+        this.snapshotRepository = snapshotRepository;
+        this.eventPublisher = eventPublisher;
+        this.readModelProvider = readModelProvider;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.retentionDays = retentionDays;
+    }
+
+    // Avant le serveur web (phase Integer.MAX_VALUE - 1) : aucune requête n'écrit pendant la reprise
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    @Override
+    public void start() {
+        nextPosition = repository.findMaxPosition() + 1;
+        // Lignes validées mais pas encore positionnées lors de l'arrêt précédent
+        sequencePending();
+        long head = nextPosition - 1;
+
+        readModels = readModelProvider.orderedStream().toList();
+        for (OrderReadModel model : readModels) {
+            recover(model, head);
+            checkpoints.put(model.getReadModelName(), head);
+        }
+        writeSnapshots();
+
+        started = true;
+        wakeUp();
+    }
+
+    // Dernier instantané écrit par le relais avant son arrêt
+    @Override
+    public void stop() {
+        started = false;
+        try {
+            relay.execute(this::writeSnapshots);
+        } catch (RejectedExecutionException e) {
+            // relais déjà arrêté
+        }
+        relay.shutdown();
+        try {
+            relay.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return started;
+    }
+
+    // Écrit l'événement dans la transaction en cours ; le relais est réveillé après le commit
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(OrderEventDTO event) {
+        repository.save(new OrderEventRecord(event.getType(), event.getOrderId(), event.getClientId(),
+                event.getPreviousStatus(), event.getStatus(), event.getTotalCents(), event.getActor()));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                wakeUp();
+            }
+        });
+    }
+
+    // Lecture du journal après une position (curseur = position du dernier événement lu).
+    // Les positions suivent l'ordre de validation : un événement validé tard n'est pas sauté
+    public List<OrderEventDTO> readAfter(long afterPosition, int limit) {
+        List<OrderEventDTO> events = new ArrayList<>();
+        for (OrderEventRecord record : repository.findByPositionGreaterThanOrderByPositionAsc(afterPosition,
+                PageRequest.of(0, limit))) {
+            events.add(toEvent(record));
+        }
+        return events;
+    }
+
+    public List<OrderEventDTO> getOrderHistory(Long orderId) {
+        List<OrderEventDTO> events = new ArrayList<>();
+        for (OrderEventRecord record : repository.findByOrderIdOrderByIdAsc(orderId)) {
+            events.add(toEvent(record));
+        }
+        return events;
+    }
+
+    // Filet de sécurité : un réveil perdu (ou un échec du relais) est rattrapé ici
+    @Scheduled(fixedDelayString = "${orders.events.relay-interval-ms:5000}")
+    public void wakeUp() {
+        if (started && drainScheduled.compareAndSet(false, true)) {
+            submit(this::drain);
+        }
+    }
+
+    // Instantanés écrits par le relais lui-même, entre deux lots : chaque état correspond
+    // exactement à la position du dernier événement remis
+    @Scheduled(fixedDelayString = "${orders.events.snapshot-interval-ms:300000}",
+               initialDelayString = "${orders.events.snapshot-interval-ms:300000}")
+    public void takeSnapshots() {
+        if (started) {
+            submit(this::writeSnapshots);
+        }
+    }
+
+    @Scheduled(cron = "0 30 3 * * *")
+    public void purge() {
+        LocalDateTime before = LocalDateTime.now().minusDays(retentionDays);
+        long covered = snapshotCoveredPosition;
+        Integer deleted = transactionTemplate.execute(tx -> repository.deletePublishedBefore(before, covered));
+        if (deleted != null && deleted > 0) {
+            System.out.println("Journal des commandes: " + deleted + " événement(s) de plus de " + retentionDays + " jours supprimé(s)");
+        }
+    }
+
+    private void submit(Runnable task) {
+        try {
+            relay.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Arrêt en cours : les événements restants seront remis au prochain démarrage
+        }
+    }
+
+    private void drain() {
+        drainScheduled.set(false);
+        try {
+            sequencePending();
+            List<OrderEventRecord> pending;
+            do {
+                pending = repository.findByPublishedFalseAndPositionIsNotNullOrderByPositionAsc(
+                        PageRequest.of(0, batchSize));
+                List<Long> ids = new ArrayList<>(pending.size());
+                for (OrderEventRecord record : pending) {
+                    dispatch(record);
+                    ids.add(record.getId());
+                }
+                if (!ids.isEmpty()) {
+                    transactionTemplate.execute(tx -> repository.markPublished(ids));
+                }
+            } while (pending.size() == batchSize);
+        } catch (RuntimeException e) {
+            System.out.println("Erreur du relais d'événements de commande: " + e.getMessage());
+        }
+    }
+
+    // Positionne les lignes validées que le relais n'a pas encore vues, dans l'ordre des id.
+    // Une ligne validée après une voisine d'id plus grand prend simplement une position plus loin
+    private void sequencePending() {
+        List<OrderEventRecord> batch;
+        do {
+            batch = transactionTemplate.execute(tx -> {
+                List<OrderEventRecord> unsequenced = repository.findByPositionIsNullOrderByIdAsc(
+                        PageRequest.of(0, batchSize));
+                for (OrderEventRecord record : unsequenced) {
+                    record.setPosition(nextPosition++);
+                }
+                return unsequenced;
+            });
+        } while (batch != null && batch.size() == batchSize);
+    }
+
+    // Instantané si possible, rejeu du journal jusqu'à head ; sinon reconstruction depuis la base
+    private void recover(OrderReadModel model, long head) {
+        String name = model.getReadModelName();
+        ReadModelSnapshot snapshot = snapshotRepository.findById(name).orElse(null);
+        if (snapshot != null && snapshot.getPosition() <= head && model.restore(snapshot.getState())) {
+            int replayed = replay(model, snapshot.getPosition(), head);
+            System.out.println("Modèle " + name + ": instantané à la position " + snapshot.getPosition()
+                    + ", " + replayed + " événement(s) rejoué(s)");
+        } else {
+            model.rebuild();
+            System.out.println("Modèle " + name + ": reconstruit depuis la base (position " + head + ")");
+        }
+    }
+
+    // Rejoue les événements de positions (after, upTo] sur un modèle, par lots
+    private int replay(OrderReadModel model, long after, long upTo) {
+        int replayed = 0;
+        long position = after;
+        List<OrderEventRecord> batch;
+        do {
+            batch = repository.findByPositionGreaterThanOrderByPositionAsc(position, PageRequest.of(0, batchSize));
+            for (OrderEventRecord record : batch) {
+                if (record.getPosition() > upTo) {
+                    return replayed;
+                }
+                model.apply(toEvent(record));
+                position = record.getPosition();
+                replayed++;
+            }
+        } while (batch.size() == batchSize);
+        return replayed;
+    }
+
+    private void writeSnapshots() {
+        List<ReadModelSnapshot> snapshots = new ArrayList<>();
+        long covered = nextPosition - 1;
+        for (OrderReadModel model : readModels) {
+            String state = model.snapshot();
+            if (state != null) {
+                long position = checkpoints.get(model.getReadModelName());
+                snapshots.add(new ReadModelSnapshot(model.getReadModelName(), position, state));
+                covered = Math.min(covered, position);
+            }
+        }
+        try {
+            transactionTemplate.executeWithoutResult(tx -> snapshotRepository.saveAll(snapshots));
+            snapshotCoveredPosition = covered;
+        } catch (RuntimeException e) {
+            System.out.println("Instantanés des modèles de lecture non enregistrés: " + e.getMessage());
+        }
+    }
+
+    // Hors transaction. Modèles de lecture d'abord, chacun au plus une fois par position ;
+    // puis les @TransactionalEventListener(fallbackExecution = true), qui s'exécutent aussitôt.
+    // Un abonné en erreur n'empêche pas les suivants ; l'événement n'est pas rejoué
+    // (les compteurs ne sont pas idempotents, leur réconciliation corrige l'écart)
+    private void dispatch(OrderEventRecord record) {
+        OrderEventDTO event = toEvent(record);
+        for (OrderReadModel model : readModels) {
+            String name = model.getReadModelName();
+            if (record.getPosition() <= checkpoints.get(name)) {
+                continue; // déjà inclus dans l'état reconstruit au démarrage
+            }
+            try {
+                model.apply(event);
+            } catch (RuntimeException e) {
+                System.out.println("Événement " + record.getId() + " (commande " + record.getOrderId()
+                        + ") non traité par " + name + ": " + e.getMessage());
+            }
+            checkpoints.put(name, record.getPosition());
+        }
+        try {
+            eventPublisher.publishEvent(event);
+        } catch (RuntimeException e) {
+            System.out.println("Événement " + record.getId() + " (commande " + record.getOrderId()
+                    + ") non traité par un abonné: " + e.getMessage());
+        }
+    }
+
+    private OrderEventDTO toEvent(OrderEventRecord record) {
+        OrderEventDTO event = new OrderEventDTO(record.getType(), record.getOrderId(), record.getClientId(),
+                record.getPreviousStatus(), record.getStatus(), record.getTotalCents());
+        event.setEventId(record.getId());
+        event.setPosition(record.getPosition());
+        event.setTimestamp(record.getCreatedAt());
+        event.setActor(record.getActor());
+        return event;
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.backend_darkitchen.Service;
+
+import com.example.backend_darkitchen.dto.OrderEventDTO;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Diffusion des événements de commande en Server-Sent Events pour les écrans
+ * cuisinier / livreur / admin. Les connexions sont gérées en mode asynchrone
+ * par le conteneur (aucun thread bloqué par abonné) ; un seul thread d'envoi
+ * pousse les événements dans l'ordre à tous les abonnés.
+ *
+ * L'id SSE d'un événement est sa position dans le journal (OrderEventLog) :
+ * durable et croissante d'un redémarrage à l'autre. Un abonné qui se
+ * reconnecte avec Last-Event-ID reçoit les événements manqués relus dans le
+ * journal, ou RESYNC s'ils ne peuvent plus être rejoués.
+ */
+@Service
+public class OrderEventService {
+
+    // Au-delà, le client recharge ses listes plutôt que de recevoir le rattrapage
+    private static final int MAX_REPLAY = 500;
+    private static final long EMITTER_TIMEOUT_MS = 30 * 60 * 1000L;
+
+    @Autowired
+    private OrderEventLog orderEventLog;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "order-events-sse");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Remis par le relais du journal (OrderEventLog), dans l'ordre des positions
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderEvent(OrderEventDTO event) {
+        dispatcher.execute(() -> {
+            for (Subscriber subscriber : subscribers) {
+                // Déjà envoyé lors du rattrapage de cet abonné
+                if (event.getPosition() > subscriber.sentUpTo) {
+                    send(subscriber, event);
+                }
+            }
+        });
+    }
+
+    // Nouvel abonné, avec rejeu depuis le journal des événements après lastEventId.
+    // Le rattrapage passe par le thread d'envoi : tout événement diffusé avant lui a déjà
+    // une position en base, il est donc relu ici ; ceux diffusés après sont filtrés par sentUpTo
+    public SseEmitter subscribe(Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        dispatcher.execute(() -> {
+            try {
+                if (lastEventId != null) {
+                    catchUp(subscriber, lastEventId);
+                }
+                subscribers.add(subscriber);
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+            } catch (RuntimeException e) {
+                System.out.println("Rattrapage du flux impossible: " + e.getMessage());
+                emitter.completeWithError(e);
+            }
+        });
+        return emitter;
+    }
+
+    // Commentaire SSE périodique pour garder les connexions ouvertes derrière les proxys
+    @Scheduled(fixedDelay = 25000)
+    public void heartbeat() {
+        dispatcher.execute(() -> {
+            for (Subscriber subscriber : subscribers) {
+                try {
+                    subscriber.emitter.send(SseEmitter.event().comment("ping"));
+                } catch (IOException | IllegalStateException e) {
+                    subscribers.remove(subscriber);
+                }
+            }
+        });
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+    }
+
+    // Sur le thread d'envoi
+    private void catchUp(Subscriber subscriber, long lastEventId) throws IOException {
+        List<OrderEventDTO> missed = orderEventLog.readAfter(lastEventId, MAX_REPLAY + 1);
+        // Trop d'événements manqués, ou les premiers ont été purgés du journal : tout recharger
+        if (missed.size() > MAX_REPLAY
+                || (!missed.isEmpty() && missed.get(0).getPosition() > lastEventId + 1)) {
+            subscriber.emitter.send(SseEmitter.event().name("RESYNC").data("{}", MediaType.APPLICATION_JSON));
+            return;
+        }
+        for (OrderEventDTO event : missed) {
+            subscriber.emitter.send(toSseEvent(event));
+            subscriber.sentUpTo = event.getPosition();
+        }
+    }
+
+    private void send(Subscriber subscriber, OrderEventDTO event) {
+        try {
+            subscriber.emitter.send(toSseEvent(event));
+            subscriber.sentUpTo = event.getPosition();
+        } catch (IOException | IllegalStateException e) {
+            // Client déconnecté
+            subscribers.remove(subscriber);
+        }
+    }
+
+    private SseEmitter.SseEventBuilder toSseEvent(OrderEventDTO event) {
+        return SseEmitter.event()
+                .id(String.valueOf(event.getPosition()))
+                .name(event.getType())
+                .data(event, MediaType.APPLICATION_JSON);
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        // Position du dernier événement envoyé ; lu et modifié sur le seul thread d'envoi
+        private long sentUpTo;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+}
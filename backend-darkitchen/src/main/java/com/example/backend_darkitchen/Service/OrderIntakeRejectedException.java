@@ -0,0 +1,22 @@
+package com.example.backend_darkitchen.Service;
+
+// File d'entrée des commandes pleine (overloaded = true, 429) ou fermée (503)
+public class OrderIntakeRejectedException extends RuntimeException {
+
+    private final boolean overloaded;
+    private final int retryAfterSeconds;
+
+    public OrderIntakeRejectedException(String message, boolean overloaded, int retryAfterSeconds) {
+        super(message);
+        this.overloaded = overloaded;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public boolean isOverloaded() {
+        return overloaded;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,241 @@
+package com.example.backend_darkitchen.Service;
+
+import com.example.backend_darkitchen.dto.OrderIntakeStatusDTO;
+import com.example.backend_darkitchen.dto.OrderRequestDTO;
+import com.example.backend_darkitchen.entity.Order;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Prise de commande asynchrone : la requête est validée contre le menu en
+ * mémoire puis déposée dans une file bornée, et le client reçoit aussitôt une
+ * référence (202). Quelques écrivains vident la file par lots, un lot par
+ * transaction (un seul commit pour plusieurs commandes). File pleine : refus
+ * explicite (429) plutôt qu'une attente sur un thread Tomcat.
+ */
+@Service
+public class OrderIntakeService {
+
+    private final OrderService orderService;
+    private final OrderRequestValidator orderRequestValidator;
+    private final TransactionTemplate transactionTemplate;
+
+    private final BlockingQueue<PendingOrder> queue;
+    private final int writerCount;
+    private final int maxBatchSize;
+    private final ExecutorService writers;
+    private volatile boolean accepting = true;
+
+    // État de chaque référence et client qui l'a soumise, conservés pendant status-ttl-minutes
+    private final Cache<String, TrackedStatus> statuses;
+
+    private final Counter rejectedFull;
+    private final Counter failed;
+    private final DistributionSummary batchSizes;
+    private final Timer intakeLatency;
+
+    public OrderIntakeService(OrderService orderService, OrderRequestValidator orderRequestValidator,
+                              PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                              @Value("${orders.intake.capacity:1000}") int capacity,
+                              @Value("${orders.intake.writers:2}") int writerCount,
+                              @Value("${orders.intake.max-batch-size:50}") int maxBatchSize,
+                              @Value("${orders.intake.status-ttl-minutes:60}") long statusTtlMinutes) {
+        this.orderService = orderService;
+        this.orderRequestValidator = orderRequestValidator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.writerCount = writerCount;
+        this.maxBatchSize = maxBatchSize;
+        this.statuses = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(statusTtlMinutes))
+                .build();
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.writers = Executors.newFixedThreadPool(writerCount, r -> {
+            Thread thread = new Thread(r, "order-intake-writer-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.rejectedFull = Counter.builder("orders.intake.rejected").tag("reason", "full").register(meterRegistry);
+        this.failed = Counter.builder("orders.intake.failed").register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("orders.intake.batch.size").register(meterRegistry);
+        this.intakeLatency = Timer.builder("orders.intake.latency")
+                .description("Délai entre l'acceptation (202) et le commit de la commande")
+                .register(meterRegistry);
+        Gauge.builder("orders.intake.queue", queue, BlockingQueue::size).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startWriters() {
+        for (int i = 0; i < writerCount; i++) {
+            writers.execute(this::drainLoop);
+        }
+    }
+
+    // Validation contre le menu en mémoire (mêmes règles que createOrder) puis mise en file ;
+    // aucune requête en base ici
+    public OrderIntakeStatusDTO submit(OrderRequestDTO request, Long clientId) {
+        orderRequestValidator.validate(request);
+        if (!accepting) {
+            throw new OrderIntakeRejectedException("Prise de commande momentanément indisponible", false, 30);
+        }
+
+        String reference = UUID.randomUUID().toString();
+        OrderIntakeStatusDTO status = new OrderIntakeStatusDTO(reference, OrderIntakeStatusDTO.PENDING,
+                null, null, LocalDateTime.now());
+        statuses.put(reference, new TrackedStatus(clientId, status));
+
+        if (!queue.offer(new PendingOrder(reference, request, clientId, System.nanoTime()))) {
+            statuses.invalidate(reference);
+            rejectedFull.increment();
+            throw new OrderIntakeRejectedException("Trop de commandes en attente, réessayez dans quelques secondes", true, 2);
+        }
+        return status;
+    }
+
+    // null si la référence est inconnue, expirée ou soumise par un autre compte :
+    // la référence seule ne suffit pas à lire l'état d'une commande
+    public OrderIntakeStatusDTO getStatus(String reference, AuthenticatedAccount account) {
+        TrackedStatus tracked = statuses.getIfPresent(reference);
+        if (tracked == null || !account.isClient() || !tracked.clientId.equals(account.getId())) {
+            return null;
+        }
+        return tracked.status;
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    private void drainLoop() {
+        List<PendingOrder> batch = new ArrayList<>(maxBatchSize);
+        while (true) {
+            try {
+                PendingOrder first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    if (!accepting) {
+                        return;
+                    }
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                System.out.println("Erreur de l'écrivain de commandes: " + e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Un seul commit pour tout le lot ; si une commande le fait échouer,
+    // le lot est rejoué commande par commande pour isoler la fautive
+    private void writeBatch(List<PendingOrder> batch) {
+        batchSizes.record(batch.size());
+        List<Order> created;
+        try {
+            created = transactionTemplate.execute(tx -> {
+                List<Order> orders = new ArrayList<>(batch.size());
+                for (PendingOrder pending : batch) {
+                    orders.add(orderService.createOrder(pending.request, pending.clientId));
+                }
+                return orders;
+            });
+        } catch (RuntimeException batchError) {
+            for (PendingOrder pending : batch) {
+                try {
+                    Order order = transactionTemplate.execute(tx -> orderService.createOrder(pending.request, pending.clientId));
+                    markCreated(pending, order);
+                } catch (RuntimeException e) {
+                    markFailed(pending, e);
+                }
+            }
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            markCreated(batch.get(i), created.get(i));
+        }
+    }
+
+    private void markCreated(PendingOrder pending, Order order) {
+        intakeLatency.record(System.nanoTime() - pending.acceptedAtNanos, TimeUnit.NANOSECONDS);
+        statuses.put(pending.reference, new TrackedStatus(pending.clientId, new OrderIntakeStatusDTO(pending.reference,
+                OrderIntakeStatusDTO.CREATED, order.getId(), "Commande créée avec succès", acceptedAt(pending))));
+    }
+
+    private void markFailed(PendingOrder pending, RuntimeException error) {
+        failed.increment();
+        statuses.put(pending.reference, new TrackedStatus(pending.clientId, new OrderIntakeStatusDTO(pending.reference,
+                OrderIntakeStatusDTO.FAILED, null, error.getMessage(), acceptedAt(pending))));
+    }
+
+    private LocalDateTime acceptedAt(PendingOrder pending) {
+        TrackedStatus previous = statuses.getIfPresent(pending.reference);
+        return previous != null ? previous.status.getAcceptedAt() : LocalDateTime.now();
+    }
+
+    // Arrêt : plus de nouvelles commandes (503), les écrivains vident la file avant de s'arrêter
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        accepting = false;
+        writers.shutdown();
+        if (!writers.awaitTermination(30, TimeUnit.SECONDS)) {
+            System.out.println("Arrêt: " + queue.size() + " commande(s) en file non écrite(s)");
+            writers.shutdownNow();
+        }
+    }
+
+    private static final class TrackedStatus {
+        private final Long clientId;
+        private final OrderIntakeStatusDTO status;
+
+        private TrackedStatus(Long clientId, OrderIntakeStatusDTO status) {
+            this.clientId = clientId;
+            this.status = status;
+        }
+    }
+
+    private static final class PendingOrder {
+        private final String reference;
+        private final OrderRequestDTO request;
+        // Client du jeton, résolu à la réception de la requête
+        private final Long clientId;
+        private final long acceptedAtNanos;
+
+        private PendingOrder(String reference, OrderRequestDTO request, Long clientId, long acceptedAtNanos) {
+            this.reference = reference;
+            this.request = request;
+            this.clientId = clientId;
+            this.acceptedAtNanos = acceptedAtNanos;
+        }
+    }
+}
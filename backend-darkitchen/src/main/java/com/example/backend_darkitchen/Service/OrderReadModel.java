@@ -0,0 +1,29 @@
+package com.example.backend_darkitchen.Service;
+
+import com.example.backend_darkitchen.dto.OrderEventDTO;
+
+/**
+ * Modèle de lecture alimenté par le journal order_events (OrderEventLog).
+ * Le relais l'appelle sur son unique thread, dans l'ordre des positions, et
+ * ne lui remet jamais deux fois le même événement.
+ *
+ * Au démarrage, avant l'ouverture du serveur web : restore() depuis le
+ * dernier instantané puis rejeu du journal au-delà de sa position, ou
+ * rebuild() depuis la base quand il n'y a pas d'instantané utilisable.
+ */
+public interface OrderReadModel {
+
+    // Clé de l'instantané (table order_read_models)
+    String getReadModelName();
+
+    // État sérialisé, ou null si le modèle se reconstruit toujours depuis la base
+    String snapshot();
+
+    // Repart d'un instantané ; false s'il est illisible (le modèle sera reconstruit)
+    boolean restore(String state);
+
+    // Reconstruit l'état depuis les tables (agrégats sur index), sans le journal
+    void rebuild();
+
+    void apply(OrderEventDTO event);
+}
@@ -0,0 +1,40 @@
+package com.example.backend_darkitchen.Service;
+
+import com.example.backend_darkitchen.dto.OrderItemDTO;
+import com.example.backend_darkitchen.dto.OrderRequestDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Règles d'une demande de commande, communes à la création directe
+ * (OrderService.createOrder) et à la prise asynchrone (OrderIntakeService) :
+ * une demande acceptée en 202 ne peut pas être refusée ensuite pour une règle
+ * que l'autre chemin n'appliquait pas. Contrôle contre le menu en mémoire,
+ * aucune requête.
+ */
+@Component
+public class OrderRequestValidator {
+
+    @Autowired
+    private MenuCacheService menuCacheService;
+
+    // Menu utilisé pour la validation, à réutiliser pour les prix : plats et prix viennent du même instantané
+    public MenuSnapshot validate(OrderRequestDTO request) {
+        if (request == null || request.getClientInfo() == null) {
+            throw new RuntimeException("Informations de livraison manquantes");
+        }
+        if (request.getItems() == null || request.getItems().isEmpty()) {
+            throw new RuntimeException("La commande ne contient aucun plat");
+        }
+        MenuSnapshot menu = menuCacheService.current();
+        for (OrderItemDTO item : request.getItems()) {
+            if (item.getDishId() == null || menu.getDish(item.getDishId()) == null) {
+                throw new RuntimeException("Plat non trouvé: " + item.getDishId());
+            }
+            if (item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new RuntimeException("Quantité invalide pour le plat " + item.getDishId());
+            }
+        }
+        return menu;
+    }
+}
@@ -1,12 +1,17 @@
 package com.example.backend_darkitchen.Service;
 
 import com.example.backend_darkitchen.dto.OrderRequestDTO;
-import com.example.backend_darkitchen.dto.ClientInfoDTO;
 import com.example.backend_darkitchen.dto.OrderResponseDTO;
 import com.example.backend_darkitchen.dto.OrderItemResponseDTO;
+import com.example.backend_darkitchen.dto.OrderEventDTO;
+import com.example.backend_darkitchen.dto.OrderPageDTO;
+import com.example.backend_darkitchen.dto.DishDTO;
 import com.example.backend_darkitchen.entity.*;
 import com.example.backend_darkitchen.Repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,133 +28,120 @@ public class OrderService {
     @Autowired
     private ClientRepository clientRepository;
     
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+    
     @Autowired
     private DishRepository dishRepository;
     
     @Autowired
-    private OrderItemRepository orderItemRepository;
+    private OrderEventLog orderEventLog;
+    
+    @Value("${orders.page.default-size:50}")
+    private int defaultPageSize;
+    
+    @Value("${orders.page.max-size:200}")
+    private int maxPageSize;
+    
+    @Autowired
+    private OrderStatsService orderStatsService;
+    
+    @Autowired
+    private MenuCacheService menuCacheService;
+    
+    @Autowired
+    private OrderRequestValidator orderRequestValidator;
     
+    @Autowired
+    private PasswordService passwordService;
+    
+    @Autowired
+    private EmailRegistry emailRegistry;
+    
+    // Annulation possible par le client tant que la commande n'a pas quitté la cuisine
+    private static final Set<OrderStatus> CLIENT_CANCELLABLE =
+            EnumSet.of(OrderStatus.EN_ATTENTE, OrderStatus.EN_PREPARATION);
+    
+    // Le client est celui du jeton (clientId) ; clientInfo ne fournit que l'adresse et le téléphone de livraison
     @Transactional
-    public Order createOrder(OrderRequestDTO orderRequest) {
-        // 1. Gérer l'authentification client
-        Client client = handleClientAuthentication(orderRequest.getClientInfo());
+    public Order createOrder(OrderRequestDTO orderRequest, Long clientId) {
+        // 1. Client authentifié : simple référence, l'identifiant vient d'un jeton signé
+        if (clientId == null) {
+            throw new RuntimeException("Client non authentifié");
+        }
+        // Mêmes règles que la prise asynchrone ; plats et prix lus dans le menu en mémoire (aucune requête),
+        // les prix et le total envoyés par le client sont ignorés
+        MenuSnapshot menu = orderRequestValidator.validate(orderRequest);
         
         // 2. Créer la commande
         Order order = new Order();
-        order.setClient(client);
+        order.setClient(clientRepository.getReferenceById(clientId));
         order.setDeliveryAddress(orderRequest.getClientInfo().getDeliveryAddress());
         order.setPhoneNumber(orderRequest.getClientInfo().getPhoneNumber());
         order.setNotes(orderRequest.getNotes());
-        order.setTotalAmount(orderRequest.getTotalAmount());
-        order.setStatus("EN_ATTENTE");
+        order.setStatus(OrderStatus.EN_ATTENTE);
         
-        // Sauvegarder la commande d'abord pour avoir un ID
-        order = orderRepository.save(order);
-        
-        // 3. Ajouter les items
+        // 3. Ajouter les items (insérés en batch par cascade à la sauvegarde)
         for (var itemDTO : orderRequest.getItems()) {
-            Dish dish = dishRepository.findById(itemDTO.getDishId())
-                .orElseThrow(() -> new RuntimeException("Plat non trouvé: " + itemDTO.getDishId()));
+            DishDTO dish = menu.getDish(itemDTO.getDishId());
             
             OrderItem orderItem = new OrderItem();
-            orderItem.setOrder(order);
-            orderItem.setDish(dish);
+            orderItem.setDishReference(dishRepository.getReferenceById(dish.getId()), dish.getName());
             orderItem.setQuantity(itemDTO.getQuantity());
-            orderItem.setPrice(itemDTO.getPrice());
-            orderItem.setDishName(dish.getName());
+            orderItem.setUnitPriceCents(menu.getPriceCents(dish.getId()));
             
             order.addItem(orderItem);
-            orderItemRepository.save(orderItem);
         }
         
-        // 4. Recalculer et sauvegarder le total
+        // 4. Sous-totaux et total calculés une fois en centimes, puis une seule écriture
         order.calculateTotal();
-        return orderRepository.save(order);
+        Order savedOrder = orderRepository.save(order);
+        
+        publishEvent(OrderEventDTO.ORDER_CREATED, savedOrder, null);
+        return savedOrder;
     }
     
-    private Client handleClientAuthentication(ClientInfoDTO clientInfo) {
-        // Vérifier si l'email existe déjà
-        Optional<Client> existingClient = clientRepository.findByEmail(clientInfo.getEmail());
-        
-        if (existingClient.isPresent()) {
-            // Client existe - le retourner
-            return existingClient.get();
-        }
-        
-        // Créer un nouveau client
-        Client newClient = new Client();
-        String[] names = clientInfo.getFullName().split(" ", 2);
-        newClient.setFirstName(names.length > 0 ? names[0] : clientInfo.getFullName());
-        newClient.setLastName(names.length > 1 ? names[1] : "");
-        newClient.setEmail(clientInfo.getEmail());
-        newClient.setPhoneNumber(clientInfo.getPhoneNumber());
-        newClient.setAddress(clientInfo.getDeliveryAddress());
-        
-        // Générer un mot de passe temporaire si non fourni
-        String password = clientInfo.getPassword() != null && !clientInfo.getPassword().isEmpty() ? 
-            clientInfo.getPassword() : 
-            generateTemporaryPassword();
-        
-        newClient.setPassword(password);
-        newClient.setRegistrationDate(LocalDateTime.now());
-        newClient.setActive(true);
-        
-        return clientRepository.save(newClient);
+    // Commande passée par ce client (contrôle d'accès des clients ; le personnel n'en a pas besoin)
+    public boolean isClientOrder(Long orderId, Long clientId) {
+        return orderRepository.existsByIdAndClientId(orderId, clientId);
     }
     
     public boolean checkClientExists(String email) {
-        return clientRepository.findByEmail(email).isPresent();
+        return emailRegistry.clientEmailExists(email);
     }
     
     public Client authenticateClient(String email, String password) {
         Optional<Client> client = clientRepository.findByEmail(email);
-        if (client.isPresent() && client.get().getPassword().equals(password)) {
+        if (client.isPresent() && passwordService.matches(password, client.get().getPassword())) {
+            // Ancien mot de passe en clair : re-haché à la première connexion réussie
+            if (passwordService.needsUpgrade(client.get().getPassword())) {
+                client.get().setPassword(passwordService.hash(password));
+                clientRepository.save(client.get());
+            }
             return client.get();
         }
         return null;
     }
     
-    // Récupérer les commandes d'un client
-    public List<OrderResponseDTO> getClientOrders(Long clientId, String status, String startDate, String endDate, String sortBy) {
+    // Récupérer les commandes d'un client (paginées par curseur)
+    public OrderPageDTO getClientOrders(Long clientId, String status, String startDate, String endDate,
+                                        String sortBy, String cursor, Integer size) {
         try {
             // Vérifier si le client existe
             if (!clientRepository.existsById(clientId)) {
                 throw new RuntimeException("Client non trouvé avec l'ID: " + clientId);
             }
             
-            // Récupérer les commandes
-            List<Order> orders;
-            if (sortBy != null && sortBy.equals("createdAt_asc")) {
-                orders = orderRepository.findByClientIdOrderByOrderDateAsc(clientId);
-            } else {
-                orders = orderRepository.findByClientIdOrderByOrderDateDesc(clientId);
-            }
-            
             // Filtrer par statut si spécifié
+            OrderStatus statusFilter = null;
             if (status != null && !status.isEmpty() && !status.equals("TOUS")) {
-                String convertedStatus = convertStatus(status);
-                orders = orders.stream()
-                    .filter(order -> order.getStatus().equalsIgnoreCase(convertedStatus))
-                    .collect(Collectors.toList());
-            }
-            
-            // Convertir en DTO
-            List<OrderResponseDTO> orderDTOs = new ArrayList<>();
-            for (Order order : orders) {
-                OrderResponseDTO dto = convertToResponseDTO(order);
-                orderDTOs.add(dto);
+                statusFilter = OrderStatus.parse(status);
             }
             
-            // Trier par montant si demandé
-            if (sortBy != null) {
-                if (sortBy.equals("total_desc")) {
-                    orderDTOs.sort((o1, o2) -> o2.getTotalAmount().compareTo(o1.getTotalAmount()));
-                } else if (sortBy.equals("total_asc")) {
-                    orderDTOs.sort((o1, o2) -> o1.getTotalAmount().compareTo(o2.getTotalAmount()));
-                }
-            }
+            // Tri fait en base (date de création ou montant), sur toutes les pages
+            OrderPageDTO page = getOrdersPage(statusFilter, clientId, cursor, size, sortBy);
             
-            return orderDTOs;
+            return page;
             
         } catch (Exception e) {
             e.printStackTrace();
@@ -157,13 +149,10 @@ public class OrderService {
         }
     }
     
-    // Récupérer une commande par ID
+    // Récupérer une commande par ID (deux requêtes projetées, sans charger les entités)
     public OrderResponseDTO getOrderById(Long orderId) {
         try {
-            Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new RuntimeException("Commande non trouvée avec l'ID: " + orderId));
-            
-            return convertToResponseDTO(order);
+            return loadOrderView(orderId);
             
         } catch (Exception e) {
             e.printStackTrace();
@@ -171,42 +160,35 @@ public class OrderService {
         }
     }
     
-    // Annuler une commande
+    // Annuler une commande : un seul UPDATE conditionnel sur les statuts annulables,
+    // sans lecture préalable de la commande
     @Transactional
     public OrderResponseDTO cancelOrder(Long orderId, String reason) {
-        try {
-            Order order = orderRepository.findById(orderId)
+        String reasonLine = reason != null && !reason.trim().isEmpty()
+                ? "Annulée le " + LocalDateTime.now() + " - Raison: " + reason
+                : null;
+        
+        if (orderRepository.cancelIfStatus(orderId, CLIENT_CANCELLABLE, reasonLine, "\n") == 1) {
+            OrderResponseDTO view = loadTransitionView(orderId);
+            return publishEvent(OrderEventDTO.ORDER_CANCELLED, view, view.getPreviousStatus());
+        }
+        
+        // Aucune ligne modifiée : commande absente, déjà annulée, ou plus annulable
+        OrderStatus current = orderRepository.findStatusById(orderId)
                 .orElseThrow(() -> new RuntimeException("Commande non trouvée avec l'ID: " + orderId));
-            
-            // Vérifier si la commande peut être annulée
-            if (!order.getStatus().equals("EN_ATTENTE") && !order.getStatus().equals("EN_PREPARATION")) {
-                throw new RuntimeException("Seules les commandes 'EN_ATTENTE' ou 'EN_PREPARATION' peuvent être annulées");
-            }
-            
-            // Annuler la commande
-            order.setStatus("ANNULEE");
-            
-            // Ajouter la raison dans les notes
-            if (reason != null && !reason.trim().isEmpty()) {
-                String currentNotes = order.getNotes() != null ? order.getNotes() : "";
-                order.setNotes(currentNotes + (currentNotes.isEmpty() ? "" : "\n") + 
-                              "Annulée le " + LocalDateTime.now() + " - Raison: " + reason);
-            }
-            
-            Order cancelledOrder = orderRepository.save(order);
-            return convertToResponseDTO(cancelledOrder);
-            
-        } catch (Exception e) {
-            e.printStackTrace();
-            throw new RuntimeException("Erreur lors de l'annulation de la commande: " + e.getMessage(), e);
+        if (current == OrderStatus.ANNULEE) {
+            return loadOrderView(orderId);
         }
+        throw new OrderConflictException(orderId, current,
+                "Seules les commandes 'EN_ATTENTE' ou 'EN_PREPARATION' peuvent être annulées (statut actuel: " + current + ")");
     }
     
     // Commander à nouveau
     @Transactional
     public OrderResponseDTO reorder(Long orderId) {
         try {
-            Order originalOrder = orderRepository.findById(orderId)
+            // Commande et lignes en une requête ; plats et client ne sont référencés que par leur id
+            Order originalOrder = orderRepository.findWithItemsById(orderId)
                 .orElseThrow(() -> new RuntimeException("Commande non trouvée avec l'ID: " + orderId));
             
             // Créer une nouvelle commande basée sur l'originale
@@ -215,18 +197,21 @@ public class OrderService {
             newOrder.setDeliveryAddress(originalOrder.getDeliveryAddress());
             newOrder.setPhoneNumber(originalOrder.getPhoneNumber());
             newOrder.setNotes("Commande recréée à partir de la commande #" + orderId);
-            newOrder.setStatus("EN_ATTENTE");
+            newOrder.setStatus(OrderStatus.EN_ATTENTE);
             
-            // Copier les items
+            // Copier les items, au prix actuel du menu
+            MenuSnapshot menu = menuCacheService.current();
             for (OrderItem originalItem : originalOrder.getItems()) {
-                Dish dish = dishRepository.findById(originalItem.getDish().getId())
-                    .orElseThrow(() -> new RuntimeException("Plat non trouvé: " + originalItem.getDish().getId()));
+                Long dishId = originalItem.getDish().getId();
+                DishDTO dish = menu.getDish(dishId);
+                if (dish == null) {
+                    throw new RuntimeException("Plat non trouvé: " + dishId);
+                }
                 
                 OrderItem newItem = new OrderItem();
-                newItem.setDish(dish);
+                newItem.setDishReference(dishRepository.getReferenceById(dishId), dish.getName());
                 newItem.setQuantity(originalItem.getQuantity());
-                newItem.setPrice(dish.getPrice());
-                newItem.setDishName(dish.getName());
+                newItem.setUnitPriceCents(menu.getPriceCents(dishId));
                 newOrder.addItem(newItem);
             }
             
@@ -235,6 +220,7 @@ public class OrderService {
             
             // Sauvegarder la nouvelle commande
             Order savedOrder = orderRepository.save(newOrder);
+            publishEvent(OrderEventDTO.ORDER_CREATED, savedOrder, null);
             return convertToResponseDTO(savedOrder);
             
         } catch (Exception e) {
@@ -245,90 +231,192 @@ public class OrderService {
     
     // === NOUVELLES MÉTHODES POUR L'ADMIN/CUISINIER/LIVREUR ===
     
-    // 1. Obtenir toutes les commandes (pour admin)
-    public List<OrderResponseDTO> getAllOrders() {
-        List<Order> orders = orderRepository.findAllByOrderByOrderDateDesc();
-        return orders.stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
+    // 1. Page de commandes (admin, filtres par statut / client)
+    // Toujours 2 requêtes : les commandes projetées en DTO, puis leurs items
+    // sortBy : createdAt_desc (défaut), createdAt_asc, total_desc, total_asc.
+    // Curseur = id de la dernière ligne, précédé de son montant en centimes pour les tris par montant
+    public OrderPageDTO getOrdersPage(OrderStatus status, Long clientId, String cursor, Integer size, String sortBy) {
+        int pageSize = size == null || size <= 0 ? defaultPageSize : Math.min(size, maxPageSize);
+        boolean byTotal = "total_desc".equals(sortBy) || "total_asc".equals(sortBy);
+        boolean ascending = "createdAt_asc".equals(sortBy) || "total_asc".equals(sortBy);
+        
+        Long cursorTotal = null;
+        Long cursorId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            try {
+                String decoded = new String(Base64.getUrlDecoder().decode(cursor));
+                if (byTotal) {
+                    String[] parts = decoded.split("_", 2);
+                    cursorTotal = Long.parseLong(parts[0]);
+                    cursorId = Long.parseLong(parts[1]);
+                } else {
+                    cursorId = Long.parseLong(decoded);
+                }
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Curseur de pagination invalide");
+            }
+        }
+        
+        // Une ligne de plus que demandé pour savoir s'il reste une page
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<OrderResponseDTO> orders;
+        if (byTotal) {
+            orders = ascending
+                    ? orderRepository.findOrderViewsByTotalAsc(status, clientId, cursorTotal, cursorId, limit)
+                    : orderRepository.findOrderViewsByTotalDesc(status, clientId, cursorTotal, cursorId, limit);
+        } else {
+            orders = ascending
+                    ? orderRepository.findOrderViewsAsc(status, clientId, cursorId, limit)
+                    : orderRepository.findOrderViewsDesc(status, clientId, cursorId, limit);
+        }
+        
+        boolean hasMore = orders.size() > pageSize;
+        if (hasMore) {
+            orders = new ArrayList<>(orders.subList(0, pageSize));
+        }
+        attachItems(orders);
+        
+        String nextCursor = null;
+        if (hasMore) {
+            OrderResponseDTO last = orders.get(orders.size() - 1);
+            // totalAmount = totalCents / 100 : l'arrondi redonne exactement les centimes
+            String key = byTotal
+                    ? Math.round(last.getTotalAmount() * 100) + "_" + last.getOrderId()
+                    : String.valueOf(last.getOrderId());
+            nextCursor = Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes());
+        }
+        return new OrderPageDTO(orders, nextCursor, hasMore);
     }
     
     // 2. Mettre à jour le statut (pour admin/cuisinier/livreur)
+    // Un seul UPDATE conditionnel sur tous les statuts de départ possibles, sans SELECT préalable ;
+    // le nombre de lignes modifiées décide du résultat.
+    // expectedStatus (facultatif) : le statut affiché chez l'appelant, seul point de départ accepté
     @Transactional
-    public OrderResponseDTO updateOrderStatus(Long orderId, String newStatus, String updatedBy) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new RuntimeException("Commande non trouvée"));
-        
-        // Validation simple
-        if (order.getStatus().equals("LIVREE") || order.getStatus().equals("ANNULEE")) {
-            throw new RuntimeException("Impossible de modifier une commande terminée");
+    public OrderResponseDTO updateOrderStatus(Long orderId, OrderStatus newStatus, OrderStatus expectedStatus,
+                                              String updatedBy) {
+        Set<OrderStatus> candidates = EnumSet.noneOf(OrderStatus.class);
+        for (OrderStatus from : expectedStatus != null ? EnumSet.of(expectedStatus) : newStatus.previousStatuses()) {
+            if (from.canTransitionTo(newStatus)) {
+                candidates.add(from);
+            }
         }
         
-        // Mettre à jour le statut
-        order.setStatus(newStatus);
-        order.setOrderDate(LocalDateTime.now());
+        if (!candidates.isEmpty()
+                && orderRepository.transitionStatus(orderId, candidates, newStatus, LocalDateTime.now()) == 1) {
+            OrderResponseDTO view = loadTransitionView(orderId);
+            return publishEvent(OrderEventDTO.STATUS_CHANGED, view, view.getPreviousStatus(),
+                    StaffActivityService.normalizeActor(updatedBy));
+        }
         
-        Order savedOrder = orderRepository.save(order);
-        return convertToResponseDTO(savedOrder);
+        // Aucune ligne modifiée : on lit le statut actuel pour expliquer le refus
+        OrderStatus current = orderRepository.findStatusById(orderId)
+                .orElseThrow(() -> new RuntimeException("Commande non trouvée"));
+        // Même statut renvoyé (double clic, nouvel essai) : rien à faire
+        if (current == newStatus) {
+            return loadOrderView(orderId);
+        }
+        if (expectedStatus != null && current != expectedStatus) {
+            throw new OrderConflictException(orderId, current,
+                    "La commande est passée au statut " + current + " entre-temps");
+        }
+        if (current.isFinal()) {
+            throw new RuntimeException("Impossible de modifier une commande terminée");
+        }
+        if (!current.canTransitionTo(newStatus)) {
+            throw new RuntimeException("Transition de statut interdite: " + current + " -> " + newStatus
+                    + " (possibles: " + current.nextStatuses() + ")");
+        }
+        // Transition valide depuis le statut actuel : il a changé juste après notre écriture
+        throw new OrderConflictException(orderId, current,
+                "La commande a été modifiée en même temps, veuillez réessayer");
     }
     
-    // 3. Obtenir les commandes par statut (pour filtres)
-    public List<OrderResponseDTO> getOrdersByStatus(String status) {
-        List<Order> orders = orderRepository.findByStatusOrderByOrderDateDesc(status);
-        return orders.stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
+    // 3. Toutes les commandes d'un statut (écrans cuisinier / livreur)
+    public List<OrderResponseDTO> getOrdersByStatus(OrderStatus status) {
+        List<OrderResponseDTO> orders = orderRepository.findOrderViewsDesc(status, null, null, Pageable.unpaged());
+        attachItems(orders);
+        return orders;
     }
     
-    // 4. Statistiques simples (pour dashboard)
+    // 4. Statistiques simples (pour dashboard) - servies par les compteurs en mémoire
     public Map<String, Object> getSimpleStats() {
         Map<String, Object> stats = new HashMap<>();
         
-        List<Order> allOrders = orderRepository.findAll();
-        
-        // Comptes par statut (simplifié)
-        stats.put("totalOrders", allOrders.size());
-        stats.put("enAttente", countByStatus(allOrders, "EN_ATTENTE"));
-        stats.put("enPreparation", countByStatus(allOrders, "EN_PREPARATION"));
-        stats.put("pret", countByStatus(allOrders, "PRET"));
-        stats.put("enLivraison", countByStatus(allOrders, "EN_LIVRAISON"));
-        stats.put("livree", countByStatus(allOrders, "LIVREE"));
-        stats.put("annulee", countByStatus(allOrders, "ANNULEE"));
+        stats.put("totalOrders", orderStatsService.getTotalCount());
+        stats.put("enAttente", orderStatsService.getCount(OrderStatus.EN_ATTENTE));
+        stats.put("enPreparation", orderStatsService.getCount(OrderStatus.EN_PREPARATION));
+        stats.put("pret", orderStatsService.getCount(OrderStatus.PRET));
+        stats.put("enLivraison", orderStatsService.getCount(OrderStatus.EN_LIVRAISON));
+        stats.put("livree", orderStatsService.getCount(OrderStatus.LIVREE));
+        stats.put("nonLivree", orderStatsService.getCount(OrderStatus.NON_LIVREE));
+        stats.put("annulee", orderStatsService.getCount(OrderStatus.ANNULEE));
         
         // Revenu total (commandes livrées)
-        Double totalRevenue = allOrders.stream()
-                .filter(o -> "LIVREE".equals(o.getStatus()))
-                .mapToDouble(o -> o.getTotalAmount() != null ? o.getTotalAmount() : 0)
-                .sum();
-        stats.put("totalRevenue", totalRevenue);
+        stats.put("totalRevenue", orderStatsService.getDeliveredRevenue());
         
         return stats;
     }
     
+    // 5. Nombre de commandes pour un statut, sans requête en base
+    public long countOrdersByStatus(OrderStatus status) {
+        return orderStatsService.getCount(status);
+    }
+    
     // === MÉTHODES UTILITAIRES ===
     
-    private String convertStatus(String status) {
-        switch (status.toUpperCase()) {
-            case "PENDING": return "EN_ATTENTE";
-            case "CONFIRMED": return "CONFIRMÉE";
-            case "PREPARING": return "EN_PREPARATION";
-            case "READY": return "PRÊT";
-            case "ON_DELIVERY": return "EN_LIVRAISON";
-            case "DELIVERED": return "LIVRÉE";
-            case "CANCELLED": return "ANNULEE";
-            default: return status;
-        }
+    // Événement écrit au journal dans la transaction, diffusé aux abonnés après le commit.
+    // Il ne porte que les identifiants, statuts et montant : un abonné qui a besoin de la
+    // commande complète (file cuisine) la relit lui-même, hors du thread de la requête
+    private void publishEvent(String type, Order order, OrderStatus previousStatus) {
+        Long clientId = order.getClient() != null ? order.getClient().getId() : null;
+        orderEventLog.append(new OrderEventDTO(type, order.getId(), clientId, previousStatus,
+                order.getStatus(), order.getTotalCents()));
+    }
+    
+    private OrderResponseDTO publishEvent(String type, OrderResponseDTO view, OrderStatus previousStatus) {
+        return publishEvent(type, view, previousStatus, null);
     }
     
-    private String generateTemporaryPassword() {
-        return UUID.randomUUID().toString().substring(0, 8);
+    private OrderResponseDTO publishEvent(String type, OrderResponseDTO view, OrderStatus previousStatus,
+                                          String actor) {
+        OrderEventDTO event = new OrderEventDTO(type, view.getOrderId(), view.getClientId(),
+                previousStatus, view.getStatus(), view.getTotalCents());
+        event.setActor(actor);
+        orderEventLog.append(event);
+        return view;
     }
     
-    // Méthode utilitaire pour compter
-    private long countByStatus(List<Order> orders, String status) {
-        return orders.stream()
-                .filter(o -> status.equals(o.getStatus()))
-                .count();
+    // Vue d'une commande et de ses items, en deux requêtes projetées
+    private OrderResponseDTO loadOrderView(Long orderId) {
+        OrderResponseDTO view = orderRepository.findOrderViewById(orderId)
+                .orElseThrow(() -> new RuntimeException("Commande non trouvée avec l'ID: " + orderId));
+        attachItems(List.of(view));
+        return view;
+    }
+    
+    // Vue relue après une transition (une requête, sans les items) : statut de départ compris
+    private OrderResponseDTO loadTransitionView(Long orderId) {
+        return orderRepository.findTransitionViewById(orderId)
+                .orElseThrow(() -> new RuntimeException("Commande non trouvée avec l'ID: " + orderId));
+    }
+    
+    // Charge les items de toutes les commandes de la liste en une seule requête
+    private void attachItems(List<OrderResponseDTO> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        Map<Long, OrderResponseDTO> ordersById = new HashMap<>();
+        for (OrderResponseDTO order : orders) {
+            ordersById.put(order.getOrderId(), order);
+        }
+        for (OrderItemResponseDTO item : orderItemRepository.findItemViewsByOrderIds(ordersById.keySet())) {
+            OrderResponseDTO order = ordersById.get(item.getOrderId());
+            if (order.getItems() == null) {
+                order.setItems(new ArrayList<>());
+            }
+            order.getItems().add(item);
+        }
     }
     
     // Méthode principale de conversion (UNE SEULE)
@@ -366,16 +454,12 @@ public class OrderService {
         
         if (item.getDish() != null) {
             dto.setDishId(item.getDish().getId());
-            dto.setDishName(item.getDish().getName());
         }
-        
+        dto.setDishName(item.getDishName());
         dto.setQuantity(item.getQuantity());
         dto.setPrice(item.getPrice());
-        
-        // Calculer le sous-total
-        if (item.getPrice() != null && item.getQuantity() != null) {
-            dto.setSubtotal(item.getPrice() * item.getQuantity());
-        }
+        // Sous-total enregistré à la création
+        dto.setSubtotal(item.getSubtotal());
         
         return dto;
     }
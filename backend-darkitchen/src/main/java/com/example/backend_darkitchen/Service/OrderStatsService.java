@@ -0,0 +1,192 @@
+package com.example.backend_darkitchen.Service;
+
+import com.example.backend_darkitchen.dto.OrderEventDTO;
+import com.example.backend_darkitchen.entity.OrderStatus;
+import com.example.backend_darkitchen.Repository.OrderRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compteurs du dashboard maintenus en mémoire, en modèle de lecture du
+ * journal des commandes : au démarrage, avant tout événement, ils repartent
+ * de leur instantané (ou d'un GROUP BY sur la table) puis le relais leur
+ * applique chaque événement une seule fois, dans l'ordre du journal.
+ * Une vérification périodique contre la base corrige une éventuelle dérive.
+ */
+@Service
+public class OrderStatsService implements OrderReadModel {
+
+    private static final OrderStatus DELIVERED = OrderStatus.LIVREE;
+    private static final String REVENUE_KEY = "revenueCents";
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Un compteur par statut, indexé par ordinal
+    private final LongAdder[] countsByStatus = new LongAdder[OrderStatus.values().length];
+    // Chiffre d'affaires des commandes livrées, en centimes (pas de dérive flottante)
+    private final LongAdder deliveredRevenueCents = new LongAdder();
+
+    // Dérive constatée lors de la vérification précédente
+    private Map<String, Long> previousDrift = new HashMap<>();
+
+    public OrderStatsService() {
+        for (int i = 0; i < countsByStatus.length; i++) {
+            countsByStatus[i] = new LongAdder();
+        }
+    }
+
+    @Override
+    public String getReadModelName() {
+        return "orderStats";
+    }
+
+    // {"EN_ATTENTE": n, ..., "revenueCents": n}
+    @Override
+    public synchronized String snapshot() {
+        Map<String, Long> state = new LinkedHashMap<>();
+        for (OrderStatus status : OrderStatus.values()) {
+            state.put(status.name(), getCount(status));
+        }
+        state.put(REVENUE_KEY, deliveredRevenueCents.sum());
+        try {
+            return objectMapper.writeValueAsString(state);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Instantané des compteurs impossible: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized boolean restore(String state) {
+        Snapshot snapshot = new Snapshot();
+        try {
+            Map<String, Long> values = objectMapper.readValue(state, new TypeReference<Map<String, Long>>() {});
+            for (OrderStatus status : OrderStatus.values()) {
+                snapshot.counts.put(status, values.getOrDefault(status.name(), 0L));
+            }
+            snapshot.revenueCents = values.getOrDefault(REVENUE_KEY, 0L);
+        } catch (JsonProcessingException e) {
+            return false;
+        }
+        load(snapshot);
+        return true;
+    }
+
+    @Override
+    public synchronized void rebuild() {
+        load(loadSnapshot());
+        System.out.println("Compteurs de commandes initialisés: " + getTotalCount() + " commande(s)");
+    }
+
+    @Override
+    public void apply(OrderEventDTO event) {
+        long amountCents = event.getTotalCents() != null ? event.getTotalCents() : 0;
+
+        if (event.getPreviousStatus() != null) {
+            counter(event.getPreviousStatus()).decrement();
+            if (event.getPreviousStatus() == DELIVERED) {
+                deliveredRevenueCents.add(-amountCents);
+            }
+        }
+        if (event.getStatus() != null) {
+            counter(event.getStatus()).increment();
+            if (event.getStatus() == DELIVERED) {
+                deliveredRevenueCents.add(amountCents);
+            }
+        }
+    }
+
+    // Un événement en vol pendant la requête peut donner un écart transitoire :
+    // on ne corrige que si le même écart est constaté deux fois de suite
+    @Scheduled(fixedDelayString = "${orders.stats.reconcile-interval-ms:300000}",
+               initialDelayString = "${orders.stats.reconcile-interval-ms:300000}")
+    public synchronized void reconcile() {
+        Snapshot snapshot = loadSnapshot();
+
+        Map<String, Long> drift = new HashMap<>();
+        for (OrderStatus status : OrderStatus.values()) {
+            long delta = snapshot.count(status) - getCount(status);
+            if (delta != 0) drift.put(status.name(), delta);
+        }
+        long revenueDelta = snapshot.revenueCents - deliveredRevenueCents.sum();
+        if (revenueDelta != 0) drift.put(REVENUE_KEY, revenueDelta);
+
+        if (!drift.isEmpty() && drift.equals(previousDrift)) {
+            System.out.println("Dérive des compteurs corrigée: " + drift);
+            drift.forEach((key, delta) -> {
+                if (key.equals(REVENUE_KEY)) {
+                    deliveredRevenueCents.add(delta);
+                } else {
+                    counter(OrderStatus.valueOf(key)).add(delta);
+                }
+            });
+            previousDrift = new HashMap<>();
+        } else {
+            previousDrift = drift;
+        }
+    }
+
+    public long getCount(OrderStatus status) {
+        return counter(status).sum();
+    }
+
+    public long getTotalCount() {
+        long total = 0;
+        for (LongAdder adder : countsByStatus) {
+            total += adder.sum();
+        }
+        return total;
+    }
+
+    public double getDeliveredRevenue() {
+        return deliveredRevenueCents.sum() / 100.0;
+    }
+
+    private void load(Snapshot snapshot) {
+        for (OrderStatus status : OrderStatus.values()) {
+            counter(status).reset();
+            counter(status).add(snapshot.count(status));
+        }
+        deliveredRevenueCents.reset();
+        deliveredRevenueCents.add(snapshot.revenueCents);
+        previousDrift = new HashMap<>();
+    }
+
+    private LongAdder counter(OrderStatus status) {
+        return countsByStatus[status.ordinal()];
+    }
+
+    private Snapshot loadSnapshot() {
+        Snapshot snapshot = new Snapshot();
+        for (Object[] row : orderRepository.countAndSumByStatus()) {
+            OrderStatus status = (OrderStatus) row[0];
+            long count = ((Number) row[1]).longValue();
+            snapshot.counts.put(status, count);
+            if (status == DELIVERED && row[2] != null) {
+                snapshot.revenueCents = ((Number) row[2]).longValue();
+            }
+        }
+        return snapshot;
+    }
+
+    private static class Snapshot {
+        private final Map<OrderStatus, Long> counts = new EnumMap<>(OrderStatus.class);
+        private long revenueCents;
+
+        private long count(OrderStatus status) {
+            return counts.getOrDefault(status, 0L);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.backend_darkitchen.Service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.regex.Pattern;
+
+/**
+ * Mots de passe hachés en BCrypt (coût adaptatif). Les mots de passe
+ * historiques stockés en clair restent acceptés : ils sont re-hachés à la
+ * première connexion réussie (voir needsUpgrade).
+ */
+@Service
+public class PasswordService {
+
+    private static final Pattern BCRYPT = Pattern.compile("^\\$2[aby]?\\$\\d\\d\\$[./0-9A-Za-z]{53}$");
+
+    private final BCryptPasswordEncoder encoder;
+
+    public PasswordService(@Value("${auth.password.bcrypt-strength:10}") int strength) {
+        this.encoder = new BCryptPasswordEncoder(strength);
+    }
+
+    public String hash(String rawPassword) {
+        return encoder.encode(rawPassword);
+    }
+
+    public boolean matches(String rawPassword, String storedPassword) {
+        if (rawPassword == null || storedPassword == null) {
+            return false;
+        }
+        if (isHashed(storedPassword)) {
+            return encoder.matches(rawPassword, storedPassword);
+        }
+        // Ancien mot de passe en clair
+        return MessageDigest.isEqual(rawPassword.getBytes(StandardCharsets.UTF_8),
+                storedPassword.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Vrai pour un mot de passe encore en clair, ou haché avec un coût inférieur à la configuration
+    public boolean needsUpgrade(String storedPassword) {
+        return storedPassword != null && (!isHashed(storedPassword) || encoder.upgradeEncoding(storedPassword));
+    }
+
+    private static boolean isHashed(String storedPassword) {
+        return BCRYPT.matcher(storedPassword).matches();
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.backend_darkitchen.Service;
+
+import com.example.backend_darkitchen.Repository.OrderEventRecordRepository;
+import com.example.backend_darkitchen.dto.OrderEventDTO;
+import com.example.backend_darkitchen.entity.OrderStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Activité du personnel tenue en mémoire : pour chaque auteur de changement
+ * de statut (updatedBy), le nombre de commandes passées EN_PREPARATION, PRET,
+ * LIVREE... Modèle de lecture du journal order_events : l'agrégat durable
+ * est son instantané (order_read_models), repris au démarrage à sa position
+ * puis complété par les événements suivants. La purge du journal ne dépasse
+ * jamais la position de l'instantané, les totaux ne diminuent donc pas ; le
+ * GROUP BY sur l'index actor/status ne sert qu'en l'absence d'instantané.
+ */
+@Service
+public class StaffActivityService implements OrderReadModel {
+
+    private static final int MAX_ACTOR_LENGTH = 100;
+
+    @Autowired
+    private OrderEventRecordRepository orderEventRecordRepository;
+
+    // Un tableau de compteurs par auteur, indexé par ordinal de statut
+    private final Map<String, LongAdder[]> countsByActor = new ConcurrentHashMap<>();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Override
+    public String getReadModelName() {
+        return "staffActivity";
+    }
+
+    // Même forme que getActivity() : { auteur -> { statut -> nombre } }
+    @Override
+    public synchronized String snapshot() {
+        try {
+            return objectMapper.writeValueAsString(getActivity());
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Instantané de l'activité impossible: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized boolean restore(String state) {
+        Map<String, Map<String, Long>> activity;
+        try {
+            activity = objectMapper.readValue(state, new TypeReference<Map<String, Map<String, Long>>>() {});
+        } catch (JsonProcessingException e) {
+            return false;
+        }
+        countsByActor.clear();
+        activity.forEach((actor, byStatus) -> byStatus.forEach((status, count) ->
+                counters(actor)[OrderStatus.valueOf(status).ordinal()].add(count)));
+        return true;
+    }
+
+    @Override
+    public synchronized void rebuild() {
+        countsByActor.clear();
+        for (Object[] row : orderEventRecordRepository.countByActorAndStatus()) {
+            counters((String) row[0])[((OrderStatus) row[1]).ordinal()].add(((Number) row[2]).longValue());
+        }
+        System.out.println("Activité du personnel initialisée: " + countsByActor.size() + " auteur(s)");
+    }
+
+    @Override
+    public void apply(OrderEventDTO event) {
+        if (OrderEventDTO.STATUS_CHANGED.equals(event.getType()) && event.getActor() != null
+                && event.getStatus() != null) {
+            counters(event.getActor())[event.getStatus().ordinal()].increment();
+        }
+    }
+
+    // { auteur -> { statut -> nombre } }, statuts à zéro omis
+    public Map<String, Map<String, Long>> getActivity() {
+        Map<String, Map<String, Long>> activity = new TreeMap<>();
+        countsByActor.forEach((actor, counters) -> {
+            Map<String, Long> byStatus = new LinkedHashMap<>();
+            for (OrderStatus status : OrderStatus.values()) {
+                long count = counters[status.ordinal()].sum();
+                if (count > 0) {
+                    byStatus.put(status.name(), count);
+                }
+            }
+            activity.put(actor, byStatus);
+        });
+        return activity;
+    }
+
+    // "Chef ", "chef" et "CHEF" désignent le même auteur
+    public static String normalizeActor(String actor) {
+        if (actor == null || actor.isBlank()) {
+            return null;
+        }
+        String normalized = actor.trim().toLowerCase(Locale.ROOT);
+        return normalized.length() > MAX_ACTOR_LENGTH ? normalized.substring(0, MAX_ACTOR_LENGTH) : normalized;
+    }
+
+    private LongAdder[] counters(String actor) {
+        return countsByActor.computeIfAbsent(actor, a -> {
+            LongAdder[] counters = new LongAdder[OrderStatus.values().length];
+            for (int i = 0; i < counters.length; i++) {
+                counters[i] = new LongAdder();
+            }
+            return counters;
+        });
+    }
+}
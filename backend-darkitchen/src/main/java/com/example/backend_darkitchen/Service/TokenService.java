@@ -0,0 +1,242 @@
+package com.example.backend_darkitchen.Service;
+
+import com.example.backend_darkitchen.entity.Client;
+import com.example.backend_darkitchen.entity.User;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Jetons d'accès signés (JWT HS256) émis à la connexion. Un jeton suffit à
+ * identifier l'appelant sans requête en base : la signature et le contenu
+ * décodé sont mis en cache quelques instants, la révocation (déconnexion,
+ * changement de mot de passe, désactivation) est vérifiée en mémoire à
+ * chaque appel.
+ *
+ * Le flux SSE des commandes s'ouvre avec EventSource, qui ne peut pas
+ * envoyer d'en-tête : un jeton de flux, valable quelques secondes et refusé
+ * partout ailleurs, est alors passé dans l'URL.
+ */
+@Service
+public class TokenService {
+
+    private static final String HEADER = base64(
+            "{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+    private static final String HMAC = "HmacSHA256";
+
+    public static final String STREAM_SCOPE = "order-stream";
+
+    private final ObjectMapper objectMapper;
+    private final SecretKeySpec key;
+    private final long ttlMillis;
+    private final long streamTtlMillis;
+
+    // Jetons déjà vérifiés (signature + décodage), durée de vie courte
+    private final Cache<String, AuthenticatedAccount> verified;
+    // Jetons révoqués un par un (déconnexion) -> expiration du jeton
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+    // Compte -> instant avant lequel tous ses jetons sont refusés
+    private final Map<String, Long> revokedBefore = new ConcurrentHashMap<>();
+
+    private final Counter issued;
+    private final Counter cacheHits;
+    private final Counter rejected;
+
+    public TokenService(ObjectMapper objectMapper, MeterRegistry meterRegistry, Environment environment,
+                        @Value("${auth.token.secret:}") String secret,
+                        @Value("${auth.token.ttl-minutes:480}") long ttlMinutes,
+                        @Value("${auth.token.cache-seconds:60}") long cacheSeconds,
+                        @Value("${auth.token.cache-max-size:10000}") long cacheMaxSize,
+                        @Value("${auth.token.stream-ttl-seconds:60}") long streamTtlSeconds) {
+        this.objectMapper = objectMapper;
+        this.ttlMillis = Duration.ofMinutes(ttlMinutes).toMillis();
+        this.streamTtlMillis = Duration.ofSeconds(streamTtlSeconds).toMillis();
+        this.key = new SecretKeySpec(secretBytes(secret, environment), HMAC);
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(cacheSeconds))
+                .build();
+
+        this.issued = Counter.builder("auth.tokens").tag("result", "issued").register(meterRegistry);
+        this.cacheHits = Counter.builder("auth.tokens").tag("result", "cache_hit").register(meterRegistry);
+        this.rejected = Counter.builder("auth.tokens").tag("result", "rejected").register(meterRegistry);
+    }
+
+    public String issue(User user) {
+        return issue(AuthenticatedAccount.STAFF, user.getId(), user.getRole().toString(),
+                user.getEmail(), user.getFullName(), null, ttlMillis);
+    }
+
+    public String issue(Client client) {
+        return issue(AuthenticatedAccount.CLIENT, client.getId(), "CLIENT",
+                client.getEmail(), client.getFullName(), null, ttlMillis);
+    }
+
+    // Jeton de flux pour le compte déjà authentifié, accepté seulement par verifyStreamToken
+    public String issueStreamToken(AuthenticatedAccount account) {
+        return issue(account.getType(), account.getId(), account.getRole(),
+                account.getEmail(), account.getFullName(), STREAM_SCOPE, streamTtlMillis);
+    }
+
+    public long getStreamTtlSeconds() {
+        return Duration.ofMillis(streamTtlMillis).toSeconds();
+    }
+
+    // Appelant identifié par le jeton, null si le jeton est invalide, expiré ou révoqué
+    public AuthenticatedAccount verify(String token) {
+        return verify(token, null);
+    }
+
+    public AuthenticatedAccount verifyStreamToken(String token) {
+        return verify(token, STREAM_SCOPE);
+    }
+
+    private AuthenticatedAccount verify(String token, String scope) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        AuthenticatedAccount account = verified.getIfPresent(token);
+        if (account != null) {
+            cacheHits.increment();
+        } else {
+            account = decode(token);
+            if (account == null) {
+                rejected.increment();
+                return null;
+            }
+            verified.put(token, account);
+        }
+
+        Long notBefore = revokedBefore.get(account.getAccountKey());
+        if (!Objects.equals(account.getScope(), scope)
+                || account.getExpiresAtMillis() <= System.currentTimeMillis()
+                || revokedTokens.containsKey(account.getTokenId())
+                || (notBefore != null && account.getIssuedAtMillis() < notBefore)) {
+            rejected.increment();
+            return null;
+        }
+        return account;
+    }
+
+    // Déconnexion : ce jeton seulement
+    public void revoke(AuthenticatedAccount account) {
+        revokedTokens.put(account.getTokenId(), account.getExpiresAtMillis());
+    }
+
+    // Mot de passe changé, compte désactivé ou supprimé : tous les jetons déjà émis
+    public void revokeAll(String type, Long id) {
+        revokedBefore.put(AuthenticatedAccount.accountKey(type, id), System.currentTimeMillis());
+    }
+
+    // Les révocations ne sont utiles que tant que les jetons concernés peuvent encore être valides
+    @Scheduled(fixedDelay = 600000)
+    public void purgeRevocations() {
+        long now = System.currentTimeMillis();
+        revokedTokens.values().removeIf(expiresAt -> expiresAt <= now);
+        revokedBefore.values().removeIf(notBefore -> notBefore + ttlMillis <= now);
+    }
+
+    private String issue(String type, Long id, String role, String email, String fullName,
+                         String scope, long validityMillis) {
+        long now = System.currentTimeMillis();
+        ObjectNode claims = objectMapper.createObjectNode();
+        claims.put("jti", UUID.randomUUID().toString());
+        claims.put("sub", id);
+        claims.put("typ", type);
+        claims.put("role", role);
+        claims.put("email", email);
+        claims.put("name", fullName);
+        claims.put("iat", now / 1000);
+        claims.put("exp", (now + validityMillis) / 1000);
+        if (scope != null) {
+            claims.put("scope", scope);
+        }
+        // iat à la milliseconde : une révocation globale ne doit pas toucher un jeton émis juste après
+        claims.put("iat_ms", now);
+        try {
+            String signingInput = HEADER + "." + base64(objectMapper.writeValueAsBytes(claims));
+            issued.increment();
+            return signingInput + "." + base64(sign(signingInput));
+        } catch (IOException e) {
+            throw new IllegalStateException("Émission du jeton impossible", e);
+        }
+    }
+
+    private AuthenticatedAccount decode(String token) {
+        int firstDot = token.indexOf('.');
+        int lastDot = token.lastIndexOf('.');
+        if (firstDot < 0 || lastDot == firstDot || !token.substring(0, firstDot).equals(HEADER)) {
+            return null;
+        }
+        try {
+            byte[] expected = sign(token.substring(0, lastDot));
+            byte[] actual = Base64.getUrlDecoder().decode(token.substring(lastDot + 1));
+            if (!MessageDigest.isEqual(expected, actual)) {
+                return null;
+            }
+            JsonNode claims = objectMapper.readTree(Base64.getUrlDecoder().decode(token.substring(firstDot + 1, lastDot)));
+            return new AuthenticatedAccount(claims.path("jti").asText(), claims.path("typ").asText(),
+                    claims.path("sub").asLong(), claims.path("role").asText(), claims.path("email").asText(),
+                    claims.path("name").asText(), claims.path("iat_ms").asLong(),
+                    claims.path("exp").asLong() * 1000, claims.path("scope").asText(null));
+        } catch (IllegalArgumentException | IOException e) {
+            return null;
+        }
+    }
+
+    private byte[] sign(String signingInput) {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(key);
+            return mac.doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Signature du jeton impossible", e);
+        }
+    }
+
+    private static byte[] secretBytes(String secret, Environment environment) {
+        if (secret == null || secret.isBlank()) {
+            // Clé aléatoire tolérée en développement seulement : ailleurs, chaque instance signerait
+            // avec sa propre clé et les jetons ne survivraient pas à un redémarrage
+            if (!environment.acceptsProfiles(Profiles.of("dev"))) {
+                throw new IllegalStateException("auth.token.secret doit être défini (profil dev pour une clé aléatoire)");
+            }
+            System.out.println("ATTENTION: auth.token.secret non défini, clé de signature aléatoire générée");
+            byte[] random = new byte[32];
+            new SecureRandom().nextBytes(random);
+            return random;
+        }
+        byte[] bytes = secret.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length < 32) {
+            throw new IllegalStateException("auth.token.secret doit contenir au moins 32 octets");
+        }
+        return bytes;
+    }
+
+    private static String base64(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
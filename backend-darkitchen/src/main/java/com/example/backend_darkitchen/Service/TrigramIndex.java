@@ -0,0 +1,457 @@
+package com.example.backend_darkitchen.Service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Index de recherche plein texte en mémoire par trigrammes (nom, email,
+ * téléphone). Chaque texte est normalisé (minuscules, sans accents) et
+ * découpé en trigrammes ; une liste triée de documents est tenue par
+ * trigramme. Une requête compte les trigrammes communs à chaque candidat :
+ * sous-chaîne, préfixe de mot et fautes de frappe (la moitié des trigrammes
+ * suffit) sont couverts par le même mécanisme, classés par score.
+ *
+ * Une requête de moins de 3 caractères n'a pas de trigramme complet : elle
+ * parcourt les textes (sous-chaîne, début de mot en tête).
+ *
+ * Une mise à jour ajoute un nouveau document et marque l'ancien comme
+ * supprimé ; les listes sont compactées (à la suppression comme à la mise à
+ * jour) quand les documents supprimés deviennent majoritaires.
+ */
+public final class TrigramIndex {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+    // Part minimale des trigrammes de la requête présents chez un candidat (tolérance aux fautes)
+    private static final double MIN_SIMILARITY = 0.5;
+    // Score d'une sous-chaîne exacte en début de mot (tous les trigrammes + 1 + 0.5)
+    private static final double WORD_START_SCORE = 2.5;
+
+    // En dessous, les documents supprimés ne justifient pas une reconstruction des listes
+    private static final int COMPACT_MIN_DOCS = 1024;
+
+    private static final ThreadLocal<int[]> HITS = ThreadLocal.withInitial(() -> new int[0]);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, IntList> postings = new HashMap<>();
+    private final Map<Long, Integer> docByAccountId = new HashMap<>();
+    private long[] accountIds = new long[1024];
+    private String[] texts = new String[1024];
+    // Longueur de chaque texte, lue sans toucher aux chaînes (classement des débuts de mot)
+    private int[] lengths = new int[1024];
+    private int docCount;
+    private int liveCount;
+
+    // Remplace le document de l'identifiant (ajout ou mise à jour)
+    public void put(long accountId, String... fields) {
+        String text = normalizeDocument(fields);
+        lock.writeLock().lock();
+        try {
+            removeLocked(accountId);
+            if (docCount == accountIds.length) {
+                accountIds = Arrays.copyOf(accountIds, docCount * 2);
+                texts = Arrays.copyOf(texts, docCount * 2);
+                lengths = Arrays.copyOf(lengths, docCount * 2);
+            }
+            int doc = docCount++;
+            accountIds[doc] = accountId;
+            texts[doc] = text;
+            lengths[doc] = text.length();
+            for (String gram : trigrams(text)) {
+                postings.computeIfAbsent(gram, g -> new IntList()).add(doc);
+            }
+            docByAccountId.put(accountId, doc);
+            liveCount++;
+            compactIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long accountId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(accountId);
+            compactIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Documents alloués, supprimés compris (borné par la compaction)
+    int documentCount() {
+        lock.readLock().lock();
+        try {
+            return docCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Identifiants classés par pertinence, page [offset, offset + limit)
+    public List<Long> search(String query, int offset, int limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        int wanted = offset + limit;
+
+        lock.readLock().lock();
+        try {
+            if (normalized.length() < 3) {
+                return page(scan(normalized, wanted), offset, limit);
+            }
+            Set<String> grams = trigrams(normalized);
+            // Listes les plus courtes d'abord
+            List<IntList> lists = new ArrayList<>(grams.size());
+            for (String gram : grams) {
+                lists.add(postings.getOrDefault(gram, IntList.EMPTY));
+            }
+            lists.sort(Comparator.comparingInt(list -> list.size));
+
+            // Débuts de mot d'abord : leur bonus les classe devant tout autre résultat, donc une
+            // page qu'ils remplissent est définitive
+            PriorityQueue<Candidate> wordStarts = wordStarts(lists, normalized, wanted);
+            if (wordStarts != null) {
+                return page(wordStarts, offset, limit);
+            }
+
+            // Tous les trigrammes exigés d'abord ; la tolérance aux fautes
+            // n'est tentée que si la page n'est pas remplie
+            PriorityQueue<Candidate> best = collect(lists, lists.size(), normalized, wanted);
+            int fuzzyHits = Math.max(1, (int) Math.ceil(lists.size() * MIN_SIMILARITY));
+            if (best.size() < wanted && fuzzyHits < lists.size()) {
+                best = collect(lists, fuzzyHits, normalized, wanted);
+            }
+            return page(best, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static List<Long> page(PriorityQueue<Candidate> best, int offset, int limit) {
+        List<Candidate> ranked = new ArrayList<>(best);
+        ranked.sort(Candidate.ORDER.reversed());
+        List<Long> page = new ArrayList<>(limit);
+        for (int i = offset; i < ranked.size(); i++) {
+            page.add(ranked.get(i).accountId);
+        }
+        return page;
+    }
+
+    // Documents où la requête commence un mot, si au moins wanted : tous ont le même score,
+    // le classement ne dépend que de (longueur, identifiant). Les candidats (trigrammes de la
+    // requête et " ab") sont rangés par longueur sans lire leur texte ; seuls les plus courts
+    // sont vérifiés, jusqu'à remplir la page. Un préfixe de 3 lettres, présent dans des
+    // dizaines de milliers de textes, ne coûte ainsi que quelques dizaines de lectures.
+    private PriorityQueue<Candidate> wordStarts(List<IntList> lists, String query, int wanted) {
+        IntList wordStartList = postings.get(" " + query.substring(0, 2));
+        if (wordStartList == null || wordStartList.size < wanted) {
+            return null;
+        }
+        List<IntList> all = new ArrayList<>(lists);
+        all.add(wordStartList);
+        all.sort(Comparator.comparingInt(list -> list.size));
+
+        // Intersection, depuis la liste la plus courte ; les listes étant triées, chaque
+        // recherche reprend où la précédente s'est arrêtée
+        IntList seeds = all.get(0);
+        int[] cursors = new int[all.size()];
+        IntList docs = new IntList();
+        for (int i = 0; i < seeds.size; i++) {
+            int doc = seeds.values[i];
+            boolean inAll = true;
+            for (int l = 1; l < all.size() && inAll; l++) {
+                IntList list = all.get(l);
+                int found = Arrays.binarySearch(list.values, cursors[l], list.size, doc);
+                inAll = found >= 0;
+                cursors[l] = inAll ? found + 1 : -found - 1;
+            }
+            if (inAll && texts[doc] != null) {
+                docs.add(doc);
+            }
+        }
+        if (docs.size < wanted) {
+            return null;
+        }
+
+        // Rangement par longueur (tri par dénombrement), puis vérification des plus courts ;
+        // à longueur égale, par identifiant, un groupe à la fois
+        int maxLength = 0;
+        for (int i = 0; i < docs.size; i++) {
+            maxLength = Math.max(maxLength, lengths[docs.values[i]]);
+        }
+        int[] starts = new int[maxLength + 2];
+        for (int i = 0; i < docs.size; i++) {
+            starts[lengths[docs.values[i]] + 1]++;
+        }
+        for (int length = 1; length < starts.length; length++) {
+            starts[length] += starts[length - 1];
+        }
+        int[] byLength = new int[docs.size];
+        int[] next = Arrays.copyOf(starts, starts.length);
+        for (int i = 0; i < docs.size; i++) {
+            int doc = docs.values[i];
+            byLength[next[lengths[doc]]++] = doc;
+        }
+
+        String wordStart = " " + query;
+        PriorityQueue<Candidate> best = new PriorityQueue<>(Candidate.ORDER);
+        for (int length = 0; length <= maxLength && best.size() < wanted; length++) {
+            int from = starts[length];
+            int to = starts[length + 1];
+            if (from == to) {
+                continue;
+            }
+            Integer[] group = new Integer[to - from];
+            for (int i = from; i < to; i++) {
+                group[i - from] = byLength[i];
+            }
+            Arrays.sort(group, Comparator.comparingLong(doc -> accountIds[doc]));
+            for (int i = 0; i < group.length && best.size() < wanted; i++) {
+                int doc = group[i];
+                if (texts[doc].contains(wordStart)) {
+                    best.add(new Candidate(accountIds[doc], length, WORD_START_SCORE));
+                }
+            }
+        }
+        return best.size() >= wanted ? best : null;
+    }
+
+    // Requête de 1 ou 2 caractères : parcours des textes vivants, comme un LIKE '%q%',
+    // les débuts de mot classés d'abord
+    private PriorityQueue<Candidate> scan(String query, int wanted) {
+        String wordStart = " " + query;
+        PriorityQueue<Candidate> best = new PriorityQueue<>(Candidate.ORDER);
+        for (int doc = 0; doc < docCount; doc++) {
+            String text = texts[doc];
+            if (text == null) {
+                continue;
+            }
+            int position = text.indexOf(query);
+            if (position < 0) {
+                continue;
+            }
+            double score = text.charAt(position - 1) == ' ' || text.indexOf(wordStart, position) >= 0 ? 1.5 : 1;
+            int length = text.length();
+            if (best.size() < wanted) {
+                best.add(new Candidate(accountIds[doc], length, score));
+            } else if (Candidate.compare(score, length, accountIds[doc], best.peek()) > 0) {
+                best.poll();
+                best.add(new Candidate(accountIds[doc], length, score));
+            }
+        }
+        return best;
+    }
+
+    // Meilleurs documents ayant au moins minHits trigrammes de la requête. Un tel document
+    // figure forcément dans l'une des (n - minHits + 1) listes les plus courtes : seules
+    // celles-ci sont parcourues, les autres ne servent qu'à compléter le compte des candidats
+    private PriorityQueue<Candidate> collect(List<IntList> lists, int minHits, String query, int wanted) {
+        int seedLists = lists.size() - minHits + 1;
+        int[] hits = hitBuffer();
+        IntList touched = new IntList();
+        for (int l = 0; l < seedLists; l++) {
+            IntList docs = lists.get(l);
+            for (int i = 0; i < docs.size; i++) {
+                int doc = docs.values[i];
+                if (texts[doc] != null && hits[doc]++ == 0) {
+                    touched.add(doc);
+                }
+            }
+        }
+        for (int l = seedLists; l < lists.size(); l++) {
+            IntList docs = lists.get(l);
+            int remainingLists = lists.size() - l - 1;
+            int kept = 0;
+            for (int i = 0; i < touched.size; i++) {
+                int doc = touched.values[i];
+                if (Arrays.binarySearch(docs.values, 0, docs.size, doc) >= 0) {
+                    hits[doc]++;
+                }
+                // Candidat écarté dès qu'il ne peut plus atteindre minHits
+                if (hits[doc] + remainingLists >= minHits) {
+                    touched.values[kept++] = doc;
+                } else {
+                    hits[doc] = 0;
+                }
+            }
+            touched.size = kept;
+        }
+
+        // Tas des meilleurs candidats, le moins bon en tête
+        PriorityQueue<Candidate> best = new PriorityQueue<>(Candidate.ORDER);
+        for (int i = 0; i < touched.size; i++) {
+            int doc = touched.values[i];
+            int docHits = hits[doc];
+            hits[doc] = 0;
+            if (docHits < minHits) {
+                continue;
+            }
+            double score = score(texts[doc], query, docHits, lists.size());
+            int length = texts[doc].length();
+            if (best.size() < wanted) {
+                best.add(new Candidate(accountIds[doc], length, score));
+            } else if (Candidate.compare(score, length, accountIds[doc], best.peek()) > 0) {
+                best.poll();
+                best.add(new Candidate(accountIds[doc], length, score));
+            }
+        }
+        return best;
+    }
+
+    // Compteurs par document réutilisés d'une requête à l'autre (remis à zéro par collect)
+    private int[] hitBuffer() {
+        int[] hits = HITS.get();
+        if (hits.length < docCount) {
+            hits = new int[accountIds.length];
+            HITS.set(hits);
+        }
+        return hits;
+    }
+
+    // Part des trigrammes trouvés, avec bonus pour la sous-chaîne exacte puis le début de mot
+    private static double score(String text, String query, int hits, int gramCount) {
+        double score = (double) hits / gramCount;
+        // Sous-chaîne possible seulement si tous les trigrammes sont présents
+        int position = hits == gramCount ? text.indexOf(query) : -1;
+        if (position >= 0) {
+            score += 1;
+            if (text.charAt(position - 1) == ' ' || text.indexOf(" " + query, position) >= 0) {
+                score += 0.5;
+            }
+        }
+        return score;
+    }
+
+    private void removeLocked(long accountId) {
+        Integer doc = docByAccountId.remove(accountId);
+        if (doc != null) {
+            texts[doc] = null;
+            liveCount--;
+        }
+    }
+
+    private void compactIfSparse() {
+        if (docCount > COMPACT_MIN_DOCS && liveCount < docCount / 2) {
+            compact();
+        }
+    }
+
+    // Renumérote les documents vivants et reconstruit les listes
+    private void compact() {
+        long[] oldIds = accountIds;
+        String[] oldTexts = texts;
+        int oldCount = docCount;
+        postings.clear();
+        docByAccountId.clear();
+        accountIds = new long[Math.max(COMPACT_MIN_DOCS, liveCount * 2)];
+        texts = new String[accountIds.length];
+        lengths = new int[accountIds.length];
+        docCount = 0;
+        liveCount = 0;
+        for (int doc = 0; doc < oldCount; doc++) {
+            if (oldTexts[doc] == null) {
+                continue;
+            }
+            int newDoc = docCount++;
+            accountIds[newDoc] = oldIds[doc];
+            texts[newDoc] = oldTexts[doc];
+            lengths[newDoc] = oldTexts[doc].length();
+            for (String gram : trigrams(oldTexts[doc])) {
+                postings.computeIfAbsent(gram, g -> new IntList()).add(newDoc);
+            }
+            docByAccountId.put(oldIds[doc], newDoc);
+            liveCount++;
+        }
+    }
+
+    // Texte encadré d'espaces : les trigrammes de début de mot (" du") servent aux préfixes
+    private static String normalizeDocument(String... fields) {
+        StringBuilder text = new StringBuilder(" ");
+        for (String field : fields) {
+            String normalized = normalize(field);
+            if (!normalized.isEmpty()) {
+                text.append(normalized).append(' ');
+            }
+        }
+        return text.toString();
+    }
+
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("");
+        return SPACES.matcher(folded.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    private static Set<String> trigrams(String text) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            grams.add(text.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    private static final class Candidate {
+        // Meilleur score, puis texte le plus court, puis identifiant le plus petit
+        private static final Comparator<Candidate> ORDER =
+                (a, b) -> compare(a.score, a.length, a.accountId, b);
+
+        private static int compare(double score, int length, long accountId, Candidate other) {
+            int byScore = Double.compare(score, other.score);
+            if (byScore != 0) {
+                return byScore;
+            }
+            int byLength = Integer.compare(other.length, length);
+            return byLength != 0 ? byLength : Long.compare(other.accountId, accountId);
+        }
+
+        private final long accountId;
+        private final int length;
+        private final double score;
+
+        private Candidate(long accountId, int length, double score) {
+            this.accountId = accountId;
+            this.length = length;
+            this.score = score;
+        }
+    }
+
+    private static final class IntList {
+        private static final IntList EMPTY = new IntList();
+
+        private int[] values = new int[4];
+        private int size;
+
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.backend_darkitchen.config;
+
+import com.example.backend_darkitchen.Service.AuthenticatedAccount;
+import com.example.backend_darkitchen.Service.TokenService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.util.ServletRequestPathUtils;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Identifie l'appelant à partir de l'en-tête "Authorization: Bearer ..." et
+ * le dépose dans la requête (attribut ACCOUNT_ATTRIBUTE), sans accès à la
+ * base, puis applique la règle d'accès du chemin : 401 sans jeton valide,
+ * 403 si le rôle ne suffit pas. La première règle qui correspond s'applique ;
+ * tout chemin /api non listé est réservé au personnel. Pour les règles
+ * ACCOUNT, le contrôleur vérifie en plus que la ressource appartient à
+ * l'appelant (ses commandes, son profil).
+ *
+ * Les règles sont comparées au chemin tel que Spring MVC le route (décodé,
+ * paramètres ";matrix" retirés), et un chemin qui n'est pas sous forme
+ * canonique est refusé (400) : "/api/%75sers" ou "/api/users;x=1" ne doivent
+ * pas échapper à la règle de "/api/users/**" tout en atteignant le même
+ * contrôleur.
+ *
+ * Seul GET /api/orders/stream accepte aussi un jeton de flux en paramètre
+ * (access_token) : EventSource ne peut pas envoyer d'en-tête Authorization.
+ */
+@Component
+public class AuthTokenInterceptor implements HandlerInterceptor {
+
+    public static final String ACCOUNT_ATTRIBUTE = "authenticatedAccount";
+    private static final String BEARER = "Bearer ";
+    static final String STREAM_TOKEN_PARAMETER = "access_token";
+    private static final PathPattern STREAM = new PathPatternParser().parse("/api/orders/stream");
+
+    enum Access { PUBLIC, ACCOUNT, STAFF, ADMIN }
+
+    private static final List<Rule> RULES = List.of(
+            // Pré-vol CORS : jamais d'en-tête Authorization
+            new Rule("OPTIONS", "/api/**", Access.PUBLIC),
+
+            new Rule("POST", "/api/auth/login", Access.PUBLIC),
+            new Rule("POST", "/api/auth/staff/login", Access.PUBLIC),
+            new Rule("POST", "/api/auth/client/login", Access.PUBLIC),
+            new Rule("POST", "/api/auth/register", Access.PUBLIC),
+            new Rule("POST", "/api/auth/logout", Access.PUBLIC),
+            new Rule("GET", "/api/auth/check-email/**", Access.PUBLIC),
+            new Rule("GET", "/api/auth/test-connection", Access.PUBLIC),
+            new Rule("GET", "/api/auth/me", Access.ACCOUNT),
+
+            // Menu
+            new Rule("GET", "/api/dishes/**", Access.PUBLIC),
+            new Rule("GET", "/api/categories/**", Access.PUBLIC),
+            new Rule("POST", "/api/dishes/search-by-image", Access.PUBLIC),
+            new Rule(null, "/api/dishes/**", Access.ADMIN),
+            new Rule(null, "/api/categories/**", Access.ADMIN),
+
+            // Commandes : le client est celui du jeton
+            new Rule("POST", "/api/orders/check-client", Access.PUBLIC),
+            new Rule("POST", "/api/orders/login", Access.PUBLIC),
+            new Rule("POST", "/api/orders", Access.ACCOUNT),
+            new Rule("POST", "/api/orders/async", Access.ACCOUNT),
+            new Rule("GET", "/api/orders/intake/*", Access.ACCOUNT),
+            new Rule("GET", "/api/orders/client/{clientId:\\d+}", Access.ACCOUNT),
+            new Rule("GET", "/api/orders/{orderId:\\d+}", Access.ACCOUNT),
+            new Rule("GET", "/api/orders/{orderId:\\d+}/history", Access.ACCOUNT),
+            new Rule("PUT", "/api/orders/{orderId:\\d+}/cancel", Access.ACCOUNT),
+            new Rule("POST", "/api/orders/{orderId:\\d+}/reorder", Access.ACCOUNT),
+            // Flux SSE des écrans cuisinier / livreur / admin (jeton d'en-tête ou jeton de flux)
+            new Rule("GET", "/api/orders/stream", Access.STAFF),
+            new Rule("POST", "/api/orders/stream/token", Access.STAFF),
+
+            // Profils : le client ou le membre du personnel lui-même (ou le personnel / un administrateur)
+            new Rule("GET", "/api/clients/{id:\\d+}", Access.ACCOUNT),
+            new Rule("PUT", "/api/clients/{id:\\d+}", Access.ACCOUNT),
+            new Rule("PUT", "/api/clients/{id:\\d+}/change-password", Access.ACCOUNT),
+            new Rule("GET", "/api/clients/{id:\\d+}/stats", Access.ACCOUNT),
+            new Rule(null, "/api/clients/**", Access.ADMIN),
+            new Rule("GET", "/api/users/{id:\\d+}", Access.STAFF),
+            new Rule("PUT", "/api/users/{id:\\d+}", Access.STAFF),
+            new Rule(null, "/api/users/**", Access.ADMIN)
+    );
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        AuthenticatedAccount account = null;
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization != null && authorization.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            account = tokenService.verify(authorization.substring(BEARER.length()).trim());
+            if (account != null) {
+                request.setAttribute(ACCOUNT_ATTRIBUTE, account);
+            }
+        }
+
+        PathContainer path = pathWithinApplication(request);
+        if (!isCanonical(path.value())) {
+            return reject(response, HttpStatus.BAD_REQUEST, "Chemin de requête non canonique");
+        }
+        if (account == null && "GET".equals(request.getMethod()) && STREAM.matches(path)) {
+            account = tokenService.verifyStreamToken(request.getParameter(STREAM_TOKEN_PARAMETER));
+            if (account != null) {
+                request.setAttribute(ACCOUNT_ATTRIBUTE, account);
+            }
+        }
+        Access access = accessFor(request.getMethod(), path);
+        if (access == Access.PUBLIC) {
+            return true;
+        }
+        if (account == null) {
+            return reject(response, HttpStatus.UNAUTHORIZED, "Authentification requise : jeton absent, invalide ou expiré");
+        }
+        if ((access == Access.STAFF && !account.isStaff()) || (access == Access.ADMIN && !account.isAdmin())) {
+            return reject(response, HttpStatus.FORBIDDEN, "Accès refusé pour ce compte");
+        }
+        return true;
+    }
+
+    static Access accessFor(String method, String path) {
+        return accessFor(method, PathContainer.parsePath(path));
+    }
+
+    static Access accessFor(String method, PathContainer path) {
+        for (Rule rule : RULES) {
+            if ((rule.method == null || rule.method.equals(method)) && rule.pattern.matches(path)) {
+                return rule.access;
+            }
+        }
+        return Access.STAFF;
+    }
+
+    // Chemin déjà analysé par le DispatcherServlet pour choisir le contrôleur (segments décodés)
+    private static PathContainer pathWithinApplication(HttpServletRequest request) {
+        if (!ServletRequestPathUtils.hasParsedRequestPath(request)) {
+            ServletRequestPathUtils.parseAndCache(request);
+        }
+        return ServletRequestPathUtils.getParsedRequestPath(request).pathWithinApplication();
+    }
+
+    // Forme canonique du chemin brut : ni paramètres ";", ni segments vides, "." ou "..",
+    // ni caractère non réservé (lettre, chiffre, - . _ ~) encodé en %XX, ni "/" ou "\" encodés
+    static boolean isCanonical(String rawPath) {
+        if (rawPath.indexOf(';') >= 0 || rawPath.indexOf('\\') >= 0 || rawPath.contains("//")) {
+            return false;
+        }
+        for (String segment : rawPath.split("/")) {
+            if (segment.equals(".") || segment.equals("..")) {
+                return false;
+            }
+        }
+        for (int i = rawPath.indexOf('%'); i >= 0; i = rawPath.indexOf('%', i + 1)) {
+            if (i + 2 >= rawPath.length()) {
+                return false;
+            }
+            int high = Character.digit(rawPath.charAt(i + 1), 16);
+            int low = Character.digit(rawPath.charAt(i + 2), 16);
+            if (high < 0 || low < 0) {
+                return false;
+            }
+            char decoded = (char) (high * 16 + low);
+            if ((decoded < 128 && Character.isLetterOrDigit(decoded)) || "-._~/\\".indexOf(decoded) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean reject(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(), Map.of(
+                "success", false,
+                "message", message
+        ));
+        return false;
+    }
+
+    private static final class Rule {
+        private static final PathPatternParser PARSER = new PathPatternParser();
+
+        private final String method;
+        private final PathPattern pattern;
+        private final Access access;
+
+        private Rule(String method, String pattern, Access access) {
+            this.method = method;
+            this.pattern = PARSER.parse(pattern);
+            this.access = access;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.backend_darkitchen.config;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Renseigne les montants en centimes (unit_price_cents, subtotal_cents,
+ * total_cents) des commandes créées avant leur introduction, à partir des
+ * anciennes colonnes en double. Ne touche que les lignes encore vides.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class OrderAmountBackfill {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void backfill() {
+        try {
+            int items = jdbcTemplate.update(
+                    "UPDATE order_items SET unit_price_cents = ROUND(price * 100), " +
+                    "subtotal_cents = ROUND(price * 100) * quantity WHERE subtotal_cents IS NULL");
+            int orders = jdbcTemplate.update(
+                    "UPDATE orders SET total_cents = ROUND(total_amount * 100) WHERE total_cents IS NULL");
+            if (items > 0 || orders > 0) {
+                System.out.println("Montants en centimes renseignés: " + orders + " commande(s), " + items + " ligne(s)");
+            }
+        } catch (DataAccessException e) {
+            System.out.println("ATTENTION: conversion des montants en centimes impossible: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.backend_darkitchen.config;
+
+import com.example.backend_darkitchen.entity.OrderItem;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Aligne la table order_items_seq (créée par Hibernate à 1) sur les lignes
+ * déjà présentes dans order_items, héritées de l'ancienne stratégie IDENTITY.
+ * Exécuté dès la création du schéma, avant l'ouverture du serveur web : aucune
+ * commande ne peut recevoir un id de ligne déjà pris.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class OrderItemSequenceInitializer {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void alignSequence() {
+        try {
+            // L'optimiseur "pooled" distribue les ids sous la valeur lue :
+            // on garde une allocation complète de marge au-dessus du max existant
+            int updated = jdbcTemplate.update(
+                "UPDATE order_items_seq SET next_val = GREATEST(next_val, " +
+                "(SELECT COALESCE(MAX(id), 0) FROM order_items) + ?)",
+                OrderItem.ID_ALLOCATION_SIZE + 1);
+            System.out.println("Séquence order_items_seq alignée (" + updated + " ligne)");
+        } catch (DataAccessException e) {
+            System.out.println("ATTENTION: alignement de la séquence order_items_seq impossible: " + e.getMessage());
+        }
+    }
+}
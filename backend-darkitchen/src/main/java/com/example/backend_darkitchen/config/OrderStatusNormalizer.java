@@ -0,0 +1,57 @@
+package com.example.backend_darkitchen.config;
+
+import com.example.backend_darkitchen.entity.OrderStatus;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Réécrit les statuts libres hérités de l'ancienne colonne texte ("LIVRÉE",
+ * "PRÊT", noms anglais...) en noms de l'enum OrderStatus, avant toute
+ * lecture JPA : une valeur inconnue ferait échouer le chargement des commandes.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class OrderStatusNormalizer {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void normalize() {
+        List<String> statuses;
+        try {
+            statuses = jdbcTemplate.queryForList("SELECT DISTINCT status FROM orders", String.class);
+        } catch (DataAccessException e) {
+            return; // table pas encore créée
+        }
+
+        for (String status : statuses) {
+            if (status == null || isEnumName(status)) {
+                continue;
+            }
+            try {
+                OrderStatus normalized = OrderStatus.parse(status);
+                int updated = jdbcTemplate.update("UPDATE orders SET status = ? WHERE status = ?",
+                        normalized.name(), status);
+                System.out.println("Statut '" + status + "' converti en " + normalized + " (" + updated + " commande(s))");
+            } catch (IllegalArgumentException e) {
+                System.out.println("ATTENTION: statut de commande non reconnu en base: '" + status + "'");
+            }
+        }
+    }
+
+    private static boolean isEnumName(String status) {
+        for (OrderStatus value : OrderStatus.values()) {
+            if (value.name().equals(status)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
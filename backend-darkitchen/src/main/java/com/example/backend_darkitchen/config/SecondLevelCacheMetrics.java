@@ -0,0 +1,72 @@
+package com.example.backend_darkitchen.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Expose par région du cache de second niveau Hibernate les succès, échecs,
+ * insertions et le taux de succès (hibernate.cache.hit.ratio), pour
+ * dimensionner application.conf. Nécessite hibernate.generate_statistics.
+ */
+@Component
+public class SecondLevelCacheMetrics {
+
+    // Régions d'entités (@Cache) et de requêtes (hint org.hibernate.cacheRegion)
+    public static final String DISH = "dish";
+    public static final String CATEGORY = "category";
+    public static final String USERS = "users";
+    public static final String USER_QUERIES = "user-queries";
+
+    public SecondLevelCacheMetrics(EntityManagerFactory entityManagerFactory, MeterRegistry meterRegistry) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        for (String region : new String[] { DISH, CATEGORY, USERS }) {
+            register(meterRegistry, region, statistics::getDomainDataRegionStatistics);
+        }
+        for (String region : new String[] { USER_QUERIES }) {
+            register(meterRegistry, region, statistics::getQueryRegionStatistics);
+        }
+    }
+
+    // Les statistiques d'une région n'existent qu'après sa première utilisation : relues à chaque mesure
+    private void register(MeterRegistry meterRegistry, String region,
+                          Function<String, CacheRegionStatistics> lookup) {
+        counter(meterRegistry, "hibernate.cache.requests", region, "hit", lookup, CacheRegionStatistics::getHitCount);
+        counter(meterRegistry, "hibernate.cache.requests", region, "miss", lookup, CacheRegionStatistics::getMissCount);
+        counter(meterRegistry, "hibernate.cache.puts", region, null, lookup, CacheRegionStatistics::getPutCount);
+        Gauge.builder("hibernate.cache.hit.ratio", lookup, l -> hitRatio(l.apply(region)))
+                .tag("region", region).register(meterRegistry);
+    }
+
+    private void counter(MeterRegistry meterRegistry, String name, String region, String result,
+                         Function<String, CacheRegionStatistics> lookup,
+                         ToLongFunction<CacheRegionStatistics> count) {
+        FunctionCounter.Builder<Function<String, CacheRegionStatistics>> builder =
+                FunctionCounter.builder(name, lookup, l -> value(l.apply(region), count)).tag("region", region);
+        if (result != null) {
+            builder.tag("result", result);
+        }
+        builder.register(meterRegistry);
+    }
+
+    private static double value(CacheRegionStatistics stats, ToLongFunction<CacheRegionStatistics> count) {
+        // Statistiques désactivées ou région pas encore créée
+        return stats == null ? 0 : count.applyAsLong(stats);
+    }
+
+    private static double hitRatio(CacheRegionStatistics stats) {
+        if (stats == null) {
+            return Double.NaN;
+        }
+        long requests = stats.getHitCount() + stats.getMissCount();
+        return requests == 0 ? Double.NaN : (double) stats.getHitCount() / requests;
+    }
+}
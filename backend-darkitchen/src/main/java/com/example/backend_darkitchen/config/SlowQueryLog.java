@@ -0,0 +1,68 @@
+package com.example.backend_darkitchen.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Journal des requêtes SQL lentes : une ligne JSON par entrée, écrite par un
+ * thread dédié. Le thread de la requête ne fait que déposer l'entrée dans une
+ * file bornée ; file pleine, l'entrée est perdue (sql.slow_log.dropped)
+ * plutôt que de bloquer.
+ */
+@Component
+public class SlowQueryLog {
+
+    private static final String PREFIX = "SQL lent ";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BlockingQueue<Map<String, Object>> queue;
+    private final Counter dropped;
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "sql-slow-log");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SlowQueryLog(MeterRegistry meterRegistry,
+                        @Value("${sql.profiling.log-queue-capacity:1000}") int capacity) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.dropped = Counter.builder("sql.slow_log.dropped").register(meterRegistry);
+        writer.execute(this::drainLoop);
+    }
+
+    public void submit(Map<String, Object> entry) {
+        if (!queue.offer(entry)) {
+            dropped.increment();
+        }
+    }
+
+    private void drainLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Map<String, Object> entry = queue.take();
+                System.out.println(PREFIX + objectMapper.writeValueAsString(entry));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (JsonProcessingException e) {
+                System.err.println("Entrée du journal SQL illisible: " + e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        writer.shutdownNow();
+    }
+}
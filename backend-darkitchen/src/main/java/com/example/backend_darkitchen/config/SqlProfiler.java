@@ -0,0 +1,287 @@
+package com.example.backend_darkitchen.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Mesure des requêtes SQL par endpoint, branchée sur le proxy JDBC
+ * (SqlProfilingConfig) : nombre d'instructions, temps passé en base et
+ * lignes lues pour chaque requête HTTP ouverte par SqlProfilingInterceptor,
+ * publiés par méthode et route sur quelques seuils fixes (sql.request.*)
+ * plutôt qu'en histogrammes complets, pour garder peu de séries par route.
+ *
+ * Une même instruction SELECT répétée n-plus-one-threshold fois dans une
+ * requête HTTP (mêmes SQL aux valeurs près) est signalée comme N+1. Les
+ * instructions lentes, les requêtes HTTP trop coûteuses et les N+1 partent
+ * dans le journal asynchrone SlowQueryLog.
+ */
+@Component
+public class SqlProfiler implements QueryExecutionListener {
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    // Seuils des compteurs cumulés : instructions par requête HTTP, lignes lues, temps passé en base
+    private static final double[] STATEMENT_BUCKETS = { 1, 3, 5, 10, 25 };
+    private static final double[] ROW_BUCKETS = { 1, 10, 100, 1000, 10000 };
+    private static final Duration[] TIME_BUCKETS = { Duration.ofMillis(5), Duration.ofMillis(20),
+            Duration.ofMillis(100), Duration.ofMillis(300), Duration.ofSeconds(1) };
+
+    private final MeterRegistry meterRegistry;
+    private final SlowQueryLog slowQueryLog;
+    private final long slowStatementNanos;
+    private final long slowRequestNanos;
+    private final int maxStatements;
+    private final int nPlusOneThreshold;
+
+    private final ThreadLocal<ThreadState> state = ThreadLocal.withInitial(ThreadState::new);
+    // SQL brut -> forme normalisée (littéraux et listes IN remplacés), calculée une fois par texte
+    private final Cache<String, String> normalized = Caffeine.newBuilder().maximumSize(2000).build();
+
+    private final Counter slowStatements;
+
+    public SqlProfiler(MeterRegistry meterRegistry, SlowQueryLog slowQueryLog,
+                       @Value("${sql.profiling.slow-statement-ms:100}") long slowStatementMs,
+                       @Value("${sql.profiling.slow-request-ms:300}") long slowRequestMs,
+                       @Value("${sql.profiling.max-statements:25}") int maxStatements,
+                       @Value("${sql.profiling.n-plus-one-threshold:5}") int nPlusOneThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.slowQueryLog = slowQueryLog;
+        this.slowStatementNanos = TimeUnit.MILLISECONDS.toNanos(slowStatementMs);
+        this.slowRequestNanos = TimeUnit.MILLISECONDS.toNanos(slowRequestMs);
+        this.maxStatements = maxStatements;
+        this.nPlusOneThreshold = nPlusOneThreshold;
+        this.slowStatements = Counter.builder("sql.statements.slow").register(meterRegistry);
+    }
+
+    // === Cycle d'une requête HTTP (SqlProfilingInterceptor) ===
+
+    RequestProfile begin(String method, String route) {
+        RequestProfile profile = new RequestProfile(method, route);
+        state.get().profile = profile;
+        return profile;
+    }
+
+    // Reprise après un traitement asynchrone, sur un autre thread
+    void attach(RequestProfile profile) {
+        state.get().profile = profile;
+    }
+
+    void detach() {
+        state.get().profile = null;
+    }
+
+    void finish(RequestProfile profile, int status) {
+        Tags tags = Tags.of("method", profile.method, "uri", profile.route);
+        DistributionSummary.builder("sql.request.statements").tags(tags).serviceLevelObjectives(STATEMENT_BUCKETS)
+                .register(meterRegistry).record(profile.statements);
+        DistributionSummary.builder("sql.request.rows").tags(tags).serviceLevelObjectives(ROW_BUCKETS)
+                .register(meterRegistry).record(profile.rows);
+        Timer.builder("sql.request.time").tags(tags).serviceLevelObjectives(TIME_BUCKETS)
+                .register(meterRegistry).record(profile.dbNanos, TimeUnit.NANOSECONDS);
+
+        Map<String, Integer> repeated = repeatedSelects(profile);
+        if (!repeated.isEmpty()) {
+            Counter.builder("sql.request.n_plus_one").tags(tags).register(meterRegistry)
+                    .increment(repeated.size());
+        }
+        if (profile.dbNanos >= slowRequestNanos || profile.statements > maxStatements || !repeated.isEmpty()) {
+            slowQueryLog.submit(requestEntry(profile, status, repeated));
+        }
+    }
+
+    // === Proxy JDBC ===
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        state.get().startNanos = System.nanoTime();
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        ThreadState current = state.get();
+        long nanos = System.nanoTime() - current.startNanos;
+        RequestProfile profile = current.profile;
+        if (profile != null) {
+            profile.record(queryInfoList, nanos);
+        }
+        if (nanos >= slowStatementNanos) {
+            slowStatements.increment();
+            slowQueryLog.submit(statementEntry(execInfo, queryInfoList, nanos, profile));
+        }
+    }
+
+    // ResultSet d'une instruction exécutée pendant une requête HTTP profilée : seul next() est
+    // intercepté, pour compter les lignes ; hors requête profilée (relais, tâches planifiées,
+    // démarrage), le ResultSet est rendu tel quel, sans proxy
+    ResultSet countRows(ResultSet resultSet) {
+        RequestProfile profile = state.get().profile;
+        if (profile == null) {
+            return resultSet;
+        }
+        return (ResultSet) Proxy.newProxyInstance(SqlProfiler.class.getClassLoader(),
+                new Class<?>[] { ResultSet.class }, new RowCounter(resultSet, profile));
+    }
+
+    // === Journal ===
+
+    // SELECT regroupés par forme normalisée (ids en littéraux compris), au-delà du seuil
+    private Map<String, Integer> repeatedSelects(RequestProfile profile) {
+        Map<String, Integer> byShape = new HashMap<>();
+        for (Map.Entry<String, Integer> entry : profile.executions.entrySet()) {
+            String shape = normalize(entry.getKey());
+            if (shape.regionMatches(true, 0, "select", 0, 6)) {
+                byShape.merge(shape, entry.getValue(), Integer::sum);
+            }
+        }
+        byShape.values().removeIf(count -> count < nPlusOneThreshold);
+        return byShape;
+    }
+
+    private Map<String, Object> requestEntry(RequestProfile profile, int status, Map<String, Integer> repeated) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("type", "request");
+        entry.put("method", profile.method);
+        entry.put("uri", profile.route);
+        entry.put("status", status);
+        entry.put("statements", profile.statements);
+        entry.put("dbTimeMs", millis(profile.dbNanos));
+        entry.put("rows", profile.rows);
+        entry.put("elapsedMs", millis(System.nanoTime() - profile.startNanos));
+        List<Map<String, Object>> nPlusOne = new ArrayList<>();
+        repeated.forEach((sql, count) -> {
+            Map<String, Object> pattern = new LinkedHashMap<>();
+            pattern.put("count", count);
+            pattern.put("sql", sql);
+            nPlusOne.add(pattern);
+        });
+        entry.put("nPlusOne", nPlusOne);
+        return entry;
+    }
+
+    private Map<String, Object> statementEntry(ExecutionInfo execInfo, List<QueryInfo> queries, long nanos,
+                                               RequestProfile profile) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("type", "statement");
+        entry.put("method", profile != null ? profile.method : null);
+        entry.put("uri", profile != null ? profile.route : null);
+        entry.put("timeMs", millis(nanos));
+        entry.put("success", execInfo.isSuccess());
+        if (execInfo.isBatch()) {
+            entry.put("batchSize", execInfo.getBatchSize());
+        }
+        List<String> sql = new ArrayList<>(queries.size());
+        for (QueryInfo query : queries) {
+            sql.add(normalize(query.getQuery()));
+        }
+        entry.put("sql", sql);
+        return entry;
+    }
+
+    private String normalize(String sql) {
+        return normalized.get(sql, raw -> {
+            String shape = STRING_LITERAL.matcher(raw).replaceAll("?");
+            shape = NUMBER.matcher(shape).replaceAll("?");
+            shape = IN_LIST.matcher(shape).replaceAll("in (?)");
+            return SPACES.matcher(shape).replaceAll(" ").trim().toLowerCase(Locale.ROOT);
+        });
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 100_000.0) / 10.0;
+    }
+
+    private static final class ThreadState {
+        private long startNanos;
+        private RequestProfile profile;
+    }
+
+    // Compteurs d'une requête HTTP ; un seul thread à la fois (celui qui la traite)
+    static final class RequestProfile {
+        private final String method;
+        private final String route;
+        private final long startNanos = System.nanoTime();
+        private int statements;
+        private long dbNanos;
+        private long rows;
+        // SQL brut -> nombre d'exécutions ; normalisé seulement en fin de requête
+        private final Map<String, Integer> executions = new HashMap<>();
+
+        private RequestProfile(String method, String route) {
+            this.method = method;
+            this.route = route;
+        }
+
+        // Un batch JDBC compte pour une instruction (un aller-retour)
+        private void record(List<QueryInfo> queries, long nanos) {
+            statements++;
+            dbNanos += nanos;
+            for (QueryInfo query : queries) {
+                executions.merge(query.getQuery(), 1, Integer::sum);
+            }
+        }
+    }
+
+    private static final class RowCounter implements InvocationHandler {
+        private static final Method NEXT;
+
+        static {
+            try {
+                NEXT = ResultSet.class.getMethod("next");
+            } catch (NoSuchMethodException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private final ResultSet resultSet;
+        private final RequestProfile profile;
+
+        private RowCounter(ResultSet resultSet, RequestProfile profile) {
+            this.resultSet = resultSet;
+            this.profile = profile;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (NEXT.equals(method)) {
+                boolean hasRow = resultSet.next();
+                if (hasRow) {
+                    profile.rows++;
+                }
+                return hasRow;
+            }
+            try {
+                return method.invoke(resultSet, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.backend_darkitchen.config;
+
+import net.ttddyy.dsproxy.ConnectionInfo;
+import net.ttddyy.dsproxy.proxy.ProxyConfig;
+import net.ttddyy.dsproxy.proxy.jdk.JdkJdbcProxyFactory;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+
+/**
+ * Enveloppe la DataSource (pool Hikari) dans un proxy JDBC qui signale
+ * chaque instruction exécutée à SqlProfiler. Remplace spring.jpa.show-sql :
+ * rien n'est écrit sur le chemin de la requête. Les ResultSet ne sont
+ * enveloppés (comptage des lignes) que pendant une requête HTTP profilée,
+ * par SqlProfiler.countRows, sans listener de méthodes.
+ */
+@Configuration
+public class SqlProfilingConfig {
+
+    // static : un post-processeur est instancié avant les autres beans ; SqlProfiler
+    // n'est résolu qu'au moment d'envelopper la DataSource
+    @Bean
+    public static BeanPostProcessor sqlProfilingDataSourceWrapper(ObjectProvider<SqlProfiler> sqlProfiler) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource) {
+                    return bean;
+                }
+                SqlProfiler profiler = sqlProfiler.getObject();
+                return ProxyDataSourceBuilder.create(beanName, dataSource)
+                        .listener(profiler)
+                        .proxyResultSet()
+                        .jdbcProxyFactory(new JdkJdbcProxyFactory() {
+                            @Override
+                            public ResultSet createResultSet(ResultSet resultSet, ConnectionInfo connectionInfo,
+                                                             ProxyConfig proxyConfig) {
+                                return profiler.countRows(resultSet);
+                            }
+                        })
+                        .build();
+            }
+        };
+    }
+}
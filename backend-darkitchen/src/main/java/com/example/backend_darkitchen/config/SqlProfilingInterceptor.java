@@ -0,0 +1,51 @@
+package com.example.backend_darkitchen.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Ouvre un profil SQL (SqlProfiler) pour chaque requête /api, étiqueté par
+ * la route ("/api/orders/{orderId}") et non par l'URL, et le clôt une fois
+ * la réponse écrite (sérialisation JSON et chargements paresseux compris).
+ * Un traitement asynchrone garde le même profil d'un dispatch à l'autre.
+ */
+@Component
+public class SqlProfilingInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String PROFILE_ATTRIBUTE = SqlProfilingInterceptor.class.getName() + ".profile";
+
+    @Autowired
+    private SqlProfiler sqlProfiler;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(PROFILE_ATTRIBUTE) instanceof SqlProfiler.RequestProfile profile) {
+            sqlProfiler.attach(profile);
+        } else {
+            Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            request.setAttribute(PROFILE_ATTRIBUTE,
+                    sqlProfiler.begin(request.getMethod(), route != null ? route.toString() : "UNKNOWN"));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        sqlProfiler.detach();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        sqlProfiler.detach();
+        if (request.getAttribute(PROFILE_ATTRIBUTE) instanceof SqlProfiler.RequestProfile profile) {
+            request.removeAttribute(PROFILE_ATTRIBUTE);
+            sqlProfiler.finish(profile, response.getStatus());
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.backend_darkitchen.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private SqlProfilingInterceptor sqlProfilingInterceptor;
+
+    @Autowired
+    private AuthTokenInterceptor authTokenInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(sqlProfilingInterceptor).addPathPatterns("/api/**");
+        registry.addInterceptor(authTokenInterceptor).addPathPatterns("/api/**");
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.backend_darkitchen.dto;
+
+import com.example.backend_darkitchen.entity.Category;
+
+// Vue immuable d'une catégorie exposée par l'API (sans ses plats), partagée par la photographie du menu
+public final class CategoryDTO {
+    private final Long id;
+    private final String name;
+    private final String description;
+    private final String icon;
+
+    public CategoryDTO(Long id, String name, String description, String icon) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.icon = icon;
+    }
+
+    public static CategoryDTO from(Category category) {
+        return new CategoryDTO(category.getId(), category.getName(), category.getDescription(), category.getIcon());
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getIcon() {
+        return icon;
+    }
+}
@@ -1,13 +1,22 @@
 package com.example.backend_darkitchen.dto;
 
+import com.example.backend_darkitchen.entity.Client;
+
+import java.time.LocalDateTime;
+
+// Vue d'un client exposée par l'API (sans mot de passe ni commandes)
 public class ClientDTO {
     private Long id;
+    private String firstName;
+    private String lastName;
     private String email;
     private String fullName;
     private String phoneNumber;
     private String address;
     private String city;
     private String postalCode;
+    private LocalDateTime registrationDate;
+    private boolean active;
     
     // Constructeurs
     public ClientDTO() {}
@@ -19,6 +28,29 @@ public class ClientDTO {
         this.phoneNumber = phoneNumber;
     }
     
+    // Projection JPQL (SELECT new ...), sans charger l'entité
+    public ClientDTO(Long id, String firstName, String lastName, String email, String phoneNumber,
+                     String address, String city, String postalCode, LocalDateTime registrationDate,
+                     boolean active) {
+        this.id = id;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+        this.fullName = firstName + " " + lastName;
+        this.phoneNumber = phoneNumber;
+        this.address = address;
+        this.city = city;
+        this.postalCode = postalCode;
+        this.registrationDate = registrationDate;
+        this.active = active;
+    }
+    
+    public static ClientDTO from(Client client) {
+        return new ClientDTO(client.getId(), client.getFirstName(), client.getLastName(), client.getEmail(),
+                client.getPhoneNumber(), client.getAddress(), client.getCity(), client.getPostalCode(),
+                client.getRegistrationDate(), client.isActive());
+    }
+    
     // Getters & Setters
     public Long getId() {
         return id;
@@ -28,6 +60,22 @@ public class ClientDTO {
         this.id = id;
     }
     
+    public String getFirstName() {
+        return firstName;
+    }
+    
+    public void setFirstName(String firstName) {
+        this.firstName = firstName;
+    }
+    
+    public String getLastName() {
+        return lastName;
+    }
+    
+    public void setLastName(String lastName) {
+        this.lastName = lastName;
+    }
+    
     public String getEmail() {
         return email;
     }
@@ -75,4 +123,20 @@ public class ClientDTO {
     public void setPostalCode(String postalCode) {
         this.postalCode = postalCode;
     }
-}
\ No newline at end of file
+    
+    public LocalDateTime getRegistrationDate() {
+        return registrationDate;
+    }
+    
+    public void setRegistrationDate(LocalDateTime registrationDate) {
+        this.registrationDate = registrationDate;
+    }
+    
+    public boolean isActive() {
+        return active;
+    }
+    
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.backend_darkitchen.dto;
+
+import com.example.backend_darkitchen.entity.Dish;
+
+// Vue immuable d'un plat exposée par l'API, partagée par la photographie du menu ;
+// mêmes noms de propriétés que l'entité (isPopular, isNew)
+public final class DishDTO {
+    private final Long id;
+    private final String name;
+    private final String description;
+    private final double price;
+    private final String image;
+    private final CategoryDTO category;
+    private final double rating;
+    private final String prepTime;
+    private final boolean popular;
+    private final boolean newDish;
+
+    private DishDTO(Dish dish, CategoryDTO category) {
+        this.id = dish.getId();
+        this.name = dish.getName();
+        this.description = dish.getDescription();
+        this.price = dish.getPrice();
+        this.image = dish.getImage();
+        this.category = category;
+        this.rating = dish.getRating();
+        this.prepTime = dish.getPrepTime();
+        this.popular = dish.getIsPopular();
+        this.newDish = dish.getIsNew();
+    }
+
+    // La catégorie doit être chargée (graphe "Dish.category" ou cache de second niveau)
+    public static DishDTO from(Dish dish) {
+        return new DishDTO(dish, dish.getCategory() != null ? CategoryDTO.from(dish.getCategory()) : null);
+    }
+
+    // Catégorie déjà convertie (photographie du menu : une seule vue par catégorie)
+    public static DishDTO from(Dish dish, CategoryDTO category) {
+        return new DishDTO(dish, category);
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public String getImage() {
+        return image;
+    }
+
+    public CategoryDTO getCategory() {
+        return category;
+    }
+
+    public double getRating() {
+        return rating;
+    }
+
+    public String getPrepTime() {
+        return prepTime;
+    }
+
+    public boolean getIsPopular() {
+        return popular;
+    }
+
+    public boolean getIsNew() {
+        return newDish;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.backend_darkitchen.dto;
+
+import java.util.List;
+
+public class ImageSearchResultDTO {
+    private String detectedCategory;
+    private List<DishDTO> results;
+    private List<Float> scores;
+    private String mode;
+
+    // Constructeurs
+    public ImageSearchResultDTO() {}
+
+    public ImageSearchResultDTO(String detectedCategory, List<DishDTO> results, List<Float> scores, String mode) {
+        this.detectedCategory = detectedCategory;
+        this.results = results;
+        this.scores = scores;
+        this.mode = mode;
+    }
+
+    // Getters & Setters
+    public String getDetectedCategory() {
+        return detectedCategory;
+    }
+
+    public void setDetectedCategory(String detectedCategory) {
+        this.detectedCategory = detectedCategory;
+    }
+
+    public List<DishDTO> getResults() {
+        return results;
+    }
+
+    public void setResults(List<DishDTO> results) {
+        this.results = results;
+    }
+
+    public List<Float> getScores() {
+        return scores;
+    }
+
+    public void setScores(List<Float> scores) {
+        this.scores = scores;
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public void setMode(String mode) {
+        this.mode = mode;
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.backend_darkitchen.dto;
+
+import com.example.backend_darkitchen.entity.OrderStatus;
+
+import java.time.LocalDateTime;
+
+public class OrderEventDTO {
+
+    public static final String ORDER_CREATED = "ORDER_CREATED";
+    public static final String STATUS_CHANGED = "STATUS_CHANGED";
+    public static final String ORDER_CANCELLED = "ORDER_CANCELLED";
+
+    private Long eventId;
+    // Position dans le journal (ordre de validation), curseur de lecture et de rejeu, id SSE
+    private Long position;
+    private String type;
+    private Long orderId;
+    private Long clientId;
+    private OrderStatus previousStatus;
+    private OrderStatus status;
+    // Montant en centimes ; totalAmount (en unités) en est dérivé pour les dashboards
+    private Long totalCents;
+    private LocalDateTime timestamp;
+    // Auteur d'un changement de statut (updatedBy), null sinon
+    private String actor;
+
+    // Constructeurs
+    public OrderEventDTO() {}
+
+    public OrderEventDTO(String type, Long orderId, Long clientId, OrderStatus previousStatus,
+                         OrderStatus status, Long totalCents) {
+        this.type = type;
+        this.orderId = orderId;
+        this.clientId = clientId;
+        this.previousStatus = previousStatus;
+        this.status = status;
+        this.totalCents = totalCents;
+        this.timestamp = LocalDateTime.now();
+    }
+
+    // Getters & Setters
+    public Long getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(Long eventId) {
+        this.eventId = eventId;
+    }
+
+    public Long getPosition() {
+        return position;
+    }
+
+    public void setPosition(Long position) {
+        this.position = position;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+
+    public Long getClientId() {
+        return clientId;
+    }
+
+    public void setClientId(Long clientId) {
+        this.clientId = clientId;
+    }
+
+    public OrderStatus getPreviousStatus() {
+        return previousStatus;
+    }
+
+    public void setPreviousStatus(OrderStatus previousStatus) {
+        this.previousStatus = previousStatus;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(OrderStatus status) {
+        this.status = status;
+    }
+
+    public Long getTotalCents() {
+        return totalCents;
+    }
+
+    public void setTotalCents(Long totalCents) {
+        this.totalCents = totalCents;
+    }
+
+    public Double getTotalAmount() {
+        return totalCents != null ? totalCents / 100.0 : null;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public String getActor() {
+        return actor;
+    }
+
+    public void setActor(String actor) {
+        this.actor = actor;
+    }
+
+    @Override
+    public String toString() {
+        return "OrderEventDTO{" +
+                "eventId=" + eventId +
+                ", position=" + position +
+                ", type='" + type + '\'' +
+                ", orderId=" + orderId +
+                ", previousStatus='" + previousStatus + '\'' +
+                ", status='" + status + '\'' +
+                '}';
+    }
+}
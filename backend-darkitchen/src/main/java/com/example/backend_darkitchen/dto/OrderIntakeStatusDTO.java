@@ -0,0 +1,69 @@
+package com.example.backend_darkitchen.dto;
+
+import java.time.LocalDateTime;
+
+public class OrderIntakeStatusDTO {
+
+    public static final String PENDING = "PENDING";
+    public static final String CREATED = "CREATED";
+    public static final String FAILED = "FAILED";
+
+    private String reference;
+    private String state;
+    private Long orderId;
+    private String message;
+    private LocalDateTime acceptedAt;
+
+    // Constructeurs
+    public OrderIntakeStatusDTO() {}
+
+    public OrderIntakeStatusDTO(String reference, String state, Long orderId, String message,
+                                LocalDateTime acceptedAt) {
+        this.reference = reference;
+        this.state = state;
+        this.orderId = orderId;
+        this.message = message;
+        this.acceptedAt = acceptedAt;
+    }
+
+    // Getters & Setters
+    public String getReference() {
+        return reference;
+    }
+
+    public void setReference(String reference) {
+        this.reference = reference;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public LocalDateTime getAcceptedAt() {
+        return acceptedAt;
+    }
+
+    public void setAcceptedAt(LocalDateTime acceptedAt) {
+        this.acceptedAt = acceptedAt;
+    }
+}
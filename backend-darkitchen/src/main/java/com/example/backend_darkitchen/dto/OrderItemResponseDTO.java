@@ -1,6 +1,9 @@
 package com.example.backend_darkitchen.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 public class OrderItemResponseDTO {
+    private Long orderId;
     private Long dishId;
     private String dishName;
     private Integer quantity;
@@ -18,6 +21,27 @@ public class OrderItemResponseDTO {
         this.subtotal = price * quantity;
     }
     
+    // Projection JPQL : orderId sert à regrouper les items par commande,
+    // le sous-total est celui enregistré à la création (centimes), pas recalculé
+    public OrderItemResponseDTO(Long orderId, Long dishId, String dishName, Integer quantity, Double price,
+                                Long subtotalCents) {
+        this.orderId = orderId;
+        this.dishId = dishId;
+        this.dishName = dishName;
+        this.quantity = quantity;
+        this.price = price;
+        this.subtotal = subtotalCents != null ? subtotalCents / 100.0 : price * quantity;
+    }
+    
+    @JsonIgnore
+    public Long getOrderId() {
+        return orderId;
+    }
+    
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+    
     // Getters & Setters
     public Long getDishId() {
         return dishId;
@@ -0,0 +1,43 @@
+package com.example.backend_darkitchen.dto;
+
+import java.util.List;
+
+public class OrderPageDTO {
+    private List<OrderResponseDTO> orders;
+    private String nextCursor;
+    private boolean hasMore;
+
+    // Constructeurs
+    public OrderPageDTO() {}
+
+    public OrderPageDTO(List<OrderResponseDTO> orders, String nextCursor, boolean hasMore) {
+        this.orders = orders;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    // Getters & Setters
+    public List<OrderResponseDTO> getOrders() {
+        return orders;
+    }
+
+    public void setOrders(List<OrderResponseDTO> orders) {
+        this.orders = orders;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
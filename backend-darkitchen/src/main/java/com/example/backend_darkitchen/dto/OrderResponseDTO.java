@@ -1,13 +1,22 @@
 package com.example.backend_darkitchen.dto;
 
+import com.example.backend_darkitchen.entity.OrderStatus;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.time.LocalDateTime;
 import java.util.List;
 
 public class OrderResponseDTO {
     private Long orderId;
     private Long clientId;
-    private String status;
+    private OrderStatus status;
+    // Statut de départ de la dernière transition (usage interne, non exposé)
+    @JsonIgnore
+    private OrderStatus previousStatus;
     private Double totalAmount;
+    // Montant en centimes, pour l'événement de transition (usage interne, non exposé)
+    @JsonIgnore
+    private Long totalCents;
     private LocalDateTime orderDate;
     private String deliveryAddress;
     private String phoneNumber;
@@ -20,7 +29,7 @@ public class OrderResponseDTO {
     // Constructeurs
     public OrderResponseDTO() {}
     
-    public OrderResponseDTO(Long orderId, Long clientId, String status, Double totalAmount, 
+    public OrderResponseDTO(Long orderId, Long clientId, OrderStatus status, Double totalAmount, 
                            String clientEmail, String clientFullName) {
         this.orderId = orderId;
         this.clientId = clientId;
@@ -31,6 +40,32 @@ public class OrderResponseDTO {
         this.orderDate = LocalDateTime.now();
     }
     
+    // Projection JPQL (listes paginées) : les items sont chargés par une seconde requête
+    public OrderResponseDTO(Long orderId, Long clientId, OrderStatus status, Double totalAmount,
+                           LocalDateTime orderDate, String deliveryAddress, String phoneNumber,
+                           String notes, String clientEmail, String clientFullName) {
+        this.orderId = orderId;
+        this.clientId = clientId;
+        this.status = status;
+        this.totalAmount = totalAmount;
+        this.orderDate = orderDate;
+        this.deliveryAddress = deliveryAddress;
+        this.phoneNumber = phoneNumber;
+        this.notes = notes;
+        this.clientEmail = clientEmail;
+        this.clientFullName = clientFullName;
+    }
+    
+    // Projection JPQL après une transition de statut
+    public OrderResponseDTO(Long orderId, Long clientId, OrderStatus status, OrderStatus previousStatus,
+                           Double totalAmount, Long totalCents, LocalDateTime orderDate, String deliveryAddress,
+                           String phoneNumber, String notes, String clientEmail, String clientFullName) {
+        this(orderId, clientId, status, totalAmount, orderDate, deliveryAddress, phoneNumber, notes,
+                clientEmail, clientFullName);
+        this.previousStatus = previousStatus;
+        this.totalCents = totalCents;
+    }
+    
     // Getters & Setters
     public Long getOrderId() {
         return orderId;
@@ -48,14 +83,22 @@ public class OrderResponseDTO {
         this.clientId = clientId;
     }
     
-    public String getStatus() {
+    public OrderStatus getStatus() {
         return status;
     }
     
-    public void setStatus(String status) {
+    public void setStatus(OrderStatus status) {
         this.status = status;
     }
     
+    public OrderStatus getPreviousStatus() {
+        return previousStatus;
+    }
+    
+    public Long getTotalCents() {
+        return totalCents;
+    }
+    
     public Double getTotalAmount() {
         return totalAmount;
     }
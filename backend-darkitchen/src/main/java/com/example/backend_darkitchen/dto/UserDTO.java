@@ -0,0 +1,70 @@
+package com.example.backend_darkitchen.dto;
+
+import com.example.backend_darkitchen.entity.User;
+import com.example.backend_darkitchen.entity.User.UserRole;
+
+// Vue d'un membre du personnel exposée par l'API (sans mot de passe)
+public class UserDTO {
+    private Long id;
+    private String email;
+    private String fullName;
+    private String phoneNumber;
+    private UserRole role;
+
+    // Constructeurs
+    public UserDTO() {}
+
+    // Projection JPQL (SELECT new ...), sans charger l'entité
+    public UserDTO(Long id, String email, String fullName, String phoneNumber, UserRole role) {
+        this.id = id;
+        this.email = email;
+        this.fullName = fullName;
+        this.phoneNumber = phoneNumber;
+        this.role = role;
+    }
+
+    public static UserDTO from(User user) {
+        return new UserDTO(user.getId(), user.getEmail(), user.getFullName(), user.getPhoneNumber(), user.getRole());
+    }
+
+    // Getters & Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public String getFullName() {
+        return fullName;
+    }
+
+    public void setFullName(String fullName) {
+        this.fullName = fullName;
+    }
+
+    public String getPhoneNumber() {
+        return phoneNumber;
+    }
+
+    public void setPhoneNumber(String phoneNumber) {
+        this.phoneNumber = phoneNumber;
+    }
+
+    public UserRole getRole() {
+        return role;
+    }
+
+    public void setRole(UserRole role) {
+        this.role = role;
+    }
+}
@@ -1,10 +1,17 @@
 package com.example.backend_darkitchen.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 @Entity
 @Table(name = "dish")
+// Plat et sa catégorie en une requête (menu, listes par catégorie)
+@NamedEntityGraph(name = "Dish.category", attributeNodes = @NamedAttributeNode("category"))
+// Cache de second niveau : invalidé par Hibernate à chaque écriture sur l'entité
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "dish")
 public class Dish {
 
     @Id
@@ -21,7 +28,8 @@ public class Dish {
 
     private String image;
 
-    @ManyToOne(fetch = FetchType.EAGER) // Utiliser EAGER pour éviter les problèmes Lazy
+    // Chargée à la demande : les lectures qui en ont besoin passent par le graphe "Dish.category"
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id", nullable = false)
     @JsonIgnoreProperties({"dishes", "hibernateLazyInitializer", "handler"})
     private Category category;
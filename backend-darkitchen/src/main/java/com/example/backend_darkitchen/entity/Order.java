@@ -6,7 +6,14 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+    // Index alignés sur la pagination par curseur (id, ou totalCents puis id)
+    @Index(name = "idx_orders_status_id", columnList = "status, id"),
+    @Index(name = "idx_orders_client_id_id", columnList = "client_id, id"),
+    @Index(name = "idx_orders_client_total_id", columnList = "client_id, total_cents, id")
+})
+// Commande et ses lignes en une requête (commander à nouveau)
+@NamedEntityGraph(name = "Order.items", attributeNodes = @NamedAttributeNode("items"))
 public class Order {
     
     @Id
@@ -23,12 +30,23 @@ public class Order {
     @Column(name = "total_amount", nullable = false)
     private Double totalAmount;
     
-    @Column(nullable = false)
-    private String status = "EN_ATTENTE"; // EN_ATTENTE, EN_PREPARATION, PRET, EN_LIVRAISON, LIVREE, ANNULEE
+    // Total en centimes, calculé une fois à l'écriture ; totalAmount en est dérivé
+    @Column(name = "total_cents")
+    private Long totalCents;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private OrderStatus status = OrderStatus.EN_ATTENTE;
     
     @Column(name = "order_date", nullable = false)
     private LocalDateTime orderDate;
     
+    // Statut avant la dernière transition, recopié par l'UPDATE conditionnel lui-même :
+    // l'événement sait d'où vient la commande sans lecture préalable
+    @Enumerated(EnumType.STRING)
+    @Column(name = "previous_status", length = 20)
+    private OrderStatus previousStatus;
+    
     @Column(name = "delivery_address", nullable = false, length = 500)
     private String deliveryAddress;
     
@@ -71,9 +89,12 @@ public class Order {
     }
     
     public void calculateTotal() {
-        this.totalAmount = items.stream()
-            .mapToDouble(item -> item.getPrice() * item.getQuantity())
-            .sum();
+        long cents = 0;
+        for (OrderItem item : items) {
+            cents += item.calculateSubtotal();
+        }
+        this.totalCents = cents;
+        this.totalAmount = cents / 100.0;
     }
     
     // Getters & Setters
@@ -113,11 +134,19 @@ public class Order {
         this.totalAmount = totalAmount;
     }
     
-    public String getStatus() {
+    public Long getTotalCents() {
+        return totalCents;
+    }
+    
+    public OrderStatus getPreviousStatus() {
+        return previousStatus;
+    }
+    
+    public OrderStatus getStatus() {
         return status;
     }
     
-    public void setStatus(String status) {
+    public void setStatus(OrderStatus status) {
         this.status = status;
     }
     
@@ -0,0 +1,128 @@
+package com.example.backend_darkitchen.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Journal des événements de commande (outbox), en ajout seul : une ligne par
+ * création, changement de statut, annulation ou recommande, écrite dans la
+ * même transaction que la commande.
+ *
+ * L'id (IDENTITY) est attribué à l'insertion, pas au commit : une ligne
+ * validée tardivement peut avoir un id plus petit qu'une ligne déjà lue. Le
+ * relais attribue donc à chaque ligne validée une position, dans l'ordre où il
+ * la voit ; la lecture du journal et le rejeu suivent cette position.
+ * published passe à true une fois l'événement remis aux abonnés.
+ */
+@Entity
+@Table(name = "order_events", indexes = {
+    @Index(name = "idx_order_events_position", columnList = "log_position", unique = true),
+    @Index(name = "idx_order_events_published_position", columnList = "published, log_position"),
+    @Index(name = "idx_order_events_order_id", columnList = "order_id, id"),
+    // Activité par membre du personnel, agrégée sur l'index seul
+    @Index(name = "idx_order_events_actor_status", columnList = "actor, status")
+})
+public class OrderEventRecord {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+    
+    @Column(name = "client_id")
+    private Long clientId;
+    
+    @Column(nullable = false, length = 30)
+    private String type;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "previous_status", length = 20)
+    private OrderStatus previousStatus;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private OrderStatus status;
+    
+    // Montant de la commande en centimes
+    @Column(name = "total_cents")
+    private Long totalCents;
+    
+    @Column(length = 100)
+    private String actor;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    // Ordre de validation, attribué par le relais (null tant qu'il n'a pas vu la ligne)
+    @Column(name = "log_position")
+    private Long position;
+    
+    @Column(nullable = false)
+    private boolean published = false;
+    
+    // Constructeurs
+    public OrderEventRecord() {}
+    
+    public OrderEventRecord(String type, Long orderId, Long clientId, OrderStatus previousStatus,
+                            OrderStatus status, Long totalCents, String actor) {
+        this.type = type;
+        this.orderId = orderId;
+        this.clientId = clientId;
+        this.previousStatus = previousStatus;
+        this.status = status;
+        this.totalCents = totalCents;
+        this.actor = actor;
+        this.createdAt = LocalDateTime.now();
+    }
+    
+    // Getters & Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public Long getOrderId() {
+        return orderId;
+    }
+    
+    public Long getClientId() {
+        return clientId;
+    }
+    
+    public String getType() {
+        return type;
+    }
+    
+    public OrderStatus getPreviousStatus() {
+        return previousStatus;
+    }
+    
+    public OrderStatus getStatus() {
+        return status;
+    }
+    
+    public Long getTotalCents() {
+        return totalCents;
+    }
+    
+    public String getActor() {
+        return actor;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public Long getPosition() {
+        return position;
+    }
+    
+    public void setPosition(Long position) {
+        this.position = position;
+    }
+    
+    public boolean isPublished() {
+        return published;
+    }
+}
@@ -6,9 +6,14 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 @Entity
 @Table(name = "order_items")
 public class OrderItem {
+
+    public static final int ID_ALLOCATION_SIZE = 50;
     
+    // SEQUENCE (émulée par une table sous MySQL) au lieu de IDENTITY :
+    // Hibernate peut alors regrouper les INSERT des lignes en batch JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_seq")
+    @SequenceGenerator(name = "order_items_seq", sequenceName = "order_items_seq", allocationSize = OrderItem.ID_ALLOCATION_SIZE)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -26,6 +31,13 @@ public class OrderItem {
     @Column(nullable = false)
     private Double price; // Prix au moment de la commande
     
+    // Montants en centimes, figés à l'écriture (price est conservé pour l'existant)
+    @Column(name = "unit_price_cents")
+    private Long unitPriceCents;
+    
+    @Column(name = "subtotal_cents")
+    private Long subtotalCents;
+    
     @Column(name = "dish_name", nullable = false)
     private String dishName;
     
@@ -35,8 +47,15 @@ public class OrderItem {
     public OrderItem(Dish dish, Integer quantity) {
         this.dish = dish;
         this.quantity = quantity;
-        this.price = dish.getPrice();
         this.dishName = dish.getName();
+        setUnitPriceCents(Math.round(dish.getPrice() * 100));
+    }
+    
+    // Plat de la photographie du menu : référence JPA sans lecture, nom repris du menu
+    // (le prix est fixé à part, setUnitPriceCents)
+    public void setDishReference(Dish dish, String dishName) {
+        this.dish = dish;
+        this.dishName = dishName;
     }
     
     // Getters & Setters
@@ -63,7 +82,7 @@ public class OrderItem {
     public void setDish(Dish dish) {
         this.dish = dish;
         this.dishName = dish.getName();
-        this.price = dish.getPrice();
+        setUnitPriceCents(Math.round(dish.getPrice() * 100));
     }
     
     public Integer getQuantity() {
@@ -90,8 +109,26 @@ public class OrderItem {
         this.dishName = dishName;
     }
     
-    // Méthode utilitaire
+    public Long getUnitPriceCents() {
+        return unitPriceCents;
+    }
+    
+    public void setUnitPriceCents(Long unitPriceCents) {
+        this.unitPriceCents = unitPriceCents;
+        this.price = unitPriceCents / 100.0;
+    }
+    
+    public Long getSubtotalCents() {
+        return subtotalCents;
+    }
+    
+    // Méthodes utilitaires
+    public long calculateSubtotal() {
+        this.subtotalCents = unitPriceCents * quantity;
+        return subtotalCents;
+    }
+    
     public Double getSubtotal() {
-        return price * quantity;
+        return subtotalCents != null ? subtotalCents / 100.0 : price * quantity;
     }
 }
\ No newline at end of file
@@ -0,0 +1,87 @@
+package com.example.backend_darkitchen.entity;
+
+import java.text.Normalizer;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+public enum OrderStatus {
+    EN_ATTENTE,
+    EN_PREPARATION,
+    PRET,
+    EN_LIVRAISON,
+    LIVREE,
+    NON_LIVREE, // échec de livraison signalé par le livreur
+    ANNULEE;
+
+    // Table des transitions autorisées (statut actuel -> statuts suivants possibles)
+    private static final Map<OrderStatus, Set<OrderStatus>> TRANSITIONS = new EnumMap<>(OrderStatus.class);
+
+    static {
+        TRANSITIONS.put(EN_ATTENTE, EnumSet.of(EN_PREPARATION, ANNULEE));
+        TRANSITIONS.put(EN_PREPARATION, EnumSet.of(PRET, ANNULEE));
+        TRANSITIONS.put(PRET, EnumSet.of(EN_LIVRAISON));
+        TRANSITIONS.put(EN_LIVRAISON, EnumSet.of(LIVREE, NON_LIVREE));
+        // Nouvelle tentative, livraison finalement confirmée, ou abandon
+        TRANSITIONS.put(NON_LIVREE, EnumSet.of(EN_LIVRAISON, LIVREE, ANNULEE));
+        TRANSITIONS.put(LIVREE, EnumSet.noneOf(OrderStatus.class));
+        TRANSITIONS.put(ANNULEE, EnumSet.noneOf(OrderStatus.class));
+    }
+
+    // Table inverse : depuis quels statuts peut-on arriver à un statut donné
+    private static final Map<OrderStatus, Set<OrderStatus>> PREDECESSORS = new EnumMap<>(OrderStatus.class);
+
+    static {
+        for (OrderStatus status : values()) {
+            PREDECESSORS.put(status, EnumSet.noneOf(OrderStatus.class));
+        }
+        TRANSITIONS.forEach((from, targets) -> targets.forEach(to -> PREDECESSORS.get(to).add(from)));
+    }
+
+    public boolean canTransitionTo(OrderStatus next) {
+        return TRANSITIONS.get(this).contains(next);
+    }
+
+    public boolean isFinal() {
+        return TRANSITIONS.get(this).isEmpty();
+    }
+
+    public Set<OrderStatus> nextStatuses() {
+        return Collections.unmodifiableSet(TRANSITIONS.get(this));
+    }
+
+    public Set<OrderStatus> previousStatuses() {
+        return Collections.unmodifiableSet(PREDECESSORS.get(this));
+    }
+
+    // Accepte aussi les variantes accentuées ("LIVRÉE", "PRÊT") et les noms anglais de l'ancienne API
+    public static OrderStatus parse(String value) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Statut de commande manquant");
+        }
+        String key = Normalizer.normalize(value.trim(), Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toUpperCase()
+                .replace(' ', '_')
+                .replace('-', '_');
+        switch (key) {
+            case "PENDING": return EN_ATTENTE;
+            case "CONFIRMED":
+            case "CONFIRMEE":
+            case "PREPARING": return EN_PREPARATION;
+            case "READY": return PRET;
+            case "ON_DELIVERY": return EN_LIVRAISON;
+            case "DELIVERED": return LIVREE;
+            case "NOT_DELIVERED": return NON_LIVREE;
+            case "CANCELLED": return ANNULEE;
+            default:
+                try {
+                    return valueOf(key);
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Statut de commande inconnu: " + value);
+                }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.backend_darkitchen.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Instantané d'un modèle de lecture alimenté par le journal order_events
+ * (compteurs du dashboard, activité du personnel) : son état sérialisé et la
+ * position du dernier événement qu'il contient. Au démarrage, le modèle
+ * repart de l'instantané et rejoue le journal au-delà de cette position.
+ */
+@Entity
+@Table(name = "order_read_models")
+public class ReadModelSnapshot {
+    
+    @Id
+    @Column(length = 50)
+    private String name;
+    
+    @Column(name = "log_position", nullable = false)
+    private Long position;
+    
+    @Lob
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String state;
+    
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+    
+    // Constructeurs
+    public ReadModelSnapshot() {}
+    
+    public ReadModelSnapshot(String name, Long position, String state) {
+        this.name = name;
+        this.position = position;
+        this.state = state;
+        this.updatedAt = LocalDateTime.now();
+    }
+    
+    // Getters
+    public String getName() {
+        return name;
+    }
+    
+    public Long getPosition() {
+        return position;
+    }
+    
+    public String getState() {
+        return state;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -0,0 +1,294 @@
+package com.example.backend_darkitchen.Controller;
+
+import com.example.backend_darkitchen.Repository.CategoryRepository;
+import com.example.backend_darkitchen.Repository.ClientRepository;
+import com.example.backend_darkitchen.Repository.DishRepository;
+import com.example.backend_darkitchen.Repository.OrderRepository;
+import com.example.backend_darkitchen.Repository.UserRepository;
+import com.example.backend_darkitchen.Service.AccountSearchService;
+import com.example.backend_darkitchen.Service.MenuCacheService;
+import com.example.backend_darkitchen.Service.TokenService;
+import com.example.backend_darkitchen.entity.Category;
+import com.example.backend_darkitchen.entity.Client;
+import com.example.backend_darkitchen.entity.Dish;
+import com.example.backend_darkitchen.entity.Order;
+import com.example.backend_darkitchen.entity.OrderItem;
+import com.example.backend_darkitchen.entity.OrderStatus;
+import com.example.backend_darkitchen.entity.User;
+import com.jayway.jsonpath.JsonPath;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Budget de requêtes SQL par endpoint : chaque appel doit rester sous un
+ * nombre fixe d'instructions, quel que soit le nombre de lignes renvoyées.
+ * Un N+1 réintroduit (association chargée ligne par ligne) fait échouer le
+ * test. Base H2 en mémoire en mode MySQL, remplie par les repositories.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:budget;MODE=MySQL;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "auth.token.secret=statement-budget-test-secret-0123456789",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.example.backend_darkitchen.Controller.StatementBudgetTest$StatementCounter"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class StatementBudgetTest {
+
+    private static final int CLIENTS = 6;
+    private static final int ORDERS_PER_CLIENT = 4;
+    private static final int DISHES = 12;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private DishRepository dishRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private MenuCacheService menuCacheService;
+
+    @Autowired
+    private AccountSearchService accountSearchService;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Long clientId;
+    private Long orderId;
+    private Long categoryId;
+    private Long dishId;
+    private String adminToken;
+    private String clientToken;
+    private String otherClientToken;
+
+    @BeforeAll
+    void seed() {
+        List<Category> categories = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Category category = new Category();
+            category.setName("Catégorie " + i);
+            category.setDescription("Description " + i);
+            category.setIcon("icon-" + i);
+            categories.add(categoryRepository.save(category));
+        }
+        categoryId = categories.get(0).getId();
+
+        List<Dish> dishes = new ArrayList<>();
+        for (int i = 0; i < DISHES; i++) {
+            Dish dish = new Dish("Plat " + i, "Description " + i, 40 + i, "plat-" + i + ".jpg",
+                    categories.get(i % categories.size()));
+            dish.setIsPopular(i % 3 == 0);
+            dishes.add(dishRepository.save(dish));
+        }
+        dishId = dishes.get(0).getId();
+        menuCacheService.rebuild();
+
+        adminToken = tokenService.issue(userRepository.save(new User("admin@darkitchen.ma", "secret",
+                "Admin Principal", "0600000001", User.UserRole.ADMIN)));
+        userRepository.save(new User("chef@darkitchen.ma", "secret", "Chef Cuisine", "0600000002",
+                User.UserRole.CHEF));
+        userRepository.save(new User("driver@darkitchen.ma", "secret", "Livreur Rapide", "0600000003",
+                User.UserRole.DRIVER));
+
+        for (int c = 0; c < CLIENTS; c++) {
+            Client client = new Client("Prénom" + c, "Nom" + c, "client" + c + "@mail.ma", "secret");
+            client.setPhoneNumber("06100000" + c);
+            client.setAddress(c + " rue des Tests");
+            client.setCity("Casablanca");
+            client = clientRepository.save(client);
+            if (clientId == null) {
+                clientId = client.getId();
+                clientToken = tokenService.issue(client);
+            } else if (otherClientToken == null) {
+                otherClientToken = tokenService.issue(client);
+            }
+            for (int o = 0; o < ORDERS_PER_CLIENT; o++) {
+                Order order = new Order(client, client.getAddress(), client.getPhoneNumber());
+                order.setStatus(o % 2 == 0 ? OrderStatus.EN_ATTENTE : OrderStatus.PRET);
+                for (int i = 0; i < 3; i++) {
+                    Dish dish = dishes.get((c + o + i) % dishes.size());
+                    OrderItem item = new OrderItem();
+                    item.setDish(dish);
+                    item.setQuantity(1 + i);
+                    item.setUnitPriceCents(Math.round(dish.getPrice() * 100));
+                    order.addItem(item);
+                }
+                order.calculateTotal();
+                order = orderRepository.save(order);
+                if (orderId == null) {
+                    orderId = order.getId();
+                }
+            }
+        }
+        // Données insérées sans passer par les services : index de recherche rechargé à la main
+        accountSearchService.load();
+    }
+
+    @Test
+    void menuIsServedWithoutQueries() throws Exception {
+        assertBudget(get("/api/dishes"), 0);
+        assertBudget(get("/api/categories"), 0);
+        assertBudget(get("/api/dishes/category/" + categoryId), 0);
+    }
+
+    @Test
+    void staffListsUseOneProjectionQuery() throws Exception {
+        assertBudget(asAdmin(get("/api/users")), 1);
+        assertBudget(asAdmin(get("/api/users/role/CHEF")), 1);
+        assertBudget(asAdmin(get("/api/users/search").param("query", "chef")), 1);
+    }
+
+    @Test
+    void clientListsUseOneProjectionQuery() throws Exception {
+        assertBudget(asAdmin(get("/api/clients")), 1);
+        assertBudget(asAdmin(get("/api/clients/search").param("query", "nom")), 1);
+    }
+
+    @Test
+    void orderPagesLoadItemsInOneQuery() throws Exception {
+        assertBudget(asAdmin(get("/api/orders/admin/all")), 2);
+        assertBudget(asAdmin(get("/api/orders/delivery/ready")), 2);
+        // Le client du jeton lit ses propres commandes : aucune requête de plus pour le vérifier
+        assertBudget(asClient(get("/api/orders/client/" + clientId)), 3);
+        assertBudget(asClient(get("/api/orders/client/" + clientId).param("sortBy", "total_desc")), 3);
+    }
+
+    @Test
+    void orderDetailUsesProjections() throws Exception {
+        assertBudget(asClient(get("/api/orders/" + orderId)), 2);
+    }
+
+    @Test
+    void reorderLoadsItemsWithTheOrder() throws Exception {
+        assertBudget(asAdmin(post("/api/orders/" + orderId + "/reorder")), 5);
+    }
+
+    @Test
+    void statusChangeIsOneConditionalUpdate() throws Exception {
+        // UPDATE conditionnel, vue relue, événement au journal
+        assertBudget(asAdmin(put("/api/orders/" + (orderId + 2) + "/update-status")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"status\":\"EN_PREPARATION\"}")), 3);
+        assertBudget(asAdmin(put("/api/orders/" + (orderId + 4) + "/cancel")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"reason\":\"test\"}")), 3);
+    }
+    
+    @Test
+    void rowsFetchedArePublishedPerRoute() throws Exception {
+        assertBudget(asAdmin(get("/api/users/role/CHEF")), 1);
+        DistributionSummary rows = meterRegistry.find("sql.request.rows")
+                .tags("method", "GET", "uri", "/api/users/role/{role}").summary();
+        // Une ligne lue par la projection : le seul cuisinier
+        assertEquals(1.0, rows.totalAmount() / rows.count());
+    }
+
+    @Test
+    void intakeStatusIsOnlyVisibleToItsClient() throws Exception {
+        StatementCounter.reset();
+        MvcResult accepted = mockMvc.perform(asClient(post("/api/orders/async"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"clientInfo\":{\"fullName\":\"Prénom0 Nom0\",\"email\":\"client0@mail.ma\","
+                                + "\"phoneNumber\":\"061000000\",\"deliveryAddress\":\"0 rue des Tests\"},"
+                                + "\"items\":[{\"dishId\":" + dishId + ",\"quantity\":1}]}"))
+                .andExpect(status().isAccepted())
+                .andReturn();
+        // Validation contre le menu en mémoire : aucune requête avant le 202
+        assertEquals(0, StatementCounter.count());
+        String reference = JsonPath.read(accepted.getResponse().getContentAsString(), "$.reference");
+
+        mockMvc.perform(asClient(get("/api/orders/intake/" + reference))).andExpect(status().isOk());
+        // Même réponse qu'une référence inconnue pour un autre compte
+        mockMvc.perform(get("/api/orders/intake/" + reference)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + otherClientToken))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(asAdmin(get("/api/orders/intake/" + reference))).andExpect(status().isNotFound());
+    }
+
+    private MockHttpServletRequestBuilder asAdmin(MockHttpServletRequestBuilder request) {
+        return request.header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken);
+    }
+
+    private MockHttpServletRequestBuilder asClient(MockHttpServletRequestBuilder request) {
+        return request.header(HttpHeaders.AUTHORIZATION, "Bearer " + clientToken);
+    }
+
+    private void assertBudget(MockHttpServletRequestBuilder request, int budget) throws Exception {
+        StatementCounter.reset();
+        MvcResult result = mockMvc.perform(request).andExpect(status().is2xxSuccessful()).andReturn();
+        int count = StatementCounter.count();
+        String endpoint = result.getRequest().getMethod() + " " + result.getRequest().getRequestURI();
+        System.out.println("Budget SQL " + endpoint + " : " + count + "/" + budget);
+        assertTrue(count <= budget, endpoint + " : " + count + " requête(s) pour un budget de " + budget
+                + " : " + StatementCounter.statements());
+    }
+
+    // Compte les instructions préparées par Hibernate sur le thread de la requête
+    // (les threads de fond, relais d'événements ou tâches planifiées, ne faussent pas le compte)
+    public static class StatementCounter implements StatementInspector {
+
+        private static final ThreadLocal<List<String>> STATEMENTS = ThreadLocal.withInitial(ArrayList::new);
+
+        static void reset() {
+            STATEMENTS.get().clear();
+        }
+
+        static int count() {
+            return STATEMENTS.get().size();
+        }
+
+        static List<String> statements() {
+            return new ArrayList<>(STATEMENTS.get());
+        }
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.get().add(sql);
+            return sql;
+        }
+    }
+}
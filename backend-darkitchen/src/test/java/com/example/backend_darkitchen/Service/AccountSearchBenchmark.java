@@ -0,0 +1,176 @@
+package com.example.backend_darkitchen.Service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Index trigrammes contre LOWER(...) LIKE '%terme%' : la vraie requête sur
+ * une table H2 en mémoire (likeQuery), et le même parcours en Java
+ * (likeScan, borne basse de la requête SQL, sans les E/S).
+ *
+ * Lancement : mvn test-compile puis
+ * java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)"
+ *      com.example.backend_darkitchen.Service.AccountSearchBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccountSearchBenchmark {
+
+    private static final String[] FIRST_NAMES = { "Soukaina", "Youssef", "Amine", "Fatima", "Mehdi", "Salma",
+            "Karim", "Nadia", "Omar", "Imane", "Hamza", "Leila", "Rachid", "Sara", "Ayoub", "Hajar" };
+    // Noms de famille composés de syllabes : quelques milliers de noms distincts
+    private static final String[] SYLLABLES = { "al", "ben", "cha", "dou", "el", "fas", "gue", "had", "ira",
+            "jet", "ket", "lah", "man", "nac", "oua", "taz", "zan", "rib", "sou", "mou" };
+    private static final String[] DOMAINS = { "gmail.com", "yahoo.fr", "outlook.com", "darkitchen.ma" };
+
+    @Param({ "10000", "200000" })
+    private int accounts;
+
+    private TrigramIndex index;
+    private List<String> likeRows;
+    // Requêtes tirées d'un compte existant : sous-chaîne d'email, même chose avec une faute, début de nom
+    private String substringQuery;
+    private String typoQuery;
+    private String prefixQuery;
+    private String shortQuery;
+
+    private Connection connection;
+    private PreparedStatement likeStatement;
+
+    @Setup
+    public void setup() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:accounts;MODE=MySQL", "sa", "");
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("CREATE TABLE clients (id BIGINT PRIMARY KEY, full_name VARCHAR(100), "
+                    + "email VARCHAR(100), phone_number VARCHAR(20))");
+        }
+        PreparedStatement insert = connection.prepareStatement("INSERT INTO clients VALUES (?, ?, ?, ?)");
+
+        Random random = new Random(42);
+        index = new TrigramIndex();
+        likeRows = new ArrayList<>(accounts);
+        for (int i = 0; i < accounts; i++) {
+            String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            String last = lastName(random);
+            String fullName = first + " " + last;
+            String email = (first + "." + last + i).replace(" ", "").toLowerCase(Locale.ROOT)
+                    + "@" + DOMAINS[random.nextInt(DOMAINS.length)];
+            String phone = "06" + (10000000 + random.nextInt(89999999));
+            index.put(i, fullName, email, phone);
+            likeRows.add(fullName.toLowerCase(Locale.ROOT) + "\u0000" + email);
+            insert.setLong(1, i);
+            insert.setString(2, fullName);
+            insert.setString(3, email);
+            insert.setString(4, phone);
+            insert.addBatch();
+            if (i % 1000 == 999) {
+                insert.executeBatch();
+            }
+            if (i == accounts / 2) {
+                substringQuery = email.substring(first.length() + 1, first.length() + 9);
+                typoQuery = substringQuery.charAt(1) + "" + substringQuery.charAt(0) + substringQuery.substring(2);
+                prefixQuery = last.substring(0, 3).toLowerCase(Locale.ROOT);
+                shortQuery = last.substring(0, 2).toLowerCase(Locale.ROOT);
+            }
+        }
+        insert.executeBatch();
+        insert.close();
+        // Requête de recherche d'origine, une page de 20
+        likeStatement = connection.prepareStatement("SELECT id FROM clients WHERE LOWER(full_name) LIKE ? "
+                + "OR LOWER(email) LIKE ? OR phone_number LIKE ? ORDER BY id LIMIT 20");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    private static String lastName(Random random) {
+        StringBuilder name = new StringBuilder();
+        for (int s = 0; s < 2 + random.nextInt(2); s++) {
+            name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+        return name.toString();
+    }
+
+    @Benchmark
+    public List<Long> trigramSubstring() {
+        return index.search(substringQuery, 0, 20);
+    }
+
+    @Benchmark
+    public List<Long> trigramTypo() {
+        return index.search(typoQuery, 0, 20);
+    }
+
+    @Benchmark
+    public List<Long> trigramPrefix() {
+        return index.search(prefixQuery, 0, 20);
+    }
+
+    @Benchmark
+    public List<Long> trigramShort() {
+        return index.search(shortQuery, 0, 20);
+    }
+
+    @Benchmark
+    public List<Long> likeQuery() throws SQLException {
+        String pattern = "%" + substringQuery + "%";
+        likeStatement.setString(1, pattern);
+        likeStatement.setString(2, pattern);
+        likeStatement.setString(3, pattern);
+        List<Long> results = new ArrayList<>();
+        try (ResultSet rows = likeStatement.executeQuery()) {
+            while (rows.next()) {
+                results.add(rows.getLong(1));
+            }
+        }
+        return results;
+    }
+
+    // LOWER(full_name) LIKE '%terme%' OR LOWER(email) LIKE '%terme%'
+    @Benchmark
+    public List<Long> likeScan() {
+        List<Long> results = new ArrayList<>();
+        for (int i = 0; i < likeRows.size(); i++) {
+            if (likeRows.get(i).contains(substringQuery)) {
+                results.add((long) i);
+            }
+        }
+        return results;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(AccountSearchBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.backend_darkitchen.Service;
+
+import com.example.backend_darkitchen.Repository.CategoryRepository;
+import com.example.backend_darkitchen.Repository.ClientRepository;
+import com.example.backend_darkitchen.Repository.DishRepository;
+import com.example.backend_darkitchen.dto.ClientInfoDTO;
+import com.example.backend_darkitchen.dto.OrderItemDTO;
+import com.example.backend_darkitchen.dto.OrderRequestDTO;
+import com.example.backend_darkitchen.entity.Category;
+import com.example.backend_darkitchen.entity.Client;
+import com.example.backend_darkitchen.entity.Dish;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Création de commande sur H2 (mode MySQL) pour des paniers de 1, 5 et 20
+ * lignes : instructions SQL préparées par commande (un batch d'INSERT compte
+ * pour une) et commandes par seconde, sur un seul thread. Le nombre
+ * d'instructions doit rester constant quelle que soit la taille du panier.
+ *
+ * Référence, même benchmark sur la même machine (deux exécutions) :
+ * <pre>
+ * panier  findById + save par ligne      lecture groupée + INSERT en batch   arbre actuel
+ *  1      5 instr.,  194-236 cmd/s       5 instr., 156-196 cmd/s            4 instr., 132-158 cmd/s
+ *  5      13 instr., 185-277 cmd/s       5 instr., 239-299 cmd/s            4 instr., 167-196 cmd/s
+ *  20     43 instr., 171-201 cmd/s       5 instr., 245-248 cmd/s            4 instr., 178-180 cmd/s
+ * </pre>
+ * Le débit varie peu : sur H2 en mémoire, un aller-retour ne coûte presque
+ * rien et le coût fixe par commande (transaction, journal d'événements)
+ * domine ; le gain en instructions vaut surtout face à une base distante.
+ *
+ * Hors de la suite par défaut (nom en *Benchmark) ; lancement :
+ * mvn test -Dtest=OrderCreationBenchmark
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:order-bench;MODE=MySQL;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "auth.token.secret=order-creation-benchmark-secret-0123456789",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.example.backend_darkitchen.Service.OrderCreationBenchmark$StatementCounter"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OrderCreationBenchmark {
+
+    private static final int[] BASKET_SIZES = { 1, 5, 20 };
+    private static final int DISHES = 30;
+    private static final int WARMUP_ORDERS = 200;
+    private static final int MEASURED_ORDERS = 1000;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private DishRepository dishRepository;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private MenuCacheService menuCacheService;
+
+    private final List<Long> dishIds = new ArrayList<>();
+    private Long clientId;
+
+    @BeforeAll
+    void seed() {
+        Category category = new Category();
+        category.setName("Benchmark");
+        category.setDescription("Plats du benchmark");
+        category.setIcon("icon");
+        category = categoryRepository.save(category);
+        for (int i = 0; i < DISHES; i++) {
+            dishIds.add(dishRepository.save(new Dish("Plat " + i, "Description " + i, 40 + i,
+                    "plat-" + i + ".jpg", category)).getId());
+        }
+        menuCacheService.rebuild();
+        // Client authentifié : createOrder reçoit l'id du jeton
+        clientId = clientRepository.save(new Client("Client", "Benchmark", "bench@mail.ma", "secret")).getId();
+    }
+
+    @Test
+    void createOrders() {
+        for (int items : BASKET_SIZES) {
+            OrderRequestDTO request = request(items);
+            for (int i = 0; i < WARMUP_ORDERS; i++) {
+                orderService.createOrder(request, clientId);
+            }
+
+            StatementCounter.reset();
+            long start = System.nanoTime();
+            for (int i = 0; i < MEASURED_ORDERS; i++) {
+                orderService.createOrder(request, clientId);
+            }
+            long elapsed = System.nanoTime() - start;
+
+            double statementsPerOrder = (double) StatementCounter.count() / MEASURED_ORDERS;
+            double ordersPerSecond = MEASURED_ORDERS / (elapsed / 1_000_000_000.0);
+            System.out.println(String.format(Locale.ROOT,
+                    "Panier de %2d ligne(s) : %.1f instruction(s)/commande, %.0f commandes/s",
+                    items, statementsPerOrder, ordersPerSecond));
+        }
+    }
+
+    private OrderRequestDTO request(int items) {
+        List<OrderItemDTO> lines = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            lines.add(new OrderItemDTO(dishIds.get(i % dishIds.size()), 1 + i % 3, null));
+        }
+        ClientInfoDTO clientInfo = new ClientInfoDTO("Client Benchmark", "bench@mail.ma", "0611111111", "1 rue du Banc");
+        return new OrderRequestDTO(clientInfo, lines, null, null);
+    }
+
+    // Instructions préparées par Hibernate sur le thread du benchmark (pas celles du relais d'événements)
+    public static class StatementCounter implements StatementInspector {
+
+        private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+        static void reset() {
+            COUNT.get()[0] = 0;
+        }
+
+        static int count() {
+            return COUNT.get()[0];
+        }
+
+        @Override
+        public String inspect(String sql) {
+            COUNT.get()[0]++;
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.backend_darkitchen.Service;
+
+import com.example.backend_darkitchen.Repository.OrderEventRecordRepository;
+import com.example.backend_darkitchen.Repository.ReadModelSnapshotRepository;
+import com.example.backend_darkitchen.dto.OrderEventDTO;
+import com.example.backend_darkitchen.entity.OrderEventRecord;
+import com.example.backend_darkitchen.entity.OrderStatus;
+import com.example.backend_darkitchen.entity.ReadModelSnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Reprise du journal au démarrage : un modèle de lecture repart de son
+ * instantané, rejoue les événements positionnés au-delà (y compris ceux
+ * validés avant l'arrêt mais jamais positionnés), puis le relais ne lui remet
+ * que les événements qu'il n'a pas encore vus.
+ */
+class OrderEventLogTest {
+
+    private final OrderEventRecordRepository repository = mock(OrderEventRecordRepository.class);
+    private final ReadModelSnapshotRepository snapshotRepository = mock(ReadModelSnapshotRepository.class);
+    private final RecordingModel model = new RecordingModel();
+    private OrderEventLog log;
+
+    @AfterEach
+    void stop() {
+        if (log != null) {
+            log.stop();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void restoresFromSnapshotReplaysTheTailThenSkipsWhatItAlreadyHas() {
+        List<OrderEventRecord> positioned = new ArrayList<>();
+        for (long position = 1; position <= 5; position++) {
+            positioned.add(record(position));
+        }
+        // Validé avant l'arrêt précédent, jamais vu par le relais
+        OrderEventRecord unsequenced = record(null);
+        OrderEventRecord live = record(7L);
+
+        when(repository.findMaxPosition()).thenReturn(5L);
+        when(repository.findByPositionIsNullOrderByIdAsc(any(Pageable.class)))
+                .thenReturn(List.of(unsequenced), List.of());
+        when(repository.findByPositionGreaterThanOrderByPositionAsc(eq(2L), any(Pageable.class)))
+                .thenReturn(List.of(positioned.get(2), positioned.get(3), positioned.get(4), unsequenced));
+        when(repository.findByPublishedFalseAndPositionIsNotNullOrderByPositionAsc(any(Pageable.class)))
+                .thenReturn(List.of(unsequenced, live), List.of());
+        when(snapshotRepository.findById("test"))
+                .thenReturn(Optional.of(new ReadModelSnapshot("test", 2L, "2")));
+
+        ObjectProvider<OrderReadModel> provider = mock(ObjectProvider.class);
+        when(provider.orderedStream()).thenAnswer(invocation -> Stream.of(model));
+
+        log = new OrderEventLog(repository, snapshotRepository, mock(ApplicationEventPublisher.class), provider,
+                mock(PlatformTransactionManager.class), 10, 90);
+        log.start();
+
+        assertEquals(6L, unsequenced.getPosition());
+        assertEquals(List.of(3L, 4L, 5L, 6L), model.applied);
+        verify(snapshotRepository).saveAll(anyList());
+
+        // Le relais remet 6 (pas encore publié) et 7 : seul 7 est nouveau pour le modèle
+        verify(repository, timeout(2000)).markPublished(anyList());
+        assertEquals(List.of(3L, 4L, 5L, 6L, 7L), model.applied);
+        assertEquals(7L, model.state);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rebuildsFromTheDatabaseWithoutSnapshot() {
+        when(repository.findMaxPosition()).thenReturn(4L);
+        when(repository.findByPositionIsNullOrderByIdAsc(any(Pageable.class))).thenReturn(List.of());
+        when(repository.findByPublishedFalseAndPositionIsNotNullOrderByPositionAsc(any(Pageable.class)))
+                .thenReturn(List.of());
+        when(snapshotRepository.findById("test")).thenReturn(Optional.empty());
+
+        ObjectProvider<OrderReadModel> provider = mock(ObjectProvider.class);
+        when(provider.orderedStream()).thenAnswer(invocation -> Stream.of(model));
+
+        log = new OrderEventLog(repository, snapshotRepository, mock(ApplicationEventPublisher.class), provider,
+                mock(PlatformTransactionManager.class), 10, 90);
+        log.start();
+
+        assertEquals(1, model.rebuilds);
+        assertEquals(List.of(), model.applied);
+        verify(repository, timeout(2000)).findByPublishedFalseAndPositionIsNotNullOrderByPositionAsc(any());
+        verify(repository, never()).findByPositionGreaterThanOrderByPositionAsc(anyLong(), any());
+    }
+
+    private static OrderEventRecord record(Long position) {
+        OrderEventRecord record = new OrderEventRecord(OrderEventDTO.STATUS_CHANGED, 1L, 1L,
+                OrderStatus.EN_ATTENTE, OrderStatus.EN_PREPARATION, 1000L, "chef");
+        record.setPosition(position);
+        return record;
+    }
+
+    // État = position du dernier événement appliqué
+    private static class RecordingModel implements OrderReadModel {
+        private final List<Long> applied = new ArrayList<>();
+        private long state;
+        private int rebuilds;
+
+        @Override
+        public String getReadModelName() {
+            return "test";
+        }
+
+        @Override
+        public String snapshot() {
+            return String.valueOf(state);
+        }
+
+        @Override
+        public boolean restore(String value) {
+            state = Long.parseLong(value);
+            return true;
+        }
+
+        @Override
+        public void rebuild() {
+            rebuilds++;
+        }
+
+        @Override
+        public void apply(OrderEventDTO event) {
+            applied.add(event.getPosition());
+            state = event.getPosition();
+        }
+    }
+}
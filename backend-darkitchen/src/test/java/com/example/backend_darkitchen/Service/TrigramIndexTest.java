@@ -0,0 +1,98 @@
+package com.example.backend_darkitchen.Service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrigramIndexTest {
+
+    private TrigramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TrigramIndex();
+        index.put(1, "Soukaina Sousou", "soukaina.sousou@gmail.com", "0611111111");
+        index.put(2, "Hélène Dupré", "helene.dupre@yahoo.fr", "0622222222");
+        index.put(3, "Youssef Benali", "youssef.b@darkitchen.ma", "0633333333");
+        index.put(4, "Amine Alaoui", "amine.alaoui@outlook.com", "0644444444");
+    }
+
+    @Test
+    void findsSubstringInsideAField() {
+        assertEquals(List.of(3L), index.search("chen.m", 0, 10));
+        assertEquals(List.of(4L), index.search("44444", 0, 10));
+    }
+
+    @Test
+    void ignoresAccentsAndCase() {
+        assertEquals(2L, index.search("helene", 0, 10).get(0));
+        assertEquals(2L, index.search("DUPRÉ", 0, 10).get(0));
+        assertEquals(1L, index.search("soukaïna", 0, 10).get(0));
+    }
+
+    @Test
+    void ranksWordPrefixFirst() {
+        index.put(5, "Alibenou Test", "test5@mail.ma", "0655555555");
+        List<Long> results = index.search("ben", 0, 10);
+        assertEquals(List.of(3L, 5L), results);
+    }
+
+    @Test
+    void fullPageOfWordStartsIsRankedByLengthThenId() {
+        for (int i = 0; i < 30; i++) {
+            // Sous-chaîne hors début de mot, plus courte : ne doit pas passer devant
+            index.put(100 + i, "Xben" + i);
+            index.put(200 + i, "Ben" + "n".repeat(i % 5) + " " + i);
+        }
+        assertEquals(List.of(200L, 205L, 201L, 206L, 210L), index.search("ben", 0, 5));
+    }
+
+    @Test
+    void shortQueriesScanTheTexts() {
+        assertEquals(List.of(4L), index.search("am", 0, 10));
+        List<Long> results = index.search("y", 0, 10);
+        // "youssef" commence par y ; "yahoo" aussi, mais le texte est plus long
+        assertEquals(List.of(3L, 2L), results);
+        assertTrue(index.search("zq", 0, 10).isEmpty());
+    }
+
+    @Test
+    void toleratesATypo() {
+        assertEquals(3L, index.search("yousef", 0, 10).get(0));
+    }
+
+    @Test
+    void removedDocumentsAreNoLongerFound() {
+        index.remove(3);
+        assertTrue(index.search("youssef", 0, 10).isEmpty());
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void updateReplacesTheOldText() {
+        index.put(4, "Amine Tazi", "amine.tazi@outlook.com", "0644444444");
+        assertTrue(index.search("alaoui", 0, 10).isEmpty());
+        assertEquals(List.of(4L), index.search("tazi", 0, 10));
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void repeatedUpdatesKeepTheIndexCompact() {
+        for (int round = 0; round < 3000; round++) {
+            index.put(1, "Soukaina Sousou", "soukaina" + round + "@gmail.com", "0611111111");
+        }
+        assertEquals(4, index.size());
+        assertEquals(List.of(1L), index.search("soukaina2999@", 0, 10));
+        assertTrue(index.documentCount() <= 2048, "documents alloués: " + index.documentCount());
+    }
+
+    @Test
+    void pagesThroughResults() {
+        List<Long> all = index.search("a", 0, 10);
+        assertEquals(all.subList(1, 3), index.search("a", 1, 2));
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.backend_darkitchen.config;
+
+import com.example.backend_darkitchen.Service.AuthenticatedAccount;
+import com.example.backend_darkitchen.Service.TokenService;
+import com.example.backend_darkitchen.entity.Client;
+import com.example.backend_darkitchen.entity.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuthTokenInterceptorTest {
+
+    private static final String SECRET = "auth-token-interceptor-test-secret-0123";
+
+    private TokenService tokenService;
+    private AuthTokenInterceptor interceptor;
+
+    private String adminToken;
+    private String chefToken;
+    private String clientToken;
+
+    @BeforeEach
+    void setUp() {
+        tokenService = tokenService(new MockEnvironment(), SECRET);
+        interceptor = new AuthTokenInterceptor();
+        ReflectionTestUtils.setField(interceptor, "tokenService", tokenService);
+        ReflectionTestUtils.setField(interceptor, "objectMapper", new ObjectMapper());
+
+        User admin = new User("admin@darkitchen.ma", "x", "Admin", "0600000001", User.UserRole.ADMIN);
+        admin.setId(1L);
+        User chef = new User("chef@darkitchen.ma", "x", "Chef", "0600000002", User.UserRole.CHEF);
+        chef.setId(2L);
+        Client client = new Client("Soukaina", "Sousou", "soukaina@mail.ma", "x");
+        client.setId(42L);
+        adminToken = tokenService.issue(admin);
+        chefToken = tokenService.issue(chef);
+        clientToken = tokenService.issue(client);
+    }
+
+    @Test
+    void menuAndLoginArePublic() throws Exception {
+        assertEquals(200, call("GET", "/api/dishes", null).getStatus());
+        assertEquals(200, call("GET", "/api/categories/3", null).getStatus());
+        assertEquals(200, call("POST", "/api/auth/login", null).getStatus());
+        assertEquals(200, call("OPTIONS", "/api/orders", null).getStatus());
+    }
+
+    @Test
+    void protectedEndpointsRequireAValidToken() throws Exception {
+        assertEquals(401, call("POST", "/api/orders", null).getStatus());
+        assertEquals(401, call("GET", "/api/orders/admin/all", null).getStatus());
+        assertEquals(401, call("GET", "/api/users", "not.a.token").getStatus());
+        assertTrue(call("GET", "/api/orders/admin/all", null).getContentAsString().contains("\"success\":false"));
+    }
+
+    @Test
+    void revokedTokenIsRejected() throws Exception {
+        AuthenticatedAccount account = tokenService.verify(clientToken);
+        assertNotNull(account);
+        tokenService.revoke(account);
+        assertEquals(401, call("GET", "/api/orders/client/42", clientToken).getStatus());
+    }
+
+    @Test
+    void rolesAreEnforced() throws Exception {
+        // Client : ses propres ressources seulement (propriété vérifiée ensuite par le contrôleur)
+        assertEquals(200, call("POST", "/api/orders", clientToken).getStatus());
+        assertEquals(200, call("GET", "/api/orders/client/42", clientToken).getStatus());
+        assertEquals(403, call("GET", "/api/orders/admin/all", clientToken).getStatus());
+        assertEquals(403, call("PUT", "/api/orders/7/update-status", clientToken).getStatus());
+        assertEquals(403, call("GET", "/api/clients", clientToken).getStatus());
+
+        // Personnel : écrans de service, mais pas l'administration
+        assertEquals(200, call("GET", "/api/orders/chef/pending", chefToken).getStatus());
+        assertEquals(200, call("PUT", "/api/users/2", chefToken).getStatus());
+        assertEquals(403, call("GET", "/api/users", chefToken).getStatus());
+        assertEquals(403, call("DELETE", "/api/dishes/5", chefToken).getStatus());
+
+        assertEquals(200, call("GET", "/api/users", adminToken).getStatus());
+        assertEquals(200, call("DELETE", "/api/dishes/5", adminToken).getStatus());
+    }
+
+    @Test
+    void specificRulesWinOverCatchAll() {
+        assertEquals(AuthTokenInterceptor.Access.ADMIN, AuthTokenInterceptor.accessFor("GET", "/api/clients/stats"));
+        assertEquals(AuthTokenInterceptor.Access.ACCOUNT, AuthTokenInterceptor.accessFor("GET", "/api/clients/12"));
+        assertEquals(AuthTokenInterceptor.Access.ACCOUNT, AuthTokenInterceptor.accessFor("GET", "/api/orders/12"));
+        assertEquals(AuthTokenInterceptor.Access.STAFF, AuthTokenInterceptor.accessFor("GET", "/api/orders/events"));
+        // Chemin inconnu : réservé au personnel par défaut
+        assertEquals(AuthTokenInterceptor.Access.STAFF, AuthTokenInterceptor.accessFor("GET", "/api/reports"));
+    }
+
+    @Test
+    void rulesMatchTheRoutedPath() {
+        // Spring MVC décode le chemin et retire les paramètres ";" avant de choisir le contrôleur
+        assertEquals(AuthTokenInterceptor.Access.ADMIN, AuthTokenInterceptor.accessFor("GET", "/api/%75sers"));
+        assertEquals(AuthTokenInterceptor.Access.ADMIN, AuthTokenInterceptor.accessFor("GET", "/api/users;x=1"));
+        assertEquals(AuthTokenInterceptor.Access.ADMIN, AuthTokenInterceptor.accessFor("DELETE", "/api/users;x=1/5"));
+        assertEquals(AuthTokenInterceptor.Access.ADMIN, AuthTokenInterceptor.accessFor("GET", "/api/%63lients"));
+        assertEquals(AuthTokenInterceptor.Access.ADMIN, AuthTokenInterceptor.accessFor("PUT", "/api/categories;v=2/3"));
+    }
+
+    @Test
+    void nonCanonicalPathsAreRejected() throws Exception {
+        assertEquals(400, call("GET", "/api/%75sers", chefToken).getStatus());
+        assertEquals(400, call("GET", "/api/users;x=1", chefToken).getStatus());
+        assertEquals(400, call("DELETE", "/api/users;x=1/5", chefToken).getStatus());
+        assertEquals(400, call("DELETE", "/api/dishes/%35", chefToken).getStatus());
+        assertEquals(400, call("GET", "/api/orders/../users", chefToken).getStatus());
+        assertEquals(400, call("GET", "/api//users", chefToken).getStatus());
+        assertEquals(400, call("GET", "/api/%2Fusers", null).getStatus());
+        // Caractère réservé encodé (e-mail dans l'URL) : chemin canonique
+        assertEquals(200, call("GET", "/api/auth/check-email/soukaina%40mail.ma", null).getStatus());
+    }
+
+    @Test
+    void streamAcceptsAStreamTokenInTheQueryOnly() throws Exception {
+        String streamToken = tokenService.issueStreamToken(tokenService.verify(chefToken));
+        assertEquals(200, callWithQueryToken("/api/orders/stream", streamToken).getStatus());
+        // Jeton de session dans l'URL, ou jeton de flux ailleurs : refusés
+        assertEquals(401, callWithQueryToken("/api/orders/stream", chefToken).getStatus());
+        assertEquals(401, callWithQueryToken("/api/orders/chef/pending", streamToken).getStatus());
+        assertEquals(401, call("GET", "/api/orders/chef/pending", streamToken).getStatus());
+
+        String clientStreamToken = tokenService.issueStreamToken(tokenService.verify(clientToken));
+        assertEquals(403, callWithQueryToken("/api/orders/stream", clientStreamToken).getStatus());
+    }
+
+    @Test
+    void emptySecretIsOnlyAcceptedWithTheDevProfile() {
+        assertThrows(IllegalStateException.class, () -> tokenService(new MockEnvironment(), ""));
+        MockEnvironment dev = new MockEnvironment();
+        dev.setActiveProfiles("dev");
+        TokenService devTokens = tokenService(dev, "");
+        assertNotNull(devTokens.verify(devTokens.issue(clientOf(7L))));
+    }
+
+    private MockHttpServletResponse call(String method, String path, String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        if (token != null) {
+            request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        boolean proceed = interceptor.preHandle(request, response, new Object());
+        assertEquals(proceed, response.getStatus() == 200);
+        return response;
+    }
+
+    private MockHttpServletResponse callWithQueryToken(String path, String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setParameter(AuthTokenInterceptor.STREAM_TOKEN_PARAMETER, token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, new Object());
+        return response;
+    }
+
+    private static TokenService tokenService(MockEnvironment environment, String secret) {
+        return new TokenService(new ObjectMapper(), new SimpleMeterRegistry(), environment, secret, 480, 60, 1000, 60);
+    }
+
+    private static Client clientOf(Long id) {
+        Client client = new Client("Client", "Test", "client@mail.ma", "x");
+        client.setId(id);
+        return client;
+    }
+}
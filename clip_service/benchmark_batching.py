@@ -0,0 +1,100 @@
+# Benchmark de débit de /embed-images : une requête par image contre des lots
+#
+#   python benchmark_batching.py --images ../backend-darkitchen/src/main/resources/static/images/dishes \
+#       --requests 128 --concurrency 16 --batch-size 16
+#
+# Mode "single" : chaque client envoie une image par appel (comportement sans regroupement).
+# Mode "batched" : les images sont envoyées par lots de --batch-size (ce que fait EmbeddingBatcher).
+import argparse
+import os
+import statistics
+import time
+import urllib.request
+import uuid
+from concurrent.futures import ThreadPoolExecutor
+
+IMAGE_EXTENSIONS = (".jpg", ".jpeg", ".png", ".webp")
+
+
+def load_images(folder):
+    files = sorted(f for f in os.listdir(folder) if f.lower().endswith(IMAGE_EXTENSIONS))
+    if not files:
+        raise SystemExit(f"Aucune image dans {folder}")
+    images = []
+    for name in files:
+        with open(os.path.join(folder, name), "rb") as f:
+            images.append((name, f.read()))
+    return images
+
+
+def post_images(url, images):
+    boundary = f"----bench{uuid.uuid4().hex}"
+    body = bytearray()
+    for name, data in images:
+        body += (
+            f"--{boundary}\r\n"
+            f'Content-Disposition: form-data; name="images"; filename="{name}"\r\n'
+            "Content-Type: application/octet-stream\r\n\r\n"
+        ).encode()
+        body += data + b"\r\n"
+    body += f"--{boundary}--\r\n".encode()
+
+    request = urllib.request.Request(
+        url + "/embed-images",
+        data=bytes(body),
+        headers={"Content-Type": f"multipart/form-data; boundary={boundary}"},
+    )
+    start = time.perf_counter()
+    with urllib.request.urlopen(request, timeout=120) as response:
+        response.read()
+    return time.perf_counter() - start
+
+
+def run(url, images, total, concurrency, batch_size):
+    # Découpe des `total` images à encoder en appels de `batch_size` images
+    calls = []
+    for start in range(0, total, batch_size):
+        calls.append([images[i % len(images)] for i in range(start, min(start + batch_size, total))])
+
+    started = time.perf_counter()
+    with ThreadPoolExecutor(max_workers=concurrency) as pool:
+        latencies = list(pool.map(lambda batch: post_images(url, batch), calls))
+    elapsed = time.perf_counter() - started
+
+    latencies.sort()
+    return {
+        "calls": len(calls),
+        "images_per_s": total / elapsed,
+        "p50_ms": statistics.median(latencies) * 1000,
+        "p95_ms": latencies[min(len(latencies) - 1, int(len(latencies) * 0.95))] * 1000,
+        "elapsed_s": elapsed,
+    }
+
+
+def main():
+    parser = argparse.ArgumentParser(description="Débit /embed-images : par requête vs par lots")
+    parser.add_argument("--url", default="http://localhost:8000")
+    parser.add_argument("--images", required=True, help="dossier d'images de test")
+    parser.add_argument("--requests", type=int, default=128, help="nombre total d'images à encoder")
+    parser.add_argument("--concurrency", type=int, default=16)
+    parser.add_argument("--batch-size", type=int, default=16)
+    parser.add_argument("--warmup", type=int, default=4)
+    args = parser.parse_args()
+
+    images = load_images(args.images)
+    for _ in range(args.warmup):
+        post_images(args.url, images[:1])
+
+    print(f"{args.requests} images, {args.concurrency} clients simultanés")
+    for mode, batch_size in (("single", 1), ("batched", args.batch_size)):
+        result = run(args.url, images, args.requests, args.concurrency, batch_size)
+        print(
+            f"{mode:8s} lots={batch_size:3d} appels={result['calls']:4d} "
+            f"débit={result['images_per_s']:7.1f} img/s "
+            f"p50={result['p50_ms']:7.1f} ms p95={result['p95_ms']:7.1f} ms "
+            f"total={result['elapsed_s']:.1f} s"
+        )
+
+
+if __name__ == "__main__":
+    main()
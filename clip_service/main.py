@@ -1,10 +1,16 @@
 # CORRECTION du fichier main.py pour FastAPI
 from fastapi import FastAPI, File, UploadFile, HTTPException
+from fastapi.concurrency import run_in_threadpool
 from fastapi.middleware.cors import CORSMiddleware
+from pydantic import BaseModel
+from typing import List, Optional
 import torch
 import open_clip
 from PIL import Image
 import io
+import os
+import json
+import sqlite3
 import logging
 
 # Configuration logging
@@ -27,65 +33,212 @@ preprocess = None
 tokenizer = None
 CATEGORIES = ["burger", "pizza", "tacos", "sandwich", "pasta", "salad"]
 
+# Embeddings texte des catégories, calculés une seule fois au chargement du modèle
+category_text_features = None
+
+BASE_DIR = os.path.dirname(os.path.abspath(__file__))
+DB_PATH = os.path.join(BASE_DIR, "dish_features.db")
+# Dossier racine des images des plats (Dish.image = "/images/dishes/...")
+IMAGES_DIR = os.environ.get(
+    "DISH_IMAGES_DIR",
+    os.path.join(BASE_DIR, "..", "backend-darkitchen", "src", "main", "resources", "static"),
+)
+
 def load_model():
-    global model, preprocess, tokenizer
+    global model, preprocess, tokenizer, category_text_features
     if model is None:
         try:
             print("Chargement du modèle CLIP...")
             # NOTE: Utilise 'openai' si 'laion2b_s34b_b79k' ne marche pas
             model, _, preprocess = open_clip.create_model_and_transforms(
-                'ViT-B-32', 
+                'ViT-B-32',
                 pretrained='openai'  # ou 'laion2b_s34b_b79k'
             )
             tokenizer = open_clip.get_tokenizer('ViT-B-32')
             model.eval()
+            with torch.no_grad():
+                category_text_features = normalize(model.encode_text(tokenizer(CATEGORIES)))
             print("Modèle CLIP chargé avec succès!")
         except Exception as e:
             print(f"Erreur chargement modèle: {e}")
             raise
 
+def normalize(features):
+    return features / features.norm(dim=-1, keepdim=True)
+
+def embed_pil_images(images):
+    # Un seul passage du modèle pour tout le lot d'images
+    batch = torch.stack([preprocess(img) for img in images])
+    with torch.no_grad():
+        return normalize(model.encode_image(batch))
+
+def open_image(image_bytes):
+    return Image.open(io.BytesIO(image_bytes)).convert("RGB")
+
+def get_db():
+    conn = sqlite3.connect(DB_PATH)
+    columns = [row[1] for row in conn.execute("PRAGMA table_info(dish_features)")]
+    if "image" not in columns:
+        conn.execute("ALTER TABLE dish_features ADD COLUMN image TEXT")
+    return conn
+
+@app.on_event("startup")
+def startup():
+    load_model()
+
 @app.post("/detect-category")
 async def detect_category(image: UploadFile = File(...)):
     try:
         # 1. Charger le modèle
         load_model()
-        
+
         # 2. Lire l'image
         image_bytes = await image.read()
         if not image_bytes:
             raise HTTPException(status_code=400, detail="Image vide")
-        
-        # 3. Ouvrir l'image
-        image_pil = Image.open(io.BytesIO(image_bytes)).convert("RGB")
-        
-        # 4. Préparer les inputs
-        image_input = preprocess(image_pil).unsqueeze(0)
-        
-        # 5. Tokenizer les catégories
-        text_inputs = tokenizer(CATEGORIES)
-        
-        # 6. Calculer les similarités
-        with torch.no_grad():
-            image_features = model.encode_image(image_input)
-            text_features = model.encode_text(text_inputs)
-            similarity = (image_features @ text_features.T).softmax(dim=-1)
-        
-        # 7. Trouver la catégorie
-        category_idx = similarity.argmax().item()
-        detected_category = CATEGORIES[category_idx]
-        confidence = similarity[0][category_idx].item()
-        
+
+        # 3. Décodage et inférence hors de la boucle d'événements (les catégories sont déjà encodées)
+        detected_category, confidence = await run_in_threadpool(classify, image_bytes)
+
         print(f"Catégorie détectée: {detected_category} (confiance: {confidence:.2%})")
-        
+
         return {
             "detected_category": detected_category,
             "confidence": confidence
         }
-        
+
+    except HTTPException:
+        raise
     except Exception as e:
         print(f"Erreur lors de la prédiction: {e}")
         raise HTTPException(status_code=500, detail=f"Erreur de prédiction: {str(e)}")
 
+def classify(image_bytes):
+    image_features = embed_pil_images([open_image(image_bytes)])
+    similarity = (100.0 * image_features @ category_text_features.T).softmax(dim=-1)
+    category_idx = similarity.argmax().item()
+    return CATEGORIES[category_idx], similarity[0][category_idx].item()
+
+# Embeddings normalisés (norme L2 = 1) d'un lot d'images, en un seul passage du modèle.
+# Le backend y regroupe les recherches simultanées : une image illisible ne fait
+# pas échouer le lot, elle reçoit un embedding null et un message dans "errors".
+# Seule la lecture des fichiers reste sur la boucle d'événements ; décodage et
+# inférence passent dans le pool de threads.
+@app.post("/embed-images")
+async def embed_images(images: List[UploadFile] = File(...)):
+    load_model()
+    try:
+        uploads = [(upload.filename, await upload.read()) for upload in images]
+        embeddings, dimension, errors = await run_in_threadpool(embed_uploads, uploads)
+
+        print(f"Lot de {len(images)} image(s) encodé")
+        return {
+            "model": "ViT-B-32",
+            "dimension": dimension,
+            "embeddings": embeddings,
+            "errors": errors,
+        }
+    except Exception as e:
+        print(f"Erreur lors de l'embedding: {e}")
+        raise HTTPException(status_code=500, detail=f"Erreur d'embedding: {str(e)}")
+
+def embed_uploads(uploads):
+    pil_images, positions = [], []
+    errors = [None] * len(uploads)
+    for i, (filename, image_bytes) in enumerate(uploads):
+        if not image_bytes:
+            errors[i] = f"Image vide: {filename}"
+            continue
+        try:
+            pil_images.append(open_image(image_bytes))
+            positions.append(i)
+        except Exception as e:
+            errors[i] = f"Image illisible: {filename} ({e})"
+
+    embeddings = [None] * len(uploads)
+    dimension = None
+    if pil_images:
+        features = embed_pil_images(pil_images)
+        dimension = features.shape[1]
+        for position, feature in zip(positions, features.tolist()):
+            embeddings[position] = feature
+    return embeddings, dimension, errors
+
+class DishDescriptor(BaseModel):
+    dishId: int
+    name: str
+    image: Optional[str] = None
+    categoryId: Optional[int] = None
+    categoryName: Optional[str] = None
+
+# Synchronise dish_features.db avec le menu envoyé par le backend :
+# seuls les plats nouveaux ou dont l'image a changé sont recalculés.
+# L'index ne contient que des embeddings d'images : un plat sans image
+# exploitable en est exclu (un embedding texte ne se compare pas à une photo
+# avec la même échelle de similarité) et sera ajouté quand son image existera.
+@app.post("/dish-features/sync")
+def sync_dish_features(dishes: List[DishDescriptor]):
+    load_model()
+    conn = get_db()
+    try:
+        known = {row[0]: row[1] for row in conn.execute("SELECT dish_id, image FROM dish_features")}
+        wanted_ids = set()
+
+        with_image, without_image = [], []
+        for dish in dishes:
+            path = os.path.join(IMAGES_DIR, dish.image.lstrip("/")) if dish.image else None
+            if not path or not os.path.isfile(path):
+                without_image.append(dish)
+                continue
+            wanted_ids.add(dish.dishId)
+            if dish.dishId not in known or known[dish.dishId] != dish.image:
+                with_image.append((dish, Image.open(path).convert("RGB")))
+
+        rows = []
+        if with_image:
+            features = embed_pil_images([img for _, img in with_image])
+            rows = [(d, f) for (d, _), f in zip(with_image, features.tolist())]
+
+        for dish, feature in rows:
+            conn.execute(
+                "INSERT OR REPLACE INTO dish_features "
+                "(dish_id, features_json, category_id, category_name, image) VALUES (?, ?, ?, ?, ?)",
+                (dish.dishId, json.dumps(feature), dish.categoryId, dish.categoryName, dish.image),
+            )
+        # Plats retirés du menu, et anciens embeddings texte des plats sans image
+        removed = [dish_id for dish_id in known if dish_id not in wanted_ids]
+        conn.executemany("DELETE FROM dish_features WHERE dish_id = ?", [(i,) for i in removed])
+        conn.commit()
+
+        print(f"dish_features synchronisé: {len(rows)} recalculé(s), {len(removed)} supprimé(s), "
+              f"{len(without_image)} plat(s) sans image hors index")
+        return list_dish_features(conn)
+    finally:
+        conn.close()
+
+# Embeddings précalculés de tous les plats
+@app.get("/dish-features")
+def get_dish_features():
+    conn = get_db()
+    try:
+        return list_dish_features(conn)
+    finally:
+        conn.close()
+
+def list_dish_features(conn):
+    dishes = [
+        {
+            "dishId": dish_id,
+            "categoryId": category_id,
+            "categoryName": category_name,
+            "embedding": json.loads(features_json),
+        }
+        for dish_id, features_json, category_id, category_name in conn.execute(
+            "SELECT dish_id, features_json, category_id, category_name FROM dish_features ORDER BY dish_id"
+        )
+    ]
+    return {"model": "ViT-B-32", "dishes": dishes}
+
 # Endpoint de test
 @app.get("/")
 async def root():
@@ -27,7 +27,7 @@ import {
   Snackbar
 } from "@mui/material";
 import { useState, useEffect } from "react";
-import axios from "axios";
+import { apiClient } from "../services/api";
 
 // Icons
 import EditIcon from "@mui/icons-material/Edit";
@@ -67,7 +67,7 @@ const AdminCategories = () => {
   try {
     setLoading(true);
     // Récupérer les catégories
-    const categoriesResponse = await axios.get(`${API_URL}/categories`);
+    const categoriesResponse = await apiClient.get(`${API_URL}/categories`);
     const categories = categoriesResponse.data;
     
     // Pour chaque catégorie, récupérer le nombre de plats
@@ -75,7 +75,7 @@ const AdminCategories = () => {
       categories.map(async (category) => {
         try {
           // Récupérer les plats de cette catégorie
-          const dishesResponse = await axios.get(`${API_URL}/dishes/category/${category.id}`);
+          const dishesResponse = await apiClient.get(`${API_URL}/dishes/category/${category.id}`);
           return {
             ...category,
             dishCount: dishesResponse.data.length
@@ -116,7 +116,7 @@ const getDishCount = (category) => {
         icon: newCategory.icon
       };
 
-      const response = await axios.post(`${API_URL}/categories`, categoryData);
+      const response = await apiClient.post(`${API_URL}/categories`, categoryData);
       
       // Ajouter la nouvelle catégorie à la liste
       setCategories([...categories, response.data]);
@@ -151,7 +151,7 @@ const getDishCount = (category) => {
         icon: editValue.icon
       };
 
-      await axios.put(`${API_URL}/categories/${editId}`, updateData);
+      await apiClient.put(`${API_URL}/categories/${editId}`, updateData);
       
       // Rafraîchir les données
       await fetchCategories();
@@ -171,7 +171,7 @@ const getDishCount = (category) => {
   const handleDelete = async (id) => {
     if (window.confirm("Êtes-vous sûr de vouloir supprimer cette catégorie ?")) {
       try {
-        await axios.delete(`${API_URL}/categories/${id}`);
+        await apiClient.delete(`${API_URL}/categories/${id}`);
         setCategories(categories.filter(cat => cat.id !== id));
         setSuccessMessage("Catégorie supprimée avec succès !");
       } catch (err) {
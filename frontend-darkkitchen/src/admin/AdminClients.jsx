@@ -54,6 +54,7 @@ import RefreshIcon from "@mui/icons-material/Refresh";
 import ShoppingCartIcon from "@mui/icons-material/ShoppingCart";
 import LoyaltyIcon from "@mui/icons-material/Loyalty";
 import RemoveCircleIcon from "@mui/icons-material/RemoveCircle";
+import { apiFetch } from "../services/api";
 
 const AdminClients = () => {
   const [clients, setClients] = useState([]);
@@ -75,7 +76,7 @@ const AdminClients = () => {
     setLoading(true);
     try {
       // Récupérer les clients
-      const clientsResponse = await fetch('http://localhost:8080/api/clients');
+      const clientsResponse = await apiFetch('http://localhost:8080/api/clients');
       
       if (!clientsResponse.ok) {
         throw new Error('Erreur lors de la récupération des clients');
@@ -85,7 +86,7 @@ const AdminClients = () => {
       setClients(clientsData);
 
       // Récupérer les statistiques globales
-      const statsResponse = await fetch('http://localhost:8080/api/clients/stats');
+      const statsResponse = await apiFetch('http://localhost:8080/api/clients/stats');
       if (statsResponse.ok) {
         const statsData = await statsResponse.json();
         setStats(statsData);
@@ -94,7 +95,7 @@ const AdminClients = () => {
       // Récupérer les statistiques par client (nombre de commandes)
       const statsPromises = clientsData.map(async (client) => {
         try {
-          const clientStatsResponse = await fetch(`http://localhost:8080/api/clients/${client.id}/stats`);
+          const clientStatsResponse = await apiFetch(`http://localhost:8080/api/clients/${client.id}/stats`);
           if (clientStatsResponse.ok) {
             const clientStatsData = await clientStatsResponse.json();
             return { clientId: client.id, stats: clientStatsData };
@@ -131,7 +132,7 @@ const AdminClients = () => {
   // Mettre à jour un client
   const handleUpdateClient = async () => {
     try {
-      const response = await fetch(`http://localhost:8080/api/clients/${editId}`, {
+      const response = await apiFetch(`http://localhost:8080/api/clients/${editId}`, {
         method: 'PUT',
         headers: {
           'Content-Type': 'application/json',
@@ -172,7 +173,7 @@ const AdminClients = () => {
       
       const method = currentStatus ? 'DELETE' : 'POST';
       
-      const response = await fetch(endpoint, {
+      const response = await apiFetch(endpoint, {
         method: method,
         headers: {
           'Content-Type': 'application/json',
@@ -202,7 +203,7 @@ const AdminClients = () => {
   // Supprimer définitivement un client (hard delete)
   const handleHardDelete = async () => {
     try {
-      const response = await fetch(`http://localhost:8080/api/clients/${hardDeleteId}/permanent`, {
+      const response = await apiFetch(`http://localhost:8080/api/clients/${hardDeleteId}/permanent`, {
         method: 'DELETE',
         headers: {
           'Content-Type': 'application/json',
@@ -211,7 +212,7 @@ const AdminClients = () => {
 
       if (!response.ok) {
         // Si l'endpoint permanent n'existe pas, utiliser l'endpoint normal
-        const deleteResponse = await fetch(`http://localhost:8080/api/clients/${hardDeleteId}`, {
+        const deleteResponse = await apiFetch(`http://localhost:8080/api/clients/${hardDeleteId}`, {
           method: 'DELETE',
           headers: {
             'Content-Type': 'application/json',
@@ -24,7 +24,7 @@ import {
   CurrencyExchange
 } from "@mui/icons-material";
 import { useEffect, useState } from "react";
-import axios from "axios";
+import { fetchAllOrderPages } from "../services/api";
 import { PieChart, Pie, Cell, ResponsiveContainer, Tooltip } from "recharts";
 
 const API_URL = "http://localhost:8080/api";
@@ -400,9 +400,8 @@ const AdminDashboard = () => {
       setLoading(true);
       setError(null);
       
-      // Récupérer toutes les commandes
-      const ordersResponse = await axios.get(`${API_URL}/orders/admin/all`);
-      const allOrders = ordersResponse.data.orders || ordersResponse.data;
+      // Récupérer toutes les commandes (toutes les pages du curseur)
+      const allOrders = await fetchAllOrderPages(`${API_URL}/orders/admin/all`);
       setOrders(allOrders);
       
       // Calculer les statistiques
@@ -44,7 +44,7 @@ import {
   Image as ImageIcon
 } from "@mui/icons-material";
 import { useState, useEffect } from "react";
-import axios from "axios";
+import { apiClient } from "../services/api";
 
 const API_URL = "http://localhost:8080/api";
 
@@ -77,18 +77,13 @@ const AdminMenu = () => {
   const [imagePreview, setImagePreview] = useState("");
   const [fileName, setFileName] = useState("");
 
-  const axiosInstance = axios.create({
-    baseURL: "http://localhost:8080",
-    headers: { 'Content-Type': 'application/json' }
-  });
-
   useEffect(() => { fetchData(); }, []);
 
   const fetchData = async () => {
     try {
       setLoading(true);
-      const dishesResponse = await axiosInstance.get("/api/dishes");
-      const categoriesResponse = await axiosInstance.get("/api/categories");
+      const dishesResponse = await apiClient.get("/dishes");
+      const categoriesResponse = await apiClient.get("/categories");
       setCategories(categoriesResponse.data);
 
       const transformedDishes = dishesResponse.data.map(dish => ({
@@ -156,7 +151,7 @@ const AdminMenu = () => {
       formData.append("image", imageFile);
     }
 
-    const response = await axios.post(`${API_URL}/dishes`, formData);
+    const response = await apiClient.post(`${API_URL}/dishes`, formData);
 
 
     await fetchData();
@@ -188,7 +183,7 @@ const AdminMenu = () => {
       formData.append("image", imageFile);
     }
 
-    await axios.put(`${API_URL}/dishes/${currentDish.id}`, formData);
+    await apiClient.put(`${API_URL}/dishes/${currentDish.id}`, formData);
 
 
     await fetchData();
@@ -206,7 +201,7 @@ const AdminMenu = () => {
     const dishToDelete = dishes.find(d => d.id === id);
     if (window.confirm(`Êtes-vous sûr de vouloir supprimer le plat "${dishToDelete?.name}" ?`)) {
       try {
-        await axiosInstance.delete(`/api/dishes/${id}`);
+        await apiClient.delete(`/dishes/${id}`);
         await fetchData();
         setSuccessMessage(`Plat "${dishToDelete?.name}" supprimé avec succès !`);
       } catch (err) {
@@ -31,7 +31,7 @@ import VisibilityOffIcon from "@mui/icons-material/VisibilityOff";
 import AdminPanelSettingsIcon from "@mui/icons-material/AdminPanelSettings";
 import RestaurantIcon from "@mui/icons-material/Restaurant";
 import LocalShippingIcon from "@mui/icons-material/LocalShipping";
-import { authService } from "../services/api";
+import { apiFetch, authService } from "../services/api";
 
 const AdminProfil = () => {
   const navigate = useNavigate();
@@ -89,10 +89,8 @@ const AdminProfil = () => {
       }
       
       // Récupérer les données complètes du serveur
-      const token = localStorage.getItem('token');
-      const response = await fetch(`http://localhost:8080/api/users/${currentUser.id}`, {
+      const response = await apiFetch(`http://localhost:8080/api/users/${currentUser.id}`, {
         headers: {
-          'Authorization': `Bearer ${token}`,
           'Content-Type': 'application/json'
         }
       });
@@ -193,11 +191,9 @@ const AdminProfil = () => {
 
     setSaving(true);
     try {
-      const token = localStorage.getItem('token');
-      const response = await fetch(`http://localhost:8080/api/users/${user.id}`, {
+      const response = await apiFetch(`http://localhost:8080/api/users/${user.id}`, {
         method: 'PUT',
         headers: {
-          'Authorization': `Bearer ${token}`,
           'Content-Type': 'application/json'
         },
         body: JSON.stringify({
@@ -271,13 +267,11 @@ const AdminProfil = () => {
 
     setSaving(true);
     try {
-      const token = localStorage.getItem('token');
       
       // Utiliser l'endpoint updateUser avec le mot de passe
-      const response = await fetch(`http://localhost:8080/api/users/${user.id}`, {
+      const response = await apiFetch(`http://localhost:8080/api/users/${user.id}`, {
         method: 'PUT',
         headers: {
-          'Authorization': `Bearer ${token}`,
           'Content-Type': 'application/json'
         },
         body: JSON.stringify({
@@ -13,7 +13,7 @@ import {
 } from "@mui/material";
 import { Link, useLocation, useNavigate } from "react-router-dom";
 import { useState, useEffect } from "react";
-import axios from "axios";
+import { fetchAllOrderPages } from "../services/api";
 
 // Icons
 import DashboardIcon from "@mui/icons-material/Dashboard";
@@ -55,8 +55,7 @@ const AdminSidebar = () => {
   // Récupérer les nouvelles commandes (EN_ATTENTE)
   const fetchPendingOrders = async () => {
     try {
-      const response = await axios.get(`${API_URL}/orders/by-status/EN_ATTENTE`);
-      const pendingOrders = response.data.orders || response.data || [];
+      const pendingOrders = await fetchAllOrderPages(`${API_URL}/orders/by-status/EN_ATTENTE`);
       setPendingOrdersCount(pendingOrders.length);
       
       // Calculer les notifications non lues
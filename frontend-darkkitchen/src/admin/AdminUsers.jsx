@@ -52,6 +52,7 @@ import CheckCircleIcon from "@mui/icons-material/CheckCircle";
 import WarningIcon from "@mui/icons-material/Warning";
 import SearchIcon from "@mui/icons-material/Search";
 import RefreshIcon from "@mui/icons-material/Refresh";
+import { apiFetch } from "../services/api";
 
 const roles = [
   { value: "ADMIN", label: "Administrateur", icon: <AdminPanelSettingsIcon />, color: "error" },
@@ -88,11 +89,9 @@ const AdminUsers = () => {
     setLoading(true);
     try {
       const userData = JSON.parse(localStorage.getItem('user') || '{}');
-      const token = localStorage.getItem('token');
       
-      const response = await fetch('http://localhost:8080/api/users', {
+      const response = await apiFetch('http://localhost:8080/api/users', {
         headers: {
-          'Authorization': `Bearer ${token}`,
           'Content-Type': 'application/json'
         }
       });
@@ -131,11 +130,9 @@ const AdminUsers = () => {
     }
 
     try {
-      const token = localStorage.getItem('token');
-      const response = await fetch('http://localhost:8080/api/users', {
+      const response = await apiFetch('http://localhost:8080/api/users', {
         method: 'POST',
         headers: {
-          'Authorization': `Bearer ${token}`,
           'Content-Type': 'application/json'
         },
         body: JSON.stringify(newUser)
@@ -174,11 +171,9 @@ const AdminUsers = () => {
   // Mettre à jour un utilisateur
   const handleUpdateUser = async () => {
     try {
-      const token = localStorage.getItem('token');
-      const response = await fetch(`http://localhost:8080/api/users/${editId}`, {
+      const response = await apiFetch(`http://localhost:8080/api/users/${editId}`, {
         method: 'PUT',
         headers: {
-          'Authorization': `Bearer ${token}`,
           'Content-Type': 'application/json'
         },
         body: JSON.stringify(editData)
@@ -210,11 +205,9 @@ const AdminUsers = () => {
   // Supprimer un utilisateur
   const handleDeleteUser = async () => {
     try {
-      const token = localStorage.getItem('token');
-      const response = await fetch(`http://localhost:8080/api/users/${deleteId}`, {
+      const response = await apiFetch(`http://localhost:8080/api/users/${deleteId}`, {
         method: 'DELETE',
         headers: {
-          'Authorization': `Bearer ${token}`,
           'Content-Type': 'application/json'
         }
       });
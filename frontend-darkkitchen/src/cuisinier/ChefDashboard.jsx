@@ -30,7 +30,7 @@ import {
   HourglassEmpty
 } from "@mui/icons-material";
 import { PieChart, Pie, Cell, ResponsiveContainer, Tooltip, BarChart, Bar, XAxis, YAxis, CartesianGrid } from 'recharts';
-import { orderService } from '../services/api';
+import { orderService, subscribeToOrderEvents } from '../services/api';
 
 const StatCard = ({ title, value, change, icon, color = "warning", loading = false }) => {
   const colorMap = {
@@ -405,10 +405,8 @@ const ChefDashboard = () => {
   useEffect(() => {
     fetchDashboardData();
     
-    // Rafraîchir toutes les 30 secondes
-    const interval = setInterval(fetchDashboardData, 30000);
-    
-    return () => clearInterval(interval);
+    // Rechargé à chaque événement de commande (flux SSE) au lieu d'un intervalle
+    return subscribeToOrderEvents(fetchDashboardData);
   }, []);
 
   return (
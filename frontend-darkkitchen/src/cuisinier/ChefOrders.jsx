@@ -19,7 +19,7 @@ import {
   DialogContent,
   DialogActions
 } from '@mui/material';
-import { orderService, authService } from '../services/api';
+import { orderService, authService, subscribeToOrderEvents } from '../services/api';
 import { useNavigate } from 'react-router-dom';
 
 // Icons
@@ -127,9 +127,8 @@ const ChefOrders = () => {
   useEffect(() => {
     loadChefOrders();
     
-    // Rafraîchir toutes les 30 secondes pour nouvelles commandes
-    const interval = setInterval(loadChefOrders, 30000);
-    return () => clearInterval(interval);
+    // Rechargé à chaque événement de commande (flux SSE) au lieu d'un intervalle
+    return subscribeToOrderEvents(loadChefOrders);
   }, []);
 
   // Compter les commandes par statut
@@ -40,7 +40,7 @@ import LocalDiningIcon from "@mui/icons-material/LocalDining";
 import TodayIcon from "@mui/icons-material/Today";
 import CheckCircleIcon from "@mui/icons-material/CheckCircle";
 import PendingIcon from "@mui/icons-material/Pending";
-import { authService } from "../services/api";
+import { apiFetch, authService } from "../services/api";
 
 const ChefProfil = () => {
   const navigate = useNavigate();
@@ -111,10 +111,8 @@ const ChefProfil = () => {
       }
       
       // Récupérer les données complètes du serveur
-      const token = localStorage.getItem('token');
-      const response = await fetch(`http://localhost:8080/api/users/${currentUser.id}`, {
+      const response = await apiFetch(`http://localhost:8080/api/users/${currentUser.id}`, {
         headers: {
-          'Authorization': `Bearer ${token}`,
           'Content-Type': 'application/json'
         }
       });
@@ -191,10 +189,8 @@ const ChefProfil = () => {
   // Charger les statistiques du chef
   const loadChefStats = async (chefId) => {
     try {
-      const token = localStorage.getItem('token');
-      const response = await fetch(`http://localhost:8080/api/chefs/${chefId}/stats`, {
+      const response = await apiFetch(`http://localhost:8080/api/chefs/${chefId}/stats`, {
         headers: {
-          'Authorization': `Bearer ${token}`,
           'Content-Type': 'application/json'
         }
       });
@@ -254,11 +250,9 @@ const ChefProfil = () => {
 
     setSaving(true);
     try {
-      const token = localStorage.getItem('token');
-      const response = await fetch(`http://localhost:8080/api/users/${chef.id}`, {
+      const response = await apiFetch(`http://localhost:8080/api/users/${chef.id}`, {
         method: 'PUT',
         headers: {
-          'Authorization': `Bearer ${token}`,
           'Content-Type': 'application/json'
         },
         body: JSON.stringify({
@@ -334,13 +328,11 @@ const ChefProfil = () => {
 
     setSaving(true);
     try {
-      const token = localStorage.getItem('token');
       
       // Utiliser l'endpoint updateUser avec le mot de passe
-      const response = await fetch(`http://localhost:8080/api/users/${chef.id}`, {
+      const response = await apiFetch(`http://localhost:8080/api/users/${chef.id}`, {
         method: 'PUT',
         headers: {
-          'Authorization': `Bearer ${token}`,
           'Content-Type': 'application/json'
         },
         body: JSON.stringify({
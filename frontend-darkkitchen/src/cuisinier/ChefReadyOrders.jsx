@@ -18,7 +18,7 @@ import {
   Badge,
    Button
 } from '@mui/material';
-import { orderService, authService } from '../services/api';
+import { orderService, authService, subscribeToOrderEvents } from '../services/api';
 import { useNavigate } from 'react-router-dom';
 
 // Icons
@@ -156,9 +156,8 @@ const ChefReadyOrders = () => {
   useEffect(() => {
     loadOrders();
     
-    // Rafraîchir toutes les 60 secondes
-    const interval = setInterval(loadOrders, 60000);
-    return () => clearInterval(interval);
+    // Rechargé à chaque événement de commande (flux SSE) au lieu d'un intervalle
+    return subscribeToOrderEvents(loadOrders);
   }, []);
 
   if (loading && orders.length === 0) {
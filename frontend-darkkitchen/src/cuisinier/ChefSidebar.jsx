@@ -19,7 +19,7 @@ import CheckCircleIcon from "@mui/icons-material/CheckCircle";
 import PersonIcon from "@mui/icons-material/Person";
 import LogoutIcon from "@mui/icons-material/Logout";
 import DashboardIcon from "@mui/icons-material/Dashboard";
-import { authService } from "../services/api";
+import { apiFetch, authService } from "../services/api";
 
 const ChefSidebar = () => {
   const location = useLocation();
@@ -31,11 +31,11 @@ const ChefSidebar = () => {
 
   // Fonction simple pour compter les commandes en préparation
   const updateOrderCount = () => {
-    // Si vous avez un endpoint spécifique pour les commandes en préparation
-    fetch('http://localhost:8080/api/orders/by-status/EN_PREPARATION')
+    // Compteurs par statut tenus par le serveur : la liste paginée ne donne que la première page
+    apiFetch('http://localhost:8080/api/orders/stats/simple')
       .then(response => response.json())
       .then(data => {
-        setPreparingOrders(data.orders?.length || 0);
+        setPreparingOrders(data.stats?.enPreparation || 0);
       })
       .catch(() => {
         // Valeur par défaut si l'API n'est pas disponible
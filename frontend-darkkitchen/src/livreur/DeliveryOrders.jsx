@@ -25,7 +25,7 @@ import {
   DialogActions,
   TextField
 } from '@mui/material';
-import { orderService, authService } from '../services/api';
+import { orderService, authService, subscribeToOrderEvents } from '../services/api';
 import { useNavigate } from 'react-router-dom';
 
 // Icons
@@ -158,9 +158,8 @@ const DeliveryOrders = () => {
   useEffect(() => {
     loadDeliveryOrders();
     
-    // Rafraîchir toutes les 20 secondes
-    const interval = setInterval(loadDeliveryOrders, 20000);
-    return () => clearInterval(interval);
+    // Rechargé à chaque événement de commande (flux SSE) au lieu d'un intervalle
+    return subscribeToOrderEvents(loadDeliveryOrders);
   }, []);
 
   if (loading && readyOrders.length === 0 && activeDeliveries.length === 0) {
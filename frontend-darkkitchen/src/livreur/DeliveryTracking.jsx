@@ -26,7 +26,7 @@ import {
   Paper,
   Divider
 } from '@mui/material';
-import { orderService, authService } from '../services/api';
+import { orderService, authService, subscribeToOrderEvents } from '../services/api';
 import { useNavigate } from 'react-router-dom';
 
 // Icons
@@ -222,9 +222,8 @@ const DeliveryTracking = () => {
   useEffect(() => {
     loadDeliveryOrders();
     
-    // Rafraîchir toutes les 30 secondes
-    const interval = setInterval(loadDeliveryOrders, 30000);
-    return () => clearInterval(interval);
+    // Rechargé à chaque événement de commande (flux SSE) au lieu d'un intervalle
+    return subscribeToOrderEvents(loadDeliveryOrders);
   }, []);
 
   if (loading && activeDeliveries.length === 0 && recentDelivered.length === 0) {
@@ -36,7 +36,7 @@ import {
   Update
 } from "@mui/icons-material";
 import { useState, useEffect } from "react";
-import { orderService, authService } from "../services/api";
+import { orderService, authService, subscribeToOrderEvents } from "../services/api";
 
 // Composant de carte statistique réutilisable
 const DriverStatCard = ({ title, value, icon, color = "primary", unit = "", subtitle = "" }) => (
@@ -546,8 +546,8 @@ const DriverDashboard = () => {
 
   useEffect(() => {
     loadDashboardData();
-    const interval = setInterval(loadDashboardData, 30000);
-    return () => clearInterval(interval);
+    // Rechargé à chaque événement de commande (flux SSE) au lieu d'un intervalle
+    return subscribeToOrderEvents(loadDashboardData);
   }, []);
 
   if (loading) {
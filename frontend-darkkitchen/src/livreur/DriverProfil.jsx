@@ -42,7 +42,7 @@ import PendingIcon from "@mui/icons-material/Pending";
 import LocationOnIcon from "@mui/icons-material/LocationOn";
 import SpeedIcon from "@mui/icons-material/Speed";
 import BadgeIcon from "@mui/icons-material/Badge";
-import { authService } from "../services/api";
+import { apiFetch, authService } from "../services/api";
 
 const DriverProfil = () => {
   const navigate = useNavigate();
@@ -118,10 +118,8 @@ const DriverProfil = () => {
       }
       
       // Récupérer les données complètes du serveur
-      const token = localStorage.getItem('token');
-      const response = await fetch(`http://localhost:8080/api/users/${currentUser.id}`, {
+      const response = await apiFetch(`http://localhost:8080/api/users/${currentUser.id}`, {
         headers: {
-          'Authorization': `Bearer ${token}`,
           'Content-Type': 'application/json'
         }
       });
@@ -207,10 +205,8 @@ const DriverProfil = () => {
   // Charger les statistiques du chauffeur
   const loadDriverStats = async (driverId) => {
     try {
-      const token = localStorage.getItem('token');
-      const response = await fetch(`http://localhost:8080/api/drivers/${driverId}/stats`, {
+      const response = await apiFetch(`http://localhost:8080/api/drivers/${driverId}/stats`, {
         headers: {
-          'Authorization': `Bearer ${token}`,
           'Content-Type': 'application/json'
         }
       });
@@ -282,11 +278,9 @@ const DriverProfil = () => {
 
     setSaving(true);
     try {
-      const token = localStorage.getItem('token');
-      const response = await fetch(`http://localhost:8080/api/users/${driver.id}`, {
+      const response = await apiFetch(`http://localhost:8080/api/users/${driver.id}`, {
         method: 'PUT',
         headers: {
-          'Authorization': `Bearer ${token}`,
           'Content-Type': 'application/json'
         },
         body: JSON.stringify({
@@ -368,12 +362,10 @@ const DriverProfil = () => {
 
     setSaving(true);
     try {
-      const token = localStorage.getItem('token');
       
-      const response = await fetch(`http://localhost:8080/api/users/${driver.id}`, {
+      const response = await apiFetch(`http://localhost:8080/api/users/${driver.id}`, {
         method: 'PUT',
         headers: {
-          'Authorization': `Bearer ${token}`,
           'Content-Type': 'application/json'
         },
         body: JSON.stringify({
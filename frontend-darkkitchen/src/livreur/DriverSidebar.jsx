@@ -29,8 +29,7 @@ import DashboardIcon from "@mui/icons-material/Dashboard";
 import LogoutIcon from "@mui/icons-material/Logout";
 import NotificationsIcon from "@mui/icons-material/Notifications";
 import CircleIcon from "@mui/icons-material/Circle";
-import { authService } from "../services/api";
-import axios from "axios";
+import { apiClient, authService, subscribeToOrderEvents } from "../services/api";
 
 const API_URL = "http://localhost:8080/api";
 
@@ -48,14 +47,13 @@ const DriverSidebar = () => {
   // Charger les commandes prêtes
   useEffect(() => {
     fetchReadyOrders();
-    // Polling toutes les 30 secondes pour nouvelles commandes
-    const interval = setInterval(fetchReadyOrders, 30000);
-    return () => clearInterval(interval);
+    // Rechargé à chaque événement de commande (flux SSE) au lieu d'un intervalle
+    return subscribeToOrderEvents(fetchReadyOrders);
   }, []);
 
   const fetchReadyOrders = async () => {
     try {
-      const response = await axios.get(`${API_URL}/orders/delivery/ready`);
+      const response = await apiClient.get(`${API_URL}/orders/delivery/ready`);
       setReadyOrders(response.data.orders || response.data || []);
     } catch (error) {
       console.error("Erreur chargement commandes prêtes:", error);
@@ -80,7 +78,7 @@ const DriverSidebar = () => {
 
   const handleAcceptOrder = async (orderId) => {
     try {
-      await axios.put(`${API_URL}/orders/${orderId}/update-status`, {
+      await apiClient.put(`${API_URL}/orders/${orderId}/update-status`, {
         status: "EN_LIVRAISON",
         updatedBy: "driver"
       });
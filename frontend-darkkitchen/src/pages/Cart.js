@@ -1,4 +1,4 @@
-import React, { useState, useEffect } from 'react';
+import React, { useState, useEffect, useRef } from 'react';
 import {
   Container, Box, Typography, Button, Grid, Card, CardContent,
   CardMedia, IconButton, TextField, Divider, Paper, Alert as MuiAlert,
@@ -37,6 +37,8 @@ const Cart = () => {
   const [error, setError] = useState(null);
   const [success, setSuccess] = useState(false);
   const [orderId, setOrderId] = useState(null);
+  // Clé d'idempotence conservée tant que la commande n'a pas reçu de réponse du serveur
+  const idempotencyKeyRef = useRef(null);
   const [snackbar, setSnackbar] = useState({ open: false, message: '', severity: 'success' });
   
   // États pour l'authentification
@@ -392,17 +394,24 @@ const Cart = () => {
 
       console.log('Submitting order data:', orderData);
 
-      // Créer la commande
-      const result = await orderService.createOrder(orderData);
+      // Créer la commande (la même clé est renvoyée si le réseau a coupé)
+      if (!idempotencyKeyRef.current) {
+        idempotencyKeyRef.current = window.crypto?.randomUUID
+          ? window.crypto.randomUUID()
+          : `${Date.now()}-${Math.random().toString(36).slice(2)}`;
+      }
+      const result = await orderService.createOrder(orderData, idempotencyKeyRef.current);
+      idempotencyKeyRef.current = null;
 
       if (result.success || result.orderId) {
         // Succès
         setOrderId(result.orderId || result.id);
         setSuccess(true);
         
-        // Sauvegarder l'utilisateur si création de compte
+        // Mettre à jour l'utilisateur connecté (jeton conservé)
         if (result.clientId || result.client) {
           const userData = {
+            ...authService.getCurrentUser(),
             id: result.clientId || result.client?.id,
             email: clientInfo.email,
             fullName: clientInfo.fullName,
@@ -425,6 +434,10 @@ const Cart = () => {
       }
 
     } catch (err) {
+      // Réponse reçue du serveur : la prochaine tentative est une nouvelle commande
+      if (!(err instanceof TypeError)) {
+        idempotencyKeyRef.current = null;
+      }
       console.error('Erreur de commande:', err);
       setError(err.message || 'Erreur lors de la commande');
       showSnackbar(err.message || 'Erreur lors de la commande', 'error');
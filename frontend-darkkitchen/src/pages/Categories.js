@@ -21,6 +21,7 @@ import LunchDiningIcon from '@mui/icons-material/LunchDining';
 import IcecreamIcon from '@mui/icons-material/Icecream';
 import LocalBarIcon from '@mui/icons-material/LocalBar';
 import RiceBowlIcon from '@mui/icons-material/RiceBowl';
+import { apiFetch } from '../services/api';
 
 // Mappage des émojis aux icônes Material-UI
 const emojiToIconMap = {
@@ -160,7 +161,7 @@ const Categories = () => {
         setError(null);
         
         // 1. Récupérer les catégories
-        const categoriesResponse = await fetch('http://localhost:8080/api/categories');
+        const categoriesResponse = await apiFetch('http://localhost:8080/api/categories');
         
         if (!categoriesResponse.ok) {
           throw new Error(`Erreur lors de la récupération des catégories: ${categoriesResponse.status}`);
@@ -172,7 +173,7 @@ const Categories = () => {
         // 2. Récupérer tous les plats
         let dishesData = [];
         try {
-          const dishesResponse = await fetch('http://localhost:8080/api/dishes');
+          const dishesResponse = await apiFetch('http://localhost:8080/api/dishes');
           if (dishesResponse.ok) {
             dishesData = await dishesResponse.json();
             console.log('Plats API:', dishesData);
@@ -13,6 +13,7 @@ import AddIcon from '@mui/icons-material/Add';
 import RemoveIcon from '@mui/icons-material/Remove';
 import ShoppingCartIcon from '@mui/icons-material/ShoppingCart';
 import CategoryIcon from '@mui/icons-material/Category';
+import { apiFetch } from '../services/api';
 
 const Home = () => {
   const [categories, setCategories] = useState([]);
@@ -28,13 +29,13 @@ const Home = () => {
         setLoading(true);
         
         // Récupérer les catégories
-        const categoriesResponse = await fetch('http://localhost:8080/api/categories');
+        const categoriesResponse = await apiFetch('http://localhost:8080/api/categories');
         if (!categoriesResponse.ok) throw new Error('Erreur catégories');
         const categoriesData = await categoriesResponse.json();
         setCategories(categoriesData);
 
         // Récupérer tous les plats
-        const dishesResponse = await fetch('http://localhost:8080/api/dishes');
+        const dishesResponse = await apiFetch('http://localhost:8080/api/dishes');
         if (!dishesResponse.ok) throw new Error('Erreur plats');
         const dishesData = await dishesResponse.json();
         setDishes(dishesData);
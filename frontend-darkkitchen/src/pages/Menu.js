@@ -25,6 +25,7 @@ import AddIcon from '@mui/icons-material/Add';
 import RemoveIcon from '@mui/icons-material/Remove';
 import ScheduleIcon from '@mui/icons-material/Schedule';
 import ImageSearchIcon from '@mui/icons-material/ImageSearch';
+import { apiFetch } from '../services/api';
 
 const Menu = () => {
   const [searchParams] = useSearchParams();
@@ -44,12 +45,12 @@ const Menu = () => {
       try {
         setLoading(true);
 
-        const dishesResponse = await fetch('http://localhost:8080/api/dishes');
+        const dishesResponse = await apiFetch('http://localhost:8080/api/dishes');
         if (!dishesResponse.ok) throw new Error('Erreur HTTP pour les plats');
         const dishesData = await dishesResponse.json();
         setDishes(dishesData);
 
-        const categoriesResponse = await fetch('http://localhost:8080/api/categories');
+        const categoriesResponse = await apiFetch('http://localhost:8080/api/categories');
         if (!categoriesResponse.ok) throw new Error('Erreur HTTP pour les catégories');
         const categoriesData = await categoriesResponse.json();
         setCategories(categoriesData);
@@ -113,7 +114,7 @@ const handleImageSearch = async (file) => {
     const formData = new FormData();
     formData.append('image', file);
 
-    const response = await fetch(
+    const response = await apiFetch(
       'http://localhost:8080/api/dishes/search-by-image',
       {
         method: 'POST',
@@ -1,10 +1,11 @@
 // services/CategoryService.js
+import { apiFetch } from './api';
 const API_BASE = "http://localhost:8080/api";
 
 export const CategoryService = {
   getAllCategories: async () => {
     try {
-      const response = await fetch(`${API_BASE}/categories`);
+      const response = await apiFetch(`${API_BASE}/categories`);
       if (!response.ok) throw new Error("Erreur lors de la récupération des catégories");
       return await response.json();
     } catch (error) {
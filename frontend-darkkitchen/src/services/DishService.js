@@ -1,10 +1,11 @@
 // services/DishService.js
+import { apiFetch } from './api';
 const API_BASE = "http://localhost:8080/api";
 
 export const DishService = {
   getFeaturedDishes: async () => {
     try {
-      const response = await fetch(`${API_BASE}/dishes/featured`);
+      const response = await apiFetch(`${API_BASE}/dishes/featured`);
       if (!response.ok) throw new Error("Erreur lors de la récupération des plats populaires");
       return await response.json();
     } catch (error) {
@@ -15,7 +16,7 @@ export const DishService = {
 
   getAllDishes: async () => {
     try {
-      const response = await fetch(`${API_BASE}/dishes`);
+      const response = await apiFetch(`${API_BASE}/dishes`);
       if (!response.ok) throw new Error("Erreur lors de la récupération des plats");
       return await response.json();
     } catch (error) {
@@ -26,7 +27,7 @@ export const DishService = {
 
   getDishesByCategory: async (categoryId) => {
     try {
-      const response = await fetch(`${API_BASE}/dishes/category/${categoryId}`);
+      const response = await apiFetch(`${API_BASE}/dishes/category/${categoryId}`);
       if (!response.ok) throw new Error("Erreur lors de la récupération des plats par catégorie");
       return await response.json();
     } catch (error) {
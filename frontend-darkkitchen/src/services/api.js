@@ -1,5 +1,25 @@
+import axios from 'axios';
+
 const API_BASE_URL = 'http://localhost:8080/api';
 
+// Client de l'API : tous les appels au backend passent par apiFetch (fetch) ou
+// apiClient (axios), qui ajoutent le jeton de l'utilisateur connecté.
+// Le jeton de la session remplace un éventuel en-tête Authorization fourni par l'appelant.
+export const apiFetch = (url, options = {}) => fetch(url, {
+  ...options,
+  headers: { ...options.headers, ...authService.authHeaders() }
+});
+
+export const apiClient = axios.create({ baseURL: API_BASE_URL });
+
+apiClient.interceptors.request.use(config => {
+  const { Authorization } = authService.authHeaders();
+  if (Authorization) {
+    config.headers.Authorization = Authorization;
+  }
+  return config;
+});
+
 // Service d'authentification unifié avec séparation Clients/Staff
 export const authService = {
   // Vérifier si un utilisateur est connecté
@@ -62,7 +82,7 @@ export const authService = {
     }
   },  getClientProfile: async (clientId) => {
     try {
-      const response = await fetch(`${API_BASE_URL}/clients/${clientId}`, {
+      const response = await apiFetch(`${API_BASE_URL}/clients/${clientId}`, {
         headers: {
           'Content-Type': 'application/json',
         }
@@ -83,7 +103,7 @@ export const authService = {
   // Mettre à jour le profil utilisateur (connecté au backend)
   updateProfile: async (clientId, clientData) => {
     try {
-      const response = await fetch(`${API_BASE_URL}/clients/${clientId}`, {
+      const response = await apiFetch(`${API_BASE_URL}/clients/${clientId}`, {
         method: 'PUT',
         headers: {
           'Content-Type': 'application/json',
@@ -111,7 +131,7 @@ export const authService = {
   // Changer le mot de passe (connecté au backend)
   changePassword: async (clientId, currentPassword, newPassword) => {
     try {
-      const response = await fetch(`${API_BASE_URL}/clients/${clientId}/change-password`, {
+      const response = await apiFetch(`${API_BASE_URL}/clients/${clientId}/change-password`, {
         method: 'PUT',
         headers: {
           'Content-Type': 'application/json',
@@ -153,8 +173,20 @@ export const authService = {
     }
   },
   
+  // En-tête Authorization avec le jeton reçu à la connexion (vide si absent)
+  authHeaders: () => {
+    const user = authService.getCurrentUser();
+    return user?.token ? { 'Authorization': `Bearer ${user.token}` } : {};
+  },
+
   // Se déconnecter
   logout: () => {
+    const headers = authService.authHeaders();
+    if (headers.Authorization) {
+      // Révocation du jeton côté serveur, sans attendre la réponse
+      apiFetch(`${API_BASE_URL}/auth/logout`, { method: 'POST', headers })
+        .catch(error => console.error('Logout error:', error));
+    }
     localStorage.removeItem('user');
     localStorage.removeItem('cart');
     window.dispatchEvent(new CustomEvent('userUpdated'));
@@ -184,7 +216,7 @@ export const authService = {
         requestBody = { email, password };
       }
       
-      const response = await fetch(`${API_BASE_URL}${endpoint}`, {
+      const response = await apiFetch(`${API_BASE_URL}${endpoint}`, {
         method: 'POST',
         headers: {
           'Content-Type': 'application/json',
@@ -258,7 +290,7 @@ export const authService = {
       
       console.log('Sending registration data:', registerData);
       
-      const response = await fetch(`${API_BASE_URL}/auth/register`, {
+      const response = await apiFetch(`${API_BASE_URL}/auth/register`, {
         method: 'POST',
         headers: {
           'Content-Type': 'application/json',
@@ -314,7 +346,7 @@ export const authService = {
   // Vérifier si un email existe (pour auto-détection)
   checkEmailExists: async (email) => {
     try {
-      const response = await fetch(`${API_BASE_URL}/auth/check-email/${encodeURIComponent(email)}`, {
+      const response = await apiFetch(`${API_BASE_URL}/auth/check-email/${encodeURIComponent(email)}`, {
         method: 'GET',
         headers: {
           'Accept': 'application/json'
@@ -335,7 +367,7 @@ export const authService = {
   // Créer un compte staff (admin seulement)
   createStaffAccount: async (staffData) => {
     try {
-      const response = await fetch(`${API_BASE_URL}/users`, {
+      const response = await apiFetch(`${API_BASE_URL}/users`, {
         method: 'POST',
         headers: {
           'Content-Type': 'application/json',
@@ -358,18 +390,133 @@ export const authService = {
 };
 
 
+// Taille maximale acceptée par le serveur : moins d'allers-retours
+const ORDER_PAGE_SIZE = 200;
+
+// Les listes de commandes sont paginées par curseur côté serveur :
+// suit nextCursor jusqu'à la dernière page et renvoie toutes les commandes
+export const fetchAllOrderPages = async (url, options = {}) => {
+  const orders = [];
+  let cursor = null;
+  do {
+    const params = [`size=${ORDER_PAGE_SIZE}`];
+    if (cursor) {
+      params.push(`cursor=${encodeURIComponent(cursor)}`);
+    }
+    const separator = url.includes('?') ? '&' : '?';
+    const response = await apiFetch(`${url}${separator}${params.join('&')}`, options);
+    
+    if (!response.ok) {
+      const errorText = await response.text();
+      const error = new Error(`Erreur ${response.status}: ${errorText}`);
+      error.status = response.status;
+      throw error;
+    }
+    
+    const data = await response.json();
+    orders.push(...(data.orders || []));
+    cursor = data.hasMore ? data.nextCursor : null;
+  } while (cursor);
+  
+  return orders;
+};
+
+// Flux temps réel des commandes (SSE) pour les écrans du personnel, à la place du polling :
+// onChange est appelé (regroupé) à chaque événement, après un RESYNC et après une reconnexion.
+// EventSource ne peut pas envoyer l'en-tête Authorization : un jeton de flux de courte durée
+// est demandé à chaque connexion. Renvoie la fonction de désabonnement (nettoyage d'un useEffect).
+const ORDER_EVENT_TYPES = ['ORDER_CREATED', 'STATUS_CHANGED', 'ORDER_CANCELLED', 'RESYNC'];
+const STREAM_RETRY_DELAY = 5000;
+
+export const subscribeToOrderEvents = (onChange) => {
+  let source = null;
+  let lastEventId = null;
+  let connected = false;
+  let closed = false;
+  let retryTimer = null;
+  let changeTimer = null;
+
+  const notify = () => {
+    clearTimeout(changeTimer);
+    changeTimer = setTimeout(onChange, 300);
+  };
+
+  const retry = () => {
+    if (!closed) {
+      retryTimer = setTimeout(connect, STREAM_RETRY_DELAY);
+    }
+  };
+
+  const connect = async () => {
+    try {
+      const response = await apiFetch(`${API_BASE_URL}/orders/stream/token`, { method: 'POST' });
+      if (!response.ok) {
+        throw new Error(`Erreur ${response.status}`);
+      }
+      const { token } = await response.json();
+      if (closed) {
+        return;
+      }
+      const params = [`access_token=${encodeURIComponent(token)}`];
+      if (lastEventId) {
+        // Le serveur rejoue les événements manqués depuis le journal
+        params.push(`lastEventId=${encodeURIComponent(lastEventId)}`);
+      }
+      source = new EventSource(`${API_BASE_URL}/orders/stream?${params.join('&')}`);
+      source.onopen = () => {
+        if (connected) {
+          notify();
+        }
+        connected = true;
+      };
+      ORDER_EVENT_TYPES.forEach(type => source.addEventListener(type, event => {
+        if (event.lastEventId) {
+          lastEventId = event.lastEventId;
+        }
+        notify();
+      }));
+      // La reconnexion automatique du navigateur réutiliserait un jeton expiré :
+      // on ferme et on rouvre avec un nouveau jeton et le dernier id reçu
+      source.onerror = () => {
+        source.close();
+        retry();
+      };
+    } catch (error) {
+      console.error('Flux des commandes indisponible:', error);
+      retry();
+    }
+  };
+
+  connect();
+
+  return () => {
+    closed = true;
+    clearTimeout(retryTimer);
+    clearTimeout(changeTimer);
+    if (source) {
+      source.close();
+    }
+  };
+};
+
 export const orderService = {
   
   // Créer une commande
-  createOrder: async (orderData) => {
+  // idempotencyKey : même clé pour les nouvelles tentatives d'une même commande (pas de doublon)
+  createOrder: async (orderData, idempotencyKey) => {
     try {
       console.log('Envoi de la commande:', orderData);
       
-      const response = await fetch(`${API_BASE_URL}/orders`, {
+      const headers = {
+        'Content-Type': 'application/json',
+      };
+      if (idempotencyKey) {
+        headers['Idempotency-Key'] = idempotencyKey;
+      }
+      
+      const response = await apiFetch(`${API_BASE_URL}/orders`, {
         method: 'POST',
-        headers: {
-          'Content-Type': 'application/json',
-        },
+        headers,
         body: JSON.stringify(orderData)
       });
 
@@ -393,7 +540,7 @@ export const orderService = {
     try {
       console.log('Vérification client:', email);
       
-      const response = await fetch(`${API_BASE_URL}/orders/check-client`, {
+      const response = await apiFetch(`${API_BASE_URL}/orders/check-client`, {
         method: 'POST',
         headers: {
           'Content-Type': 'application/json',
@@ -420,7 +567,7 @@ export const orderService = {
     try {
       console.log('Connexion client:', email);
       
-      const response = await fetch(`${API_BASE_URL}/orders/login`, {
+      const response = await apiFetch(`${API_BASE_URL}/orders/login`, {
         method: 'POST',
         headers: {
           'Content-Type': 'application/json',
@@ -436,7 +583,7 @@ export const orderService = {
       
       if (data.success) {
         console.log('Connexion réussie:', data.client);
-        return data.client;
+        return { ...data.client, token: data.token };
       } else {
         throw new Error(data.message || 'Email ou mot de passe incorrect');
       }
@@ -478,28 +625,25 @@ export const orderService = {
     
     console.log('URL appel API:', url);
     
-    const response = await fetch(url, {
-      headers: {
-        'Content-Type': 'application/json',
-      }
-    });
-    
-    if (!response.ok) {
-      if (response.status === 404) {
+    let orders;
+    try {
+      orders = await fetchAllOrderPages(url, {
+        headers: {
+          'Content-Type': 'application/json',
+        }
+      });
+    } catch (error) {
+      if (error.status === 404) {
         console.log('Aucune commande trouvée pour ce client');
         return [];
       }
-      
-      const errorText = await response.text();
-      console.error('Erreur API:', response.status, errorText);
-      throw new Error(`Erreur ${response.status}: ${errorText}`);
+      console.error('Erreur API:', error.message);
+      throw error;
     }
-
-    const data = await response.json();
-    console.log('Données reçues:', data);
+    console.log('Commandes reçues:', orders.length);
     
-    // Retourner les commandes du DTO
-    return data.orders || [];
+    // Toutes les pages de commandes du client
+    return orders;
     
   } catch (error) {
     console.error('Erreur récupération commandes:', error);
@@ -519,7 +663,7 @@ export const orderService = {
     try {
       console.log('Récupération commande:', orderId);
       
-      const response = await fetch(`${API_BASE_URL}/orders/${orderId}`, {
+      const response = await apiFetch(`${API_BASE_URL}/orders/${orderId}`, {
         headers: {
           'Content-Type': 'application/json',
         }
@@ -543,7 +687,7 @@ export const orderService = {
     try {
       console.log('Annulation commande:', orderId, 'raison:', reason);
       
-      const response = await fetch(`${API_BASE_URL}/orders/${orderId}/cancel`, {
+      const response = await apiFetch(`${API_BASE_URL}/orders/${orderId}/cancel`, {
         method: 'PUT',
         headers: {
           'Content-Type': 'application/json',
@@ -571,7 +715,7 @@ export const orderService = {
     try {
       console.log('Recommandation de la commande:', orderId);
       
-      const response = await fetch(`${API_BASE_URL}/orders/${orderId}/reorder`, {
+      const response = await apiFetch(`${API_BASE_URL}/orders/${orderId}/reorder`, {
         method: 'POST',
         headers: {
           'Content-Type': 'application/json',
@@ -610,24 +754,16 @@ getAllOrders: async () => {
       throw new Error('Accès réservé aux administrateurs');
     }
     
-    const response = await fetch(`${API_BASE_URL}/orders/admin/all`, {
+    const orders = await fetchAllOrderPages(`${API_BASE_URL}/orders/admin/all`, {
       headers: {
         'Content-Type': 'application/json',
         // Pas besoin de token si votre backend ne l'utilise pas
       }
     });
+    console.log('API Response getAllOrders:', orders.length, 'commandes');
     
-    if (!response.ok) {
-      const errorText = await response.text();
-      console.error('Erreur API getAllOrders:', response.status, errorText);
-      throw new Error(`Erreur ${response.status}: ${errorText || 'Impossible de récupérer les commandes'}`);
-    }
-    
-    const data = await response.json();
-    console.log('API Response getAllOrders:', data);
-    
-    // Votre backend retourne {success: true, orders: [...]}
-    return data.orders || [];
+    // Votre backend retourne {success: true, orders: [...], nextCursor, hasMore} par page
+    return orders;
     
   } catch (error) {
     console.error('Erreur getAllOrders:', error);
@@ -642,10 +778,10 @@ updateOrderStatus: async (orderId, status, updatedBy = 'admin') => {
       throw new Error('Non authentifié');
     }
     
-    const response = await fetch(`${API_BASE_URL}/orders/${orderId}/update-status`, {
+    const response = await apiFetch(`${API_BASE_URL}/orders/${orderId}/update-status`, {
       method: 'PUT',
       headers: {
-        'Content-Type': 'application/json',
+        'Content-Type': 'application/json'
       },
       body: JSON.stringify({ 
         status: status,
@@ -677,20 +813,12 @@ getOrdersByStatus: async (status) => {
       throw new Error('Non authentifié');
     }
     
-    const response = await fetch(`${API_BASE_URL}/orders/by-status/${status}`, {
+    return await fetchAllOrderPages(`${API_BASE_URL}/orders/by-status/${status}`, {
       headers: {
         'Content-Type': 'application/json',
       }
     });
     
-    if (!response.ok) {
-      const errorText = await response.text();
-      throw new Error(`Erreur ${response.status}: ${errorText || 'Erreur lors de la récupération'}`);
-    }
-    
-    const data = await response.json();
-    return data.orders || [];
-    
   } catch (error) {
     console.error('Erreur getOrdersByStatus:', error);
     throw error;
@@ -704,7 +832,7 @@ getPendingOrdersForChef: async () => {
       throw new Error('Accès non autorisé');
     }
     
-    const response = await fetch(`${API_BASE_URL}/orders/chef/pending`, {
+    const response = await apiFetch(`${API_BASE_URL}/orders/chef/pending`, {
       headers: { 'Content-Type': 'application/json' }
     });
     
@@ -727,7 +855,7 @@ getReadyOrdersForDelivery: async () => {
       throw new Error('Accès non autorisé');
     }
     
-    const response = await fetch(`${API_BASE_URL}/orders/delivery/ready`, {
+    const response = await apiFetch(`${API_BASE_URL}/orders/delivery/ready`, {
       headers: { 'Content-Type': 'application/json' }
     });
     
@@ -746,7 +874,7 @@ getReadyOrdersForDelivery: async () => {
 // Méthode pour envoyer une notification
 sendNotification: async (orderId, notificationType, message) => {
   try {
-    const response = await fetch(`${API_BASE_URL}/orders/${orderId}/notify`, {
+    const response = await apiFetch(`${API_BASE_URL}/orders/${orderId}/notify`, {
       method: 'POST',
       headers: { 'Content-Type': 'application/json' },
       body: JSON.stringify({ type: notificationType, message })
@@ -771,16 +899,13 @@ getOrdersInDelivery: async () => {
       throw new Error('Accès non autorisé');
     }
     
-    const response = await fetch(`${API_BASE_URL}/orders/by-status/EN_LIVRAISON`, {
-      headers: { 'Content-Type': 'application/json' }
-    });
-    
-    if (!response.ok) {
+    try {
+      return await fetchAllOrderPages(`${API_BASE_URL}/orders/by-status/EN_LIVRAISON`, {
+        headers: { 'Content-Type': 'application/json' }
+      });
+    } catch (error) {
       throw new Error('Erreur lors de la récupération des commandes en livraison');
     }
-    
-    const data = await response.json();
-    return data.orders || [];
   } catch (error) {
     console.error('Erreur:', error);
     throw error;
@@ -825,7 +950,7 @@ export const dishService = {
   // Récupérer tous les plats
   getAllDishes: async () => {
     try {
-      const response = await fetch(`${API_BASE_URL}/dishes`);
+      const response = await apiFetch(`${API_BASE_URL}/dishes`);
       
       if (!response.ok) {
         throw new Error('Network response was not ok');
@@ -841,7 +966,7 @@ export const dishService = {
   // Récupérer un plat par ID
   getDishById: async (id) => {
     try {
-      const response = await fetch(`${API_BASE_URL}/dishes/${id}`);
+      const response = await apiFetch(`${API_BASE_URL}/dishes/${id}`);
       
       if (!response.ok) {
         throw new Error('Network response was not ok');
@@ -857,7 +982,7 @@ export const dishService = {
   // Récupérer les plats par catégorie
   getDishesByCategory: async (categoryId) => {
     try {
-      const response = await fetch(`${API_BASE_URL}/dishes/category/${categoryId}`);
+      const response = await apiFetch(`${API_BASE_URL}/dishes/category/${categoryId}`);
       
       if (!response.ok) {
         throw new Error('Network response was not ok');
@@ -873,7 +998,7 @@ export const dishService = {
   // Rechercher des plats
   searchDishes: async (query) => {
     try {
-      const response = await fetch(`${API_BASE_URL}/dishes/search?q=${encodeURIComponent(query)}`);
+      const response = await apiFetch(`${API_BASE_URL}/dishes/search?q=${encodeURIComponent(query)}`);
       
       if (!response.ok) {
         throw new Error('Network response was not ok');
@@ -889,7 +1014,7 @@ export const dishService = {
   // Récupérer les plats populaires
   getPopularDishes: async () => {
     try {
-      const response = await fetch(`${API_BASE_URL}/dishes/popular`);
+      const response = await apiFetch(`${API_BASE_URL}/dishes/popular`);
       
       if (!response.ok) {
         throw new Error('Network response was not ok');
@@ -905,7 +1030,7 @@ export const dishService = {
   // Récupérer les nouveaux plats
   getNewDishes: async () => {
     try {
-      const response = await fetch(`${API_BASE_URL}/dishes/new`);
+      const response = await apiFetch(`${API_BASE_URL}/dishes/new`);
       
       if (!response.ok) {
         throw new Error('Network response was not ok');
@@ -924,7 +1049,7 @@ export const categoryService = {
   // Récupérer toutes les catégories
   getAllCategories: async () => {
     try {
-      const response = await fetch(`${API_BASE_URL}/categories`);
+      const response = await apiFetch(`${API_BASE_URL}/categories`);
       
       if (!response.ok) {
         throw new Error('Network response was not ok');
@@ -940,7 +1065,7 @@ export const categoryService = {
   // Récupérer une catégorie par ID
   getCategoryById: async (id) => {
     try {
-      const response = await fetch(`${API_BASE_URL}/categories/${id}`);
+      const response = await apiFetch(`${API_BASE_URL}/categories/${id}`);
       
       if (!response.ok) {
         throw new Error('Network response was not ok');